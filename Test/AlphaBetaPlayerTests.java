@@ -0,0 +1,166 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.player.AIPlayer;
+import model.player.AlphaBetaAIPlayer;
+import model.player.Player;
+import model.position.Position3D;
+import model.tile.Tile;
+import model.tile.TileType;
+
+/**
+ * Tests for the alpha-beta search player.
+ */
+public class AlphaBetaPlayerTests {
+
+  /**
+   * Works out the final disc difference for the side to move with perfect play on both sides,
+   * by trying every line to the end of the game.
+   * @param model game to solve, left as it was
+   * @return discs of the side to move minus discs of the opponent at the end
+   */
+  private int solve(IReversiModel model) {
+    if (model.isGameOver()) {
+      int difference = model.getBlackScore() - model.getWhiteScore();
+      return model.getTurn().equals(TileType.BLACK) ? difference : -difference;
+    }
+    if (!model.hasLegalMove()) {
+      model.makePass();
+      int score = -this.solve(model);
+      model.undoMove();
+      return score;
+    }
+    int best = Integer.MIN_VALUE;
+    for (Tile t : model.getCopyOfBoard()) {
+      if (model.isMoveLegal(t.getPos())) {
+        model.makeMove(t.getPos());
+        best = Math.max(best, -this.solve(model));
+        model.undoMove();
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Plays both sides with search players and checks every move against a full solve.
+   * @param threads threads each player searches with
+   */
+  private void checkPerfectPlay(int threads) {
+    IReversiModel model = new ReversiModelImpl(3);
+    AlphaBetaAIPlayer black = new AlphaBetaAIPlayer(TileType.BLACK, model, 60_000, 64, threads);
+    AlphaBetaAIPlayer white = new AlphaBetaAIPlayer(TileType.WHITE, model, 60_000, 64, threads);
+    while (!model.isGameOver()) {
+      AlphaBetaAIPlayer current = model.getTurn().equals(TileType.BLACK) ? black : white;
+      if (!model.hasLegalMove()) {
+        model.pass();
+        continue;
+      }
+      Position3D move = current.getOptimalMove();
+      IReversiModel copy = new ReversiModelImpl(model);
+      int best = this.solve(copy);
+      copy.makeMove(move);
+      Assert.assertEquals(best, -this.solve(copy));
+      model.placeTile(move);
+    }
+    black.close();
+    white.close();
+  }
+
+  @Test
+  public void testSearchToTheEndFindsAPerfectMove() {
+    this.checkPerfectPlay(1);
+  }
+
+  @Test
+  public void testParallelSearchToTheEndFindsAPerfectMove() {
+    this.checkPerfectPlay(4);
+  }
+
+  @Test
+  public void testParallelSearchWithinTheBudget() throws InterruptedException {
+    IReversiModel model = new ReversiModelImpl(7);
+    AlphaBetaAIPlayer player = new AlphaBetaAIPlayer(TileType.BLACK, model, 100, 64, 3);
+    for (int i = 0; i < 3; i++) {
+      long start = System.nanoTime();
+      Position3D move = player.getOptimalMove();
+      Assert.assertTrue(model.isMoveLegal(move));
+      Assert.assertTrue((System.nanoTime() - start) / 1_000_000 < 2000);
+    }
+    Assert.assertTrue(player.getLastNodeCount() > 0);
+
+    // Closing stops the helper threads, and a later move starts new ones
+    List<Thread> helpers = new ArrayList<>();
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().equals("search-helper")) {
+        helpers.add(thread);
+      }
+    }
+    Assert.assertFalse(helpers.isEmpty());
+    player.close();
+    for (Thread helper : helpers) {
+      helper.join(5000);
+      Assert.assertFalse(helper.isAlive());
+    }
+    Assert.assertTrue(model.isMoveLegal(player.getOptimalMove()));
+    player.close();
+  }
+
+  @Test
+  public void testFixedDepthIsRepeatable() {
+    IReversiModel model = new SquareReversiModelImpl(8);
+    model.placeTile(new AIPlayer(TileType.BLACK, model).getOptimalMove());
+    model.placeTile(new AIPlayer(TileType.WHITE, model).getOptimalMove());
+    AlphaBetaAIPlayer first = new AlphaBetaAIPlayer(TileType.BLACK, model, 60_000, 4);
+    AlphaBetaAIPlayer second = new AlphaBetaAIPlayer(TileType.BLACK, model, 60_000, 4);
+    Assert.assertEquals(first.getOptimalMove(), second.getOptimalMove());
+    Assert.assertEquals(4, first.getLastDepth());
+    Assert.assertTrue(first.getLastNodeCount() > 0);
+  }
+
+  @Test
+  public void testTimeBudgetIsRespected() {
+    IReversiModel model = new ReversiModelImpl(9);
+    AlphaBetaAIPlayer player = new AlphaBetaAIPlayer(TileType.BLACK, model, 50);
+    long start = System.nanoTime();
+    Position3D move = player.getOptimalMove();
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    Assert.assertTrue(model.isMoveLegal(move));
+    Assert.assertTrue("Took " + millis + "ms", millis < 1000);
+    Assert.assertTrue(player.getLastDepth() >= 1);
+  }
+
+  @Test
+  public void testBeatsTheGreedyPlayer() {
+    IReversiModel model = new ReversiModelImpl(5);
+    Player black = new AlphaBetaAIPlayer(TileType.BLACK, model, 60_000, 3);
+    Player white = new AIPlayer(TileType.WHITE, model);
+    while (!model.isGameOver()) {
+      Player current = model.getTurn().equals(TileType.BLACK) ? black : white;
+      if (model.hasLegalMove()) {
+        model.placeTile(current.getOptimalMove());
+      } else {
+        model.pass();
+      }
+    }
+    Assert.assertTrue(model.getBlackScore() > model.getWhiteScore());
+  }
+
+  @Test
+  public void testBadSettingsThrow() {
+    IReversiModel model = new ReversiModelImpl(4);
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            new AlphaBetaAIPlayer(TileType.BLACK, model, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            new AlphaBetaAIPlayer(TileType.BLACK, model, 100, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            new AlphaBetaAIPlayer(TileType.BLACK, model, 100, 10, 0));
+    Assert.assertThrows(IllegalStateException.class, () ->
+            new AlphaBetaAIPlayer(TileType.WHITE, model, 100).getOptimalMove());
+  }
+}
@@ -0,0 +1,164 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.BitboardReversiModelImpl;
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.geometry.BoardGeometry;
+import model.player.AIPlayer;
+import model.player.Player;
+import model.position.Position3D;
+import model.tile.Tile;
+import model.tile.TileType;
+import view.ReversiTextualView;
+import view.TextualView;
+
+/**
+ * Tests for the bitboard version of the model, mostly checking that it plays exactly like
+ * ReversiModelImpl and SquareReversiModelImpl.
+ */
+public class BitboardModelTests {
+
+  /**
+   * Plays the same AI game on both models and checks every tile, score and legality along the way.
+   * @param list model using the list of tiles, which the AI players look at
+   * @param bits bitboard model of the same shape
+   */
+  private void playBothAndCompare(IReversiModel list, IReversiModel bits) {
+    Player black = new AIPlayer(TileType.BLACK, list);
+    Player white = new AIPlayer(TileType.WHITE, list);
+    int[] listMoves = new int[list.getBoardSize()];
+    int[] bitsMoves = new int[bits.getBoardSize()];
+    while (!list.isGameOver()) {
+      Assert.assertEquals(list.getCopyOfBoard(), bits.getCopyOfBoard());
+      Assert.assertEquals(list.getTurn(), bits.getTurn());
+      Assert.assertEquals(list.getBlackScore(), bits.getBlackScore());
+      Assert.assertEquals(list.getWhiteScore(), bits.getWhiteScore());
+      Assert.assertEquals(list.getPositionHash(), bits.getPositionHash());
+      Assert.assertEquals(list.hasLegalMove(), bits.hasLegalMove());
+      for (Tile t : list.getCopyOfBoard()) {
+        Assert.assertEquals(list.isMoveLegal(t.getPos()), bits.isMoveLegal(t.getPos()));
+        Assert.assertEquals(list.getFlipCount(t.getPos()), bits.getFlipCount(t.getPos()));
+      }
+      int count = list.legalMoves(listMoves);
+      Assert.assertEquals(count, bits.legalMoves(bitsMoves));
+      for (int i = 0; i < count; i++) {
+        Assert.assertEquals(listMoves[i], bitsMoves[i]);
+        Assert.assertTrue(list.isMoveLegal(list.getGeometry().getPosition(listMoves[i])));
+      }
+      Player current = list.getTurn().equals(TileType.BLACK) ? black : white;
+      if (list.hasLegalMove()) {
+        Position3D move = current.getOptimalMove();
+        list.placeTile(move);
+        bits.placeTile(move);
+      } else {
+        list.pass();
+        bits.pass();
+      }
+    }
+    Assert.assertTrue(bits.isGameOver());
+    Assert.assertEquals(list.getCopyOfBoard(), bits.getCopyOfBoard());
+  }
+
+  @Test
+  public void testStartingBoardMatchesListModel() {
+    IReversiModel list = new ReversiModelImpl(4);
+    IReversiModel bits = new BitboardReversiModelImpl(4);
+    Assert.assertEquals(list.getBoardSize(), bits.getBoardSize());
+    Assert.assertEquals(list.getCopyOfBoard(), bits.getCopyOfBoard());
+    Assert.assertEquals(3, bits.getBlackScore());
+    Assert.assertEquals(3, bits.getWhiteScore());
+  }
+
+  @Test
+  public void testWholeGamesMatchListModel() {
+    for (int radius = 2; radius <= 7; radius++) {
+      playBothAndCompare(new ReversiModelImpl(radius), new BitboardReversiModelImpl(radius));
+    }
+  }
+
+  @Test
+  public void testWholeSquareGamesMatchSquareModel() {
+    for (int diameter = 2; diameter <= 10; diameter += 2) {
+      playBothAndCompare(new SquareReversiModelImpl(diameter),
+              new BitboardReversiModelImpl(BoardGeometry.square(diameter)));
+    }
+  }
+
+  @Test
+  public void testTextViewWorksOnBitboard() {
+    IReversiModel bits = new BitboardReversiModelImpl(3);
+    bits.placeTile(new Position3D(1, -2, 1));
+    TextualView tv = new ReversiTextualView(bits);
+    TextualView expected = new ReversiTextualView(new ReversiModelImpl(bits));
+    Assert.assertEquals(expected.toString(), tv.toString());
+  }
+
+  @Test
+  public void testCopyConstructorCopiesState() {
+    IReversiModel list = new ReversiModelImpl(5);
+    list.placeTile(new Position3D(-2, 1, 1));
+    list.pass();
+    IReversiModel bits = new BitboardReversiModelImpl(list);
+    Assert.assertEquals(list.getCopyOfBoard(), bits.getCopyOfBoard());
+    Assert.assertEquals(TileType.BLACK, bits.getTurn());
+    Assert.assertEquals(1, bits.getPassesInARow());
+  }
+
+  @Test
+  public void testGetTileAtWritesThrough() {
+    IReversiModel bits = new BitboardReversiModelImpl(3);
+    bits.getTileAt(new Position3D(0, 0, 0)).setTileType(TileType.WHITE);
+    Assert.assertEquals(TileType.WHITE, bits.getCopyOfTileAt(new Position3D(0, 0, 0))
+            .getTileType());
+    Assert.assertEquals(4, bits.getWhiteScore());
+    Assert.assertFalse(bits.isMoveLegal(new Position3D(0, 0, 0)));
+  }
+
+  @Test
+  public void testIllegalMovesThrow() {
+    IReversiModel bits = new BitboardReversiModelImpl(4);
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            bits.placeTile(new Position3D(5, -4, -1)));
+    Assert.assertThrows(IllegalStateException.class, () ->
+            bits.placeTile(new Position3D(0, -1, 1)));
+    Assert.assertThrows(IllegalStateException.class, () ->
+            bits.placeTile(new Position3D(0, 0, 0)));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            bits.getTileAt(new Position3D(4, -4, 0)));
+  }
+
+  @Test
+  public void testMakeAndUndoWholeGameMatchesListModel() {
+    IReversiModel list = new ReversiModelImpl(5);
+    IReversiModel bits = new BitboardReversiModelImpl(5);
+    Player black = new AIPlayer(TileType.BLACK, list);
+    Player white = new AIPlayer(TileType.WHITE, list);
+    int made = 0;
+    while (!list.isGameOver()) {
+      Player current = list.getTurn().equals(TileType.BLACK) ? black : white;
+      if (list.hasLegalMove()) {
+        Position3D move = current.getOptimalMove();
+        list.makeMove(move);
+        bits.makeMove(move);
+      } else {
+        list.makePass();
+        bits.makePass();
+      }
+      made++;
+      Assert.assertEquals(list.getCopyOfBoard(), bits.getCopyOfBoard());
+    }
+    for (int i = 0; i < made; i++) {
+      list.undoMove();
+      bits.undoMove();
+      Assert.assertEquals(list.getCopyOfBoard(), bits.getCopyOfBoard());
+      Assert.assertEquals(list.getBlackScore(), bits.getBlackScore());
+      Assert.assertEquals(list.getWhiteScore(), bits.getWhiteScore());
+      Assert.assertEquals(list.getPassesInARow(), bits.getPassesInARow());
+      Assert.assertEquals(list.getTurn(), bits.getTurn());
+      Assert.assertEquals(list.getPositionHash(), bits.getPositionHash());
+    }
+    Assert.assertEquals(new ReversiModelImpl(5).getCopyOfBoard(), bits.getCopyOfBoard());
+  }
+}
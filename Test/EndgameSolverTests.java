@@ -0,0 +1,153 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.player.AIPlayer;
+import model.player.AdvancedAIPlayer;
+import model.player.EndgameSolver;
+import model.position.Position3D;
+import model.tile.Tile;
+import model.tile.TileType;
+
+/**
+ * Tests for the endgame solver.
+ */
+public class EndgameSolverTests {
+
+  /**
+   * Works out the final disc difference for the side to move with perfect play on both sides,
+   * by trying every line to the end of the game.
+   * @param model game to solve, left as it was
+   * @return discs of the side to move minus discs of the opponent at the end
+   */
+  private int solve(IReversiModel model) {
+    if (model.isGameOver()) {
+      int difference = model.getBlackScore() - model.getWhiteScore();
+      return model.getTurn().equals(TileType.BLACK) ? difference : -difference;
+    }
+    if (!model.hasLegalMove()) {
+      model.makePass();
+      int score = -this.solve(model);
+      model.undoMove();
+      return score;
+    }
+    int best = Integer.MIN_VALUE;
+    for (Tile t : model.getCopyOfBoard()) {
+      if (model.isMoveLegal(t.getPos())) {
+        model.makeMove(t.getPos());
+        best = Math.max(best, -this.solve(model));
+        model.undoMove();
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Plays greedy moves (passing when there are none) until only a few empty cells are left.
+   * @param model game to play
+   * @param empties empty cells to stop at
+   */
+  private void playDownTo(IReversiModel model, int empties) {
+    while (model.getGeometry().getCellCount() - model.getBlackScore() - model.getWhiteScore()
+            > empties && !model.isGameOver()) {
+      if (model.hasLegalMove()) {
+        model.placeTile(new AIPlayer(model.getTurn(), model).getOptimalMove());
+      } else {
+        model.pass();
+      }
+    }
+  }
+
+  /**
+   * Checks that the solver gets the same result as a full solve, and that its move gets it.
+   * @param model game with few enough empty cells to solve by brute force
+   */
+  private void checkSolve(IReversiModel model) {
+    EndgameSolver solver = new EndgameSolver(EndgameSolver.DEFAULT_MAX_EMPTIES);
+    Assert.assertTrue(solver.canSolve(model));
+    int expected = this.solve(model);
+    Assert.assertEquals(expected, solver.solve(model));
+    Assert.assertEquals(expected, solver.getDifferential());
+    Assert.assertTrue(solver.getNodeCount() > 0);
+    Position3D move = solver.getBestMove();
+    if (move == null) {
+      Assert.assertFalse(model.hasLegalMove());
+      return;
+    }
+    model.makeMove(move);
+    Assert.assertEquals(expected, -this.solve(model));
+    model.undoMove();
+  }
+
+  @Test
+  public void testSolvesHexEndgames() {
+    IReversiModel model = new ReversiModelImpl(4);
+    this.playDownTo(model, 10);
+    while (!model.isGameOver()) {
+      this.checkSolve(model);
+      if (model.hasLegalMove()) {
+        model.placeTile(new AdvancedAIPlayer(model.getTurn(), model).getOptimalMove());
+      } else {
+        model.pass();
+      }
+    }
+  }
+
+  @Test
+  public void testSolvesSquareEndgames() {
+    IReversiModel model = new SquareReversiModelImpl(6);
+    this.playDownTo(model, 10);
+    this.checkSolve(model);
+    IReversiModel small = new SquareReversiModelImpl(4);
+    this.checkSolve(small);
+  }
+
+  @Test
+  public void testPlayerWithSolverPlaysPerfectEndgames() {
+    IReversiModel model = new ReversiModelImpl(3);
+    AIPlayer black = new AIPlayer(TileType.BLACK, model);
+    AIPlayer white = new AdvancedAIPlayer(TileType.WHITE, model);
+    black.setEndgameSolver(new EndgameSolver(8));
+    white.setEndgameSolver(new EndgameSolver(8));
+    while (!model.isGameOver()) {
+      if (!model.hasLegalMove()) {
+        model.pass();
+        continue;
+      }
+      AIPlayer current = model.getTurn().equals(TileType.BLACK) ? black : white;
+      boolean solved = new EndgameSolver(8).canSolve(model);
+      Position3D move = current.getOptimalMove();
+      if (solved) {
+        IReversiModel copy = new ReversiModelImpl(model);
+        int best = this.solve(copy);
+        copy.makeMove(move);
+        Assert.assertEquals(best, -this.solve(copy));
+      }
+      model.placeTile(move);
+    }
+  }
+
+  @Test
+  public void testOnlyTakesPositionsWithFewEmptyCells() {
+    IReversiModel model = new ReversiModelImpl(4);
+    EndgameSolver solver = new EndgameSolver(12);
+    Assert.assertFalse(solver.canSolve(model));
+    this.playDownTo(model, 12);
+    Assert.assertTrue(solver.canSolve(model));
+    Assert.assertEquals(12, solver.getMaxEmpties());
+  }
+
+  @Test
+  public void testBadSettingsThrow() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> new EndgameSolver(-1));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new EndgameSolver(10, 0));
+    IReversiModel model = new ReversiModelImpl(3);
+    this.playDownTo(model, 0);
+    while (!model.isGameOver()) {
+      model.pass();
+    }
+    Assert.assertThrows(IllegalArgumentException.class, () -> new EndgameSolver(10).solve(model));
+  }
+}
@@ -0,0 +1,150 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.BitboardReversiModelImpl;
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.evaluation.WeightedEvaluator;
+import model.evaluation.WeightedEvaluator.Term;
+import model.geometry.BoardGeometry;
+import model.player.AIPlayer;
+import model.player.AlphaBetaAIPlayer;
+import model.position.Position3D;
+import model.tile.TileType;
+
+/**
+ * Tests for the evaluators.
+ */
+public class EvaluatorTests {
+
+  /**
+   * Works out every term of a position.
+   * @param board position to look at
+   * @return one value per term
+   */
+  private int[] features(BitboardReversiModelImpl board) {
+    int[] values = new int[Term.values().length];
+    WeightedEvaluator.features(board, values);
+    return values;
+  }
+
+  /**
+   * Puts a disc on a cell.
+   * @param board board to change
+   * @param q q coordinate of the cell
+   * @param r r coordinate of the cell
+   * @param type disc to put there
+   */
+  private void put(BitboardReversiModelImpl board, int q, int r, TileType type) {
+    board.getTileAt(new Position3D(q, r, -q - r)).setTileType(type);
+  }
+
+  @Test
+  public void testStartingPositionIsBalanced() {
+    int[] values = this.features(new BitboardReversiModelImpl(4));
+    Assert.assertEquals(0, values[Term.MOBILITY.ordinal()]);
+    Assert.assertEquals(0, values[Term.POTENTIAL_MOBILITY.ordinal()]);
+    Assert.assertEquals(0, values[Term.CORNERS.ordinal()]);
+    Assert.assertEquals(0, values[Term.EDGE_STABILITY.ordinal()]);
+    Assert.assertEquals(0, values[Term.FRONTIER.ordinal()]);
+    Assert.assertEquals(0, values[Term.DISCS.ordinal()]);
+    // 37 cells less 6 discs leaves an odd number of empty cells
+    Assert.assertEquals(1, values[Term.PARITY.ordinal()]);
+  }
+
+  @Test
+  public void testCornersAndStableEdges() {
+    BitboardReversiModelImpl board = new BitboardReversiModelImpl(4);
+    this.put(board, 3, -3, TileType.BLACK);
+    this.put(board, 3, -2, TileType.BLACK);
+    this.put(board, 3, -1, TileType.BLACK);
+    this.put(board, -3, 3, TileType.WHITE);
+    int[] values = this.features(board);
+    Assert.assertEquals(0, values[Term.CORNERS.ordinal()]);
+    Assert.assertEquals(2, values[Term.EDGE_STABILITY.ordinal()]);
+    this.put(board, 0, -3, TileType.BLACK);
+    this.put(board, 1, -3, TileType.WHITE);
+    values = this.features(board);
+    Assert.assertEquals(1, values[Term.CORNERS.ordinal()]);
+    Assert.assertEquals(2, values[Term.EDGE_STABILITY.ordinal()]);
+    // A whole edge between two own corners counts once
+    this.put(board, 3, 0, TileType.BLACK);
+    values = this.features(board);
+    Assert.assertEquals(2, values[Term.CORNERS.ordinal()]);
+    Assert.assertEquals(2, values[Term.EDGE_STABILITY.ordinal()]);
+  }
+
+  @Test
+  public void testSquareCornersAndFrontier() {
+    BoardGeometry geometry = BoardGeometry.square(8);
+    BitboardReversiModelImpl board = new BitboardReversiModelImpl(geometry);
+    int[] values = this.features(board);
+    Assert.assertEquals(0, values[Term.FRONTIER.ordinal()]);
+    this.put(board, 0, 0, TileType.BLACK);
+    this.put(board, 1, 0, TileType.BLACK);
+    this.put(board, 7, 7, TileType.BLACK);
+    values = this.features(board);
+    Assert.assertEquals(2, values[Term.CORNERS.ordinal()]);
+    Assert.assertEquals(1, values[Term.EDGE_STABILITY.ordinal()]);
+    Assert.assertEquals(3, values[Term.FRONTIER.ordinal()]);
+    Assert.assertEquals(3, values[Term.DISCS.ordinal()]);
+  }
+
+  @Test
+  public void testDefaultWeightsScoreMobilityAndDiscs() {
+    IReversiModel model = new ReversiModelImpl(5);
+    WeightedEvaluator evaluator = new WeightedEvaluator();
+    for (int i = 0; i < 6; i++) {
+      model.placeTile(new AIPlayer(model.getTurn(), model).getOptimalMove());
+      BitboardReversiModelImpl board = new BitboardReversiModelImpl(model);
+      int[] moves = new int[model.getGeometry().getCellCount()];
+      int own = model.legalMoves(moves);
+      model.makePass();
+      int opponent = model.legalMoves(moves);
+      model.undoMove();
+      int discs = model.getBlackScore() - model.getWhiteScore();
+      if (model.getTurn().equals(TileType.WHITE)) {
+        discs = -discs;
+      }
+      Assert.assertEquals(8 * (own - opponent) + discs, evaluator.evaluate(board));
+    }
+  }
+
+  @Test
+  public void testScoreIsTheWeightedSumOfTheTerms() {
+    int[] weights = {3, 2, 50, 10, -4, 1, 5};
+    WeightedEvaluator evaluator = new WeightedEvaluator(weights);
+    IReversiModel model = new SquareReversiModelImpl(8);
+    for (int i = 0; i < 10; i++) {
+      model.placeTile(new AIPlayer(model.getTurn(), model).getOptimalMove());
+      BitboardReversiModelImpl board = new BitboardReversiModelImpl(model);
+      int[] values = this.features(board);
+      int expected = 0;
+      for (int t = 0; t < weights.length; t++) {
+        expected += weights[t] * values[t];
+      }
+      Assert.assertEquals(expected, evaluator.evaluate(board));
+      Assert.assertEquals(model.getPositionHash(), board.getPositionHash());
+    }
+    evaluator.setWeight(Term.CORNERS, 80);
+    Assert.assertEquals(80, evaluator.getWeight(Term.CORNERS));
+  }
+
+  @Test
+  public void testSearchPlayerUsesTheGivenEvaluator() {
+    IReversiModel model = new ReversiModelImpl(5);
+    AlphaBetaAIPlayer player = new AlphaBetaAIPlayer(TileType.BLACK, model, 60_000, 3);
+    player.setEvaluator(new WeightedEvaluator(new int[] {5, 2, 100, 20, -3, 0, 2}));
+    Assert.assertTrue(model.isMoveLegal(player.getOptimalMove()));
+  }
+
+  @Test
+  public void testBadSettingsThrow() {
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            new WeightedEvaluator(new int[] {1, 2}));
+    AlphaBetaAIPlayer player = new AlphaBetaAIPlayer(TileType.BLACK, new ReversiModelImpl(4),
+            100);
+    Assert.assertThrows(IllegalArgumentException.class, () -> player.setEvaluator(null));
+  }
+}
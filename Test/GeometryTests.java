@@ -0,0 +1,86 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.geometry.BoardGeometry;
+import model.position.Position3D;
+import model.tile.Tile;
+
+/**
+ * Tests for the board geometry and its cell ids.
+ */
+public class GeometryTests {
+
+  @Test
+  public void testGeometryIsSharedPerShape() {
+    Assert.assertSame(BoardGeometry.hex(5), BoardGeometry.hex(5));
+    Assert.assertSame(BoardGeometry.square(8), BoardGeometry.square(8));
+    Assert.assertNotSame(BoardGeometry.hex(4), BoardGeometry.square(8));
+    Assert.assertSame(new ReversiModelImpl(6).getGeometry(), new ReversiModelImpl(6).getGeometry());
+  }
+
+  @Test
+  public void testCellCounts() {
+    Assert.assertEquals(37, BoardGeometry.hex(4).getCellCount());
+    Assert.assertEquals(64, BoardGeometry.square(8).getCellCount());
+    Assert.assertEquals(4, BoardGeometry.square(8).getRadius());
+  }
+
+  @Test
+  public void testCellIdsFollowBoardOrder() {
+    IReversiModel hex = new ReversiModelImpl(5);
+    IReversiModel square = new SquareReversiModelImpl(6);
+    for (IReversiModel model : new IReversiModel[]{hex, square}) {
+      BoardGeometry geometry = model.getGeometry();
+      int cell = 0;
+      for (Tile t : model.getCopyOfBoard()) {
+        Assert.assertEquals(cell, geometry.indexOf(t.getPos()));
+        Assert.assertEquals(t.getPos(), geometry.getPosition(cell));
+        Assert.assertEquals(t.getTileType(), model.getTileTypeAt(cell));
+        cell++;
+      }
+    }
+  }
+
+  @Test
+  public void testPositionsOffTheBoard() {
+    BoardGeometry hex = BoardGeometry.hex(3);
+    Assert.assertEquals(-1, hex.indexOf(new Position3D(3, -3, 0)));
+    Assert.assertEquals(-1, hex.indexOf(new Position3D(2, 1, -3)));
+    Assert.assertTrue(hex.contains(new Position3D(2, 0, -2)));
+    BoardGeometry square = BoardGeometry.square(4);
+    Assert.assertEquals(-1, square.indexOf(-1, 0));
+    Assert.assertEquals(-1, square.indexOf(0, 4));
+    Assert.assertTrue(square.contains(new Position3D(3, 3, -6)));
+  }
+
+  @Test
+  public void testRaysRunToTheEdge() {
+    BoardGeometry hex = BoardGeometry.hex(4);
+    Assert.assertEquals(6, hex.getDirectionCount());
+    int center = hex.indexOf(0, 0);
+    int[] ray = hex.getRay(center, 0);
+    Assert.assertEquals(3, ray.length);
+    Assert.assertEquals(new Position3D(1, -1, 0), hex.getPosition(ray[0]));
+    Assert.assertEquals(new Position3D(3, -3, 0), hex.getPosition(ray[2]));
+    int corner = hex.indexOf(3, -3);
+    Assert.assertEquals(0, hex.getRay(corner, 0).length);
+    Assert.assertEquals(6, hex.getRay(corner, 3).length);
+
+    BoardGeometry square = BoardGeometry.square(4);
+    Assert.assertEquals(8, square.getDirectionCount());
+    int topLeft = square.indexOf(0, 0);
+    Assert.assertEquals(3, square.getRay(topLeft, 6).length);
+    Assert.assertEquals(new Position3D(3, 3, -6),
+            square.getPosition(square.getRay(topLeft, 6)[2]));
+    Assert.assertEquals(0, square.getRay(topLeft, 7).length);
+  }
+
+  @Test
+  public void testBadShapesThrow() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> BoardGeometry.hex(1));
+    Assert.assertThrows(IllegalArgumentException.class, () -> BoardGeometry.square(5));
+  }
+}
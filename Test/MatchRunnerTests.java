@@ -0,0 +1,57 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.geometry.BoardGeometry;
+import model.player.AIPlayer;
+import tools.MatchRunner;
+import tools.PlayerFactory;
+
+/**
+ * Tests for playing matches between players without a view.
+ */
+public class MatchRunnerTests {
+
+  @Test
+  public void testResultsAddUpAndDoNotDependOnThreads() {
+    MatchRunner runner = new MatchRunner(BoardGeometry.square(6), PlayerFactory.parse("search:2"),
+            AIPlayer::new);
+    runner.setRandomMoves(4);
+    runner.run(12);
+    Assert.assertEquals(12, runner.getWins() + runner.getDraws() + runner.getLosses());
+    Assert.assertEquals(1, runner.getMovesPerSecond().length);
+    Assert.assertTrue(runner.getMovesPerSecond()[0] > 0);
+    int wins = runner.getWins();
+    double margin = runner.getAverageMargin();
+    runner.setThreads(3);
+    runner.run(12);
+    Assert.assertEquals(wins, runner.getWins());
+    Assert.assertEquals(margin, runner.getAverageMargin(), 1e-9);
+    Assert.assertEquals(3, runner.getMovesPerSecond().length);
+  }
+
+  @Test
+  public void testSwappedColorsCancelOutForEqualPlayers() {
+    // Both games of a pair play the same moves with the colors swapped
+    MatchRunner runner = new MatchRunner(BoardGeometry.hex(4), AIPlayer::new, AIPlayer::new);
+    runner.setRandomMoves(2);
+    runner.setThreads(2);
+    runner.run(10);
+    Assert.assertEquals(runner.getWins(), runner.getLosses());
+    Assert.assertEquals(0, runner.getAverageMargin(), 1e-9);
+  }
+
+  @Test
+  public void testDeeperSearchBeatsGreedyPlayer() {
+    MatchRunner runner = new MatchRunner(BoardGeometry.square(6), PlayerFactory.parse("search:4"),
+            PlayerFactory.parse("ai"));
+    runner.setRandomMoves(2);
+    runner.run(8);
+    Assert.assertTrue(runner.getWins() > runner.getLosses());
+    Assert.assertTrue(runner.getAverageMargin() > 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownPlayerIsRejected() {
+    PlayerFactory.parse("search:zero");
+  }
+}
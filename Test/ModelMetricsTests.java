@@ -0,0 +1,159 @@
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.geometry.BoardGeometry;
+import model.metrics.InstrumentedReversiModel;
+import model.metrics.LatencyHistogram;
+import model.metrics.MetricsSnapshot;
+import model.metrics.ModelMetrics;
+import model.metrics.Operation;
+import model.player.AIPlayer;
+import model.position.Position3D;
+import tools.MatchRunner;
+
+/**
+ * Tests for the model operation counters and latency histograms.
+ */
+public class ModelMetricsTests {
+
+  @Test
+  public void testInstrumentedModelCountsAndPlaysTheSame() {
+    ModelMetrics metrics = new ModelMetrics(true);
+    IReversiModel plain = new ReversiModelImpl(6);
+    InstrumentedReversiModel model = new InstrumentedReversiModel(new ReversiModelImpl(6), metrics);
+    Position3D[] moves = {new Position3D(-2, 1, 1), new Position3D(-1, -1, 2),
+        new Position3D(1, -2, 1)};
+    for (Position3D move : moves) {
+      Assert.assertTrue(model.isMoveLegal(move));
+      plain.placeTile(move);
+      model.placeTile(move);
+    }
+    try {
+      model.placeTile(new Position3D(0, 0, 0));
+      Assert.fail("The middle is not a legal move");
+    } catch (IllegalStateException e) {
+      // An operation that throws is still counted
+    }
+    Assert.assertEquals(plain.getBlackScore(), model.getBlackScore());
+    Assert.assertEquals(plain.getPositionHash(), model.getPositionHash());
+    Assert.assertTrue(model.hasLegalMove());
+    InstrumentedReversiModel copy = model.copy();
+    Assert.assertEquals(plain.getPositionHash(), copy.getPositionHash());
+    new ReversiModelImpl(copy);
+
+    MetricsSnapshot snapshot = metrics.snapshot();
+    Assert.assertEquals(4, snapshot.getCount(Operation.PLACE_TILE));
+    Assert.assertEquals(3, snapshot.getCount(Operation.IS_MOVE_LEGAL));
+    Assert.assertEquals(1, snapshot.getCount(Operation.HAS_LEGAL_MOVE));
+    Assert.assertEquals(1, snapshot.getCount(Operation.COPY));
+    Assert.assertEquals(1, snapshot.getCount(Operation.GET_COPY_OF_BOARD));
+    Assert.assertEquals(0, snapshot.getCount(Operation.PASS));
+    Assert.assertEquals(4, snapshot.getLatencies(Operation.PLACE_TILE).getCount());
+    Assert.assertTrue(snapshot.toJson().contains("\"PLACE_TILE\": {\"count\": 4, "));
+    Assert.assertFalse(snapshot.toJson().contains("PASS"));
+    Assert.assertTrue(snapshot.toString().contains("IS_MOVE_LEGAL"));
+
+    // The snapshot stays as it was, and reset starts again
+    model.pass();
+    Assert.assertEquals(0, snapshot.getCount(Operation.PASS));
+    metrics.reset();
+    Assert.assertEquals(0, metrics.snapshot().getCount(Operation.PLACE_TILE));
+  }
+
+  @Test
+  public void testCountersOnlyRecordNoLatencies() {
+    ModelMetrics metrics = new ModelMetrics(false);
+    InstrumentedReversiModel model = new InstrumentedReversiModel(new SquareReversiModelImpl(8),
+            metrics);
+    Assert.assertEquals(4, model.legalMoves(new int[model.getGeometry().getCellCount()]));
+    model.getCopyOfBoard();
+    MetricsSnapshot snapshot = metrics.snapshot();
+    Assert.assertFalse(snapshot.isTimed());
+    Assert.assertEquals(1, snapshot.getCount(Operation.LEGAL_MOVES));
+    Assert.assertEquals(0, snapshot.getLatencies(Operation.LEGAL_MOVES).getCount());
+    Assert.assertFalse(snapshot.toJson().contains("Nanos"));
+  }
+
+  @Test
+  public void testHistogramPercentilesStayWithinABucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 100_000; value++) {
+      histogram.record(value);
+    }
+    Assert.assertEquals(100_000, histogram.getCount());
+    Assert.assertEquals(100_000, histogram.getMaxNanos());
+    Assert.assertEquals(50_000.5, histogram.getMeanNanos(), 1e-9);
+    // A bucket is at most a sixteenth of its values wide, and a percentile is the top of one
+    long[][] expected = {{50, 50_000}, {90, 90_000}, {99, 99_000}, {100, 100_000}};
+    for (long[] pair : expected) {
+      long p = histogram.getPercentileNanos(pair[0]);
+      Assert.assertTrue(p >= pair[1] && p <= pair[1] + pair[1] / 16);
+    }
+    Assert.assertEquals(1, histogram.getPercentileNanos(0));
+    histogram.record(Long.MAX_VALUE);
+    Assert.assertEquals(Long.MAX_VALUE, histogram.getMaxNanos());
+    Assert.assertEquals(Long.MAX_VALUE, histogram.getPercentileNanos(100));
+  }
+
+  @Test
+  public void testThreadsSharingMetricsLoseNoCounts() throws InterruptedException {
+    ModelMetrics metrics = new ModelMetrics(true);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      threads.add(new Thread(() -> {
+        InstrumentedReversiModel model = new InstrumentedReversiModel(new ReversiModelImpl(5),
+                metrics);
+        for (int i = 0; i < 10_000; i++) {
+          model.hasLegalMove();
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    MetricsSnapshot snapshot = metrics.snapshot();
+    Assert.assertEquals(40_000, snapshot.getCount(Operation.HAS_LEGAL_MOVE));
+    Assert.assertEquals(40_000, snapshot.getLatencies(Operation.HAS_LEGAL_MOVE).getCount());
+  }
+
+  @Test
+  public void testMatchRunnerRecordsGames() {
+    ModelMetrics metrics = new ModelMetrics(false);
+    MatchRunner runner = new MatchRunner(BoardGeometry.hex(4), AIPlayer::new, AIPlayer::new);
+    runner.setMetrics(metrics);
+    runner.run(2);
+    MetricsSnapshot snapshot = metrics.snapshot();
+    Assert.assertTrue(snapshot.getCount(Operation.PLACE_TILE) > 0);
+    Assert.assertTrue(snapshot.getCount(Operation.LEGAL_MOVES) >= snapshot.getCount(
+            Operation.PLACE_TILE));
+  }
+
+  @Test
+  public void testMatchRunnerCommandLineEndsWithMetrics() {
+    PrintStream out = System.out;
+    ByteArrayOutputStream printed = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(printed));
+    try {
+      // The word metrics can follow the players without the optional numbers
+      MatchRunner.main(new String[] {"hex", "3", "2", "ai", "ai", "metrics"});
+      MatchRunner.main(new String[] {"hex", "3", "2", "ai", "ai", "1", "0", "5", "metrics"});
+    } finally {
+      System.setOut(out);
+    }
+    String[] runs = printed.toString().split("games in");
+    Assert.assertEquals(3, runs.length);
+    Assert.assertTrue(runs[1].contains("PLACE_TILE"));
+    Assert.assertTrue(runs[2].contains("PLACE_TILE"));
+  }
+}
@@ -0,0 +1,176 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.player.AIPlayer;
+import model.player.MonteCarloAIPlayer;
+import model.player.MonteCarloAIPlayer.Parallelism;
+import model.player.Player;
+import model.position.Position3D;
+import model.tile.TileType;
+
+/**
+ * Tests for the Monte Carlo tree search player.
+ */
+public class MonteCarloPlayerTests {
+
+  /**
+   * Plays a game to the end, passing for whichever player has no move.
+   * @param model game to play
+   * @param black black player
+   * @param white white player
+   */
+  private void playOut(IReversiModel model, Player black, Player white) {
+    while (!model.isGameOver()) {
+      Player current = model.getTurn().equals(TileType.BLACK) ? black : white;
+      if (model.hasLegalMove()) {
+        Position3D move = current.getOptimalMove();
+        Assert.assertTrue(model.isMoveLegal(move));
+        model.placeTile(move);
+      } else {
+        model.pass();
+      }
+    }
+  }
+
+  @Test
+  public void testPlaysLegalMovesToTheEnd() {
+    IReversiModel model = new ReversiModelImpl(4);
+    MonteCarloAIPlayer black = new MonteCarloAIPlayer(TileType.BLACK, model, 60_000, 200);
+    MonteCarloAIPlayer white = new MonteCarloAIPlayer(TileType.WHITE, model, 60_000, 200);
+    white.setRave(100);
+    this.playOut(model, black, white);
+  }
+
+  @Test
+  public void testSeededPlayoutLimitIsRepeatable() {
+    IReversiModel model = new SquareReversiModelImpl(8);
+    MonteCarloAIPlayer first = new MonteCarloAIPlayer(TileType.BLACK, model, 60_000, 500);
+    MonteCarloAIPlayer second = new MonteCarloAIPlayer(TileType.BLACK, model, 60_000, 500);
+    first.setSeed(42);
+    second.setSeed(42);
+    Assert.assertEquals(first.getOptimalMove(), second.getOptimalMove());
+    Assert.assertEquals(500, first.getLastPlayoutCount());
+    Assert.assertTrue(first.getLastPlayoutsPerSecond() > 0);
+  }
+
+  @Test
+  public void testTreeIsKeptBetweenMoves() {
+    IReversiModel model = new ReversiModelImpl(5);
+    MonteCarloAIPlayer black = new MonteCarloAIPlayer(TileType.BLACK, model, 60_000, 2000);
+    AIPlayer white = new AIPlayer(TileType.WHITE, model);
+    model.placeTile(black.getOptimalMove());
+    Assert.assertEquals(0, black.getLastReusedPlayoutCount());
+    model.placeTile(white.getOptimalMove());
+    model.placeTile(black.getOptimalMove());
+    Assert.assertTrue(black.getLastReusedPlayoutCount() > 0);
+    Assert.assertEquals(2000, black.getLastPlayoutCount());
+  }
+
+  @Test
+  public void testTimeBudgetIsRespected() {
+    IReversiModel model = new ReversiModelImpl(9);
+    MonteCarloAIPlayer player = new MonteCarloAIPlayer(TileType.BLACK, model, 50,
+            Integer.MAX_VALUE);
+    long start = System.nanoTime();
+    Position3D move = player.getOptimalMove();
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    Assert.assertTrue(model.isMoveLegal(move));
+    Assert.assertTrue("Took " + millis + "ms", millis < 1000);
+    Assert.assertTrue(player.getLastPlayoutCount() > 0);
+  }
+
+  @Test
+  public void testBeatsTheGreedyPlayer() {
+    IReversiModel model = new ReversiModelImpl(4);
+    MonteCarloAIPlayer black = new MonteCarloAIPlayer(TileType.BLACK, model, 60_000, 3000);
+    black.setSeed(7);
+    black.setRave(300);
+    this.playOut(model, black, new AIPlayer(TileType.WHITE, model));
+    Assert.assertTrue(model.getBlackScore() > model.getWhiteScore());
+  }
+
+  /**
+   * Plays a game between two multi-threaded players and checks they share the playout limit.
+   * @param parallelism how the threads of both players share the work
+   */
+  private void checkParallelPlay(Parallelism parallelism) throws InterruptedException {
+    IReversiModel model = new ReversiModelImpl(4);
+    MonteCarloAIPlayer black = new MonteCarloAIPlayer(TileType.BLACK, model, 60_000, 400, 4,
+            parallelism);
+    MonteCarloAIPlayer white = new MonteCarloAIPlayer(TileType.WHITE, model, 60_000, 400, 3,
+            parallelism);
+    white.setRave(100);
+    model.placeTile(black.getOptimalMove());
+    Assert.assertEquals(400, black.getLastPlayoutCount());
+    this.playOut(model, black, white);
+
+    // Closing stops the players' own pools
+    List<Thread> helpers = new ArrayList<>();
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().equals("mcts-helper")) {
+        helpers.add(thread);
+      }
+    }
+    Assert.assertFalse(helpers.isEmpty());
+    black.close();
+    white.close();
+    for (Thread helper : helpers) {
+      helper.join(5000);
+      Assert.assertFalse(helper.isAlive());
+    }
+  }
+
+  @Test
+  public void testRootParallelPlaysLegalMoves() throws InterruptedException {
+    this.checkParallelPlay(Parallelism.ROOT);
+  }
+
+  @Test
+  public void testTreeParallelPlaysLegalMoves() throws InterruptedException {
+    this.checkParallelPlay(Parallelism.TREE);
+  }
+
+  @Test
+  public void testRunsOnTheGivenExecutor() {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      IReversiModel model = new ReversiModelImpl(6);
+      MonteCarloAIPlayer player = new MonteCarloAIPlayer(TileType.BLACK, model, 60_000, 1000, 3,
+              Parallelism.TREE);
+      player.setExecutor(executor);
+      Assert.assertTrue(model.isMoveLegal(player.getOptimalMove()));
+      Assert.assertEquals(1000, player.getLastPlayoutCount());
+      // The given executor belongs to the caller, so closing the player leaves it running
+      player.close();
+      Assert.assertFalse(executor.isShutdown());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testBadSettingsThrow() {
+    IReversiModel model = new ReversiModelImpl(4);
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            new MonteCarloAIPlayer(TileType.BLACK, model, 0, 100));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            new MonteCarloAIPlayer(TileType.BLACK, model, 100, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            new MonteCarloAIPlayer(TileType.BLACK, model, 100, 100, 0, Parallelism.ROOT));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            new MonteCarloAIPlayer(TileType.BLACK, model, 100, 100, 2, null));
+    MonteCarloAIPlayer player = new MonteCarloAIPlayer(TileType.BLACK, model, 100, 100);
+    Assert.assertThrows(IllegalArgumentException.class, () -> player.setExploration(-1));
+    Assert.assertThrows(IllegalArgumentException.class, () -> player.setRave(-1));
+    Assert.assertThrows(IllegalStateException.class, () ->
+            new MonteCarloAIPlayer(TileType.WHITE, model, 100, 100).getOptimalMove());
+  }
+}
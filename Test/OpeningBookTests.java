@@ -0,0 +1,178 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.geometry.BoardGeometry;
+import model.player.AIPlayer;
+import model.player.AlphaBetaAIPlayer;
+import model.player.MonteCarloAIPlayer;
+import model.player.OpeningBook;
+import model.position.Position3D;
+import model.tile.TileType;
+import tools.OpeningBookBuilder;
+import tools.WeightTuner;
+
+/**
+ * Tests for the opening book and its builder.
+ */
+public class OpeningBookTests {
+
+  @Test
+  public void testSearchedBookMatchesTheSearch() throws IOException {
+    BoardGeometry geometry = BoardGeometry.hex(4);
+    OpeningBookBuilder builder = new OpeningBookBuilder(geometry);
+    int searched = builder.addSearches(2, 3, 2);
+    Assert.assertEquals(searched, builder.size());
+    Path file = Files.createTempFile("book", ".bin");
+    try {
+      builder.write(file);
+      OpeningBook book = new OpeningBook(file);
+      Assert.assertEquals(builder.size(), book.size());
+      Assert.assertEquals(OpeningBook.HEADER_BYTES + book.size() * OpeningBook.ENTRY_BYTES,
+              Files.size(file));
+      for (int i = 1; i < book.size(); i++) {
+        Assert.assertTrue(book.getHash(i - 1) < book.getHash(i));
+        Assert.assertEquals(3, book.getDepth(i));
+      }
+
+      IReversiModel model = new ReversiModelImpl(4);
+      Position3D expected = new AlphaBetaAIPlayer(TileType.BLACK, model, 60_000, 3)
+              .getOptimalMove();
+      Assert.assertEquals(expected, book.lookUp(model));
+      model.placeTile(expected);
+      Position3D reply = new AlphaBetaAIPlayer(TileType.WHITE, model, 60_000, 3)
+              .getOptimalMove();
+      Assert.assertEquals(reply, book.lookUp(model));
+      Assert.assertEquals(-1, book.find(12345L));
+      Assert.assertNull(book.lookUp(new SquareReversiModelImpl(8)));
+
+      // Expanding the book keeps what was there and searches only the new plies
+      OpeningBookBuilder expanded = new OpeningBookBuilder(geometry);
+      expanded.addBook(book);
+      int more = expanded.addSearches(3, 3, 1);
+      Assert.assertEquals(searched + more, expanded.size());
+      Assert.assertTrue(more > 0);
+      Assert.assertThrows(IllegalArgumentException.class, () ->
+              new OpeningBookBuilder(BoardGeometry.hex(5)).addBook(book));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testTurnedPositionsShareEntries() {
+    OpeningBookBuilder builder = new OpeningBookBuilder(BoardGeometry.square(8));
+    // The four first moves of the square start are turns and mirrors of each other
+    Assert.assertEquals(2, builder.addSearches(1, 2, 1));
+    Assert.assertEquals(2, builder.size());
+  }
+
+  @Test
+  public void testEveryTurnOfAPositionIsInTheBook() throws IOException {
+    OpeningBookBuilder builder = new OpeningBookBuilder(BoardGeometry.hex(5));
+    builder.addSearches(1, 2, 1);
+    Path file = Files.createTempFile("book", ".bin");
+    try {
+      builder.write(file);
+      OpeningBook book = new OpeningBook(file);
+      IReversiModel start = new ReversiModelImpl(5);
+      for (Position3D first : new AIPlayer(TileType.BLACK, start).getAvailableMoves()) {
+        IReversiModel model = new ReversiModelImpl(start);
+        model.placeTile(first);
+        Position3D reply = book.lookUp(model);
+        Assert.assertNotNull(reply);
+        Assert.assertTrue(model.isMoveLegal(reply));
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testPlayersFollowTheBook() throws IOException {
+    IReversiModel model = new ReversiModelImpl(5);
+    AIPlayer greedy = new AIPlayer(TileType.BLACK, model);
+    Position3D greedyMove = greedy.getOptimalMove();
+    Position3D other = null;
+    for (Position3D move : greedy.getAvailableMoves()) {
+      if (!move.equals(greedyMove)) {
+        other = move;
+      }
+    }
+    Assert.assertNotNull(other);
+    OpeningBookBuilder builder = new OpeningBookBuilder(model.getGeometry());
+    builder.put(model, model.getGeometry().indexOf(other), 0, 4);
+    Path file = Files.createTempFile("book", ".bin");
+    try {
+      builder.write(file);
+      OpeningBook book = new OpeningBook(file);
+      greedy.setOpeningBook(book);
+      Assert.assertEquals(other, greedy.getOptimalMove());
+      AlphaBetaAIPlayer search = new AlphaBetaAIPlayer(TileType.BLACK, model, 60_000, 2);
+      search.setOpeningBook(book);
+      Assert.assertEquals(other, search.getOptimalMove());
+      Assert.assertEquals(4, search.getLastScore());
+      MonteCarloAIPlayer mcts = new MonteCarloAIPlayer(TileType.BLACK, model, 60_000, 50);
+      mcts.setOpeningBook(book);
+      Assert.assertEquals(other, mcts.getOptimalMove());
+      // Out of the book the player goes back to its own strategy
+      greedy.setOpeningBook(null);
+      Assert.assertEquals(greedyMove, greedy.getOptimalMove());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testBookFromGames() throws IOException {
+    BoardGeometry geometry = BoardGeometry.hex(4);
+    Path records = Files.createTempFile("games", ".txt");
+    Path file = Files.createTempFile("book", ".bin");
+    try {
+      WeightTuner.selfPlay(geometry, 10, 1, 4, 3, 1, records);
+      Files.write(records, Collections.singletonList("hex 4 pass pass"),
+              StandardOpenOption.APPEND);
+      OpeningBookBuilder builder = new OpeningBookBuilder(geometry);
+      Assert.assertEquals(10, builder.addGames(records, 6, 1));
+      Assert.assertTrue(builder.size() > 10);
+      builder.write(file);
+      OpeningBook book = new OpeningBook(file);
+      IReversiModel model = new ReversiModelImpl(4);
+      int start = book.find(model);
+      Assert.assertTrue(start >= 0);
+      Assert.assertEquals(0, book.getDepth(start));
+      Assert.assertTrue(model.isMoveLegal(book.lookUp(model)));
+
+      // A move needs more games than there are to make it in
+      OpeningBookBuilder strict = new OpeningBookBuilder(geometry);
+      strict.addGames(records, 6, 11);
+      Assert.assertEquals(0, strict.size());
+    } finally {
+      Files.deleteIfExists(records);
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testBadFilesThrow() throws IOException {
+    Path file = Files.createTempFile("book", ".bin");
+    try {
+      Files.write(file, new byte[40]);
+      Assert.assertThrows(IOException.class, () -> new OpeningBook(file));
+      new OpeningBookBuilder(BoardGeometry.square(6)).write(file);
+      Assert.assertEquals(0, new OpeningBook(file).size());
+      Files.write(file, new byte[] {0}, StandardOpenOption.APPEND);
+      Assert.assertThrows(IOException.class, () -> new OpeningBook(file));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
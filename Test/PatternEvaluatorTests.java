@@ -0,0 +1,211 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.BitboardReversiModelImpl;
+import model.BoardListener;
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.evaluation.PatternEvaluator;
+import model.geometry.BoardGeometry;
+import model.player.AlphaBetaAIPlayer;
+import model.tile.TileType;
+
+/**
+ * Tests for the pattern evaluator and the board listener it keeps its indexes with.
+ */
+public class PatternEvaluatorTests {
+
+  /**
+   * Plays random moves and takes some of them back, checking after each that an evaluator
+   * attached to the board scores it the same as one working from scratch on a copy.
+   * @param geometry shape of the board
+   * @param seed seed for the moves
+   */
+  private void checkIncrementalScores(BoardGeometry geometry, long seed) {
+    Random random = new Random(seed);
+    PatternEvaluator evaluator = new PatternEvaluator();
+    BitboardReversiModelImpl board = new BitboardReversiModelImpl(geometry);
+    evaluator.attach(board);
+    int[] moves = new int[geometry.getCellCount()];
+    int played = 0;
+    for (int step = 0; step < 200 && !board.isGameOver(); step++) {
+      if (played > 0 && random.nextInt(4) == 0) {
+        board.undoMove();
+        played--;
+      } else {
+        played++;
+        int count = board.legalMoves(moves);
+        if (count == 0) {
+          board.makePass();
+        } else {
+          board.makeMove(geometry.getPosition(moves[random.nextInt(count)]));
+        }
+      }
+      if (!board.isGameOver()) {
+        Assert.assertEquals(evaluator.evaluate(new BitboardReversiModelImpl(board)),
+                evaluator.evaluate(board));
+      }
+    }
+  }
+
+  @Test
+  public void testIncrementalIndexesMatchFromScratch() {
+    this.checkIncrementalScores(BoardGeometry.hex(4), 1);
+    this.checkIncrementalScores(BoardGeometry.hex(6), 2);
+    this.checkIncrementalScores(BoardGeometry.square(8), 3);
+    this.checkIncrementalScores(BoardGeometry.square(6), 4);
+  }
+
+  @Test
+  public void testListenerHearsEveryChange() {
+    BoardGeometry geometry = BoardGeometry.square(8);
+    BitboardReversiModelImpl board = new BitboardReversiModelImpl(geometry);
+    TileType[] seen = new TileType[geometry.getCellCount()];
+    for (int cell = 0; cell < seen.length; cell++) {
+      seen[cell] = board.getTileTypeAt(cell);
+    }
+    BoardListener listener = (cell, before, after) -> {
+      Assert.assertEquals(seen[cell], before);
+      Assert.assertNotEquals(before, after);
+      seen[cell] = after;
+    };
+    board.setBoardListener(listener);
+    Assert.assertSame(listener, board.getBoardListener());
+    Random random = new Random(5);
+    int[] moves = new int[seen.length];
+    for (int step = 0; step < 40 && !board.isGameOver(); step++) {
+      int count = board.legalMoves(moves);
+      if (count == 0) {
+        board.makePass();
+      } else {
+        board.makeMove(geometry.getPosition(moves[random.nextInt(count)]));
+      }
+      if (step % 3 == 2) {
+        board.undoMove();
+      }
+      for (int cell = 0; cell < seen.length; cell++) {
+        Assert.assertEquals(board.getTileTypeAt(cell), seen[cell]);
+      }
+    }
+  }
+
+  @Test
+  public void testStartingPositionsScoreEven() {
+    PatternEvaluator evaluator = new PatternEvaluator();
+    Assert.assertEquals(0, evaluator.evaluate(new BitboardReversiModelImpl(4)));
+    Assert.assertEquals(0, evaluator.evaluate(new BitboardReversiModelImpl(7)));
+    Assert.assertEquals(0, evaluator.evaluate(
+            new BitboardReversiModelImpl(BoardGeometry.square(8))));
+  }
+
+  @Test
+  public void testScoreIsTheSumOfTheTables() {
+    BoardGeometry geometry = BoardGeometry.hex(4);
+    PatternEvaluator evaluator = new PatternEvaluator();
+    int[][] tables = evaluator.getTables(geometry);
+    Assert.assertEquals(3, tables.length);
+    for (int[] table : tables) {
+      Arrays.fill(table, 1);
+    }
+    // Every table entry worth one leaves the score as the number of patterns, six of each kind
+    evaluator.setTables(geometry, tables);
+    BitboardReversiModelImpl board = new BitboardReversiModelImpl(geometry);
+    Assert.assertEquals(18, evaluator.evaluate(board));
+    board.makePass();
+    Assert.assertEquals(-18, evaluator.evaluate(board));
+    // The evaluator keeps its own copy
+    tables[0][0] = 100;
+    Assert.assertEquals(1, evaluator.getTables(geometry)[0][0]);
+  }
+
+  /**
+   * Finds the cells of every pattern of a board shape by changing one cell at a time on a fresh
+   * board and seeing which pattern entries change, and checks no two of one kind have the same.
+   * @param geometry shape of the board
+   */
+  private void checkNoPatternRepeats(BoardGeometry geometry) {
+    int[] sizes = PatternEvaluator.tableSizes(geometry);
+    int[] entries = new int[18];
+    int count = PatternEvaluator.features(new BitboardReversiModelImpl(geometry), entries);
+    List<Set<Integer>> cells = new ArrayList<>();
+    for (int p = 0; p < count; p++) {
+      cells.add(new HashSet<>());
+    }
+    for (int cell = 0; cell < geometry.getCellCount(); cell++) {
+      BitboardReversiModelImpl board = new BitboardReversiModelImpl(geometry);
+      int[] before = new int[18];
+      PatternEvaluator.features(board, before);
+      TileType type = board.getTileTypeAt(cell);
+      board.getTileAt(geometry.getPosition(cell)).setTileType(
+              type == TileType.BLACK ? TileType.WHITE : TileType.BLACK);
+      PatternEvaluator.features(board, entries);
+      for (int p = 0; p < count; p++) {
+        if (entries[p] != before[p]) {
+          cells.get(p).add(cell);
+        }
+      }
+    }
+    // Entries are numbered through the edge, corner and line tables one after another
+    for (int p = 0; p < count; p++) {
+      for (int q = 0; q < p; q++) {
+        boolean sameKind = kindOf(entries[p], sizes) == kindOf(entries[q], sizes);
+        Assert.assertFalse(geometry + " repeats pattern " + cells.get(p),
+                sameKind && cells.get(p).equals(cells.get(q)));
+      }
+    }
+  }
+
+  /**
+   * Gets which table an entry is in.
+   * @param entry entry numbered through every table
+   * @param sizes size of each table
+   * @return kind of the entry's pattern
+   */
+  private int kindOf(int entry, int[] sizes) {
+    int kind = 0;
+    while (entry >= sizes[kind]) {
+      entry -= sizes[kind];
+      kind++;
+    }
+    return kind;
+  }
+
+  @Test
+  public void testNoTwoPatternsOfAKindCoverTheSameCells() {
+    checkNoPatternRepeats(BoardGeometry.hex(2));
+    checkNoPatternRepeats(BoardGeometry.hex(4));
+    checkNoPatternRepeats(BoardGeometry.hex(7));
+    checkNoPatternRepeats(BoardGeometry.square(4));
+    checkNoPatternRepeats(BoardGeometry.square(8));
+    checkNoPatternRepeats(BoardGeometry.square(10));
+    checkNoPatternRepeats(BoardGeometry.square(12));
+    // The two diagonals of an 8 by 8 board are each one line, next to four edges and four corners
+    Assert.assertEquals(10, PatternEvaluator.features(
+            new BitboardReversiModelImpl(BoardGeometry.square(8)), new int[18]));
+  }
+
+  @Test
+  public void testSearchPlayerWithPatterns() {
+    IReversiModel model = new ReversiModelImpl(5);
+    AlphaBetaAIPlayer player = new AlphaBetaAIPlayer(TileType.BLACK, model, 60_000, 4);
+    player.setEvaluator(new PatternEvaluator());
+    Assert.assertTrue(model.isMoveLegal(player.getOptimalMove()));
+  }
+
+  @Test
+  public void testBadTablesThrow() {
+    PatternEvaluator evaluator = new PatternEvaluator();
+    BoardGeometry geometry = BoardGeometry.square(8);
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            evaluator.setTables(geometry, new int[2][9]));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            evaluator.setTables(geometry, new int[3][9]));
+  }
+}
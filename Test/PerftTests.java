@@ -0,0 +1,76 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.BitboardReversiModelImpl;
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.position.Position3D;
+import tools.Perft;
+
+/**
+ * Tests for the perft counter, checking it against known counts and the models against each other.
+ */
+public class PerftTests {
+
+  @Test
+  public void testSquareEightMatchesKnownCounts() {
+    long[] expected = {1, 4, 12, 56, 244, 1396, 8200, 55092};
+    Perft perft = new Perft(new SquareReversiModelImpl(8));
+    for (int depth = 0; depth < expected.length; depth++) {
+      Assert.assertEquals(expected[depth], perft.run(depth, 1));
+    }
+    Assert.assertEquals(4, perft.getMoves().length);
+    for (long count : perft.getCounts()) {
+      Assert.assertEquals(55092 / 4, count);
+    }
+  }
+
+  @Test
+  public void testThreadsSplitTheSameCounts() {
+    Perft perft = new Perft(new ReversiModelImpl(5));
+    long total = perft.run(5, 1);
+    long[] counts = perft.getCounts();
+    Assert.assertEquals(total, perft.run(5, 3));
+    Assert.assertArrayEquals(counts, perft.getCounts());
+    Assert.assertTrue(perft.getNodesPerSecond() > 0);
+  }
+
+  /**
+   * Checks that a model and the bitboard model count the same paths from its position, which
+   * takes in games that end before the depth when it is deep enough.
+   * @param model position to count from
+   * @param depth length of the paths
+   */
+  private void checkAgainstBitboard(IReversiModel model, int depth) {
+    long hash = model.getPositionHash();
+    long count = Perft.count(model, depth);
+    Assert.assertEquals(hash, model.getPositionHash());
+    Perft bitboard = new Perft(new BitboardReversiModelImpl(model));
+    Assert.assertEquals(count, bitboard.run(depth, 1));
+    Assert.assertEquals(count, new Perft(model).run(depth, 2));
+  }
+
+  @Test
+  public void testModelsAgreeThroughPassesAndGameEnds() {
+    // Every game on these boards ends within the depth, so passes and endings are all counted
+    this.checkAgainstBitboard(new ReversiModelImpl(3), 14);
+    this.checkAgainstBitboard(new SquareReversiModelImpl(4), 16);
+    this.checkAgainstBitboard(new ReversiModelImpl(6), 5);
+    IReversiModel model = new SquareReversiModelImpl(6);
+    model.placeTile(new Position3D(1, 3, -4));
+    this.checkAgainstBitboard(model, 6);
+  }
+
+  @Test
+  public void testFinishedGameAndDepthZeroCountOnce() {
+    IReversiModel model = new ReversiModelImpl(3);
+    Perft perft = new Perft(model);
+    Assert.assertEquals(1, perft.run(0, 1));
+    Assert.assertEquals(0, perft.getMoves().length);
+    model.pass();
+    model.pass();
+    Assert.assertEquals(1, new Perft(model).run(4, 1));
+    Assert.assertEquals(1, Perft.count(model, 4));
+  }
+}
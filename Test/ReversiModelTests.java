@@ -1,10 +1,17 @@
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import model.BitboardReversiModelImpl;
 import model.IReversiModel;
 import model.position.Position3D;
 import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
 import model.tile.GameTile;
+import model.tile.Tile;
 import model.tile.TileType;
 import view.ReversiTextualView;
 import view.TextualView;
@@ -469,4 +476,154 @@ public class ReversiModelTests {
       IReversiModel model = new ReversiModelImpl(-1);
     });
   }
+
+  @Test
+  public void testMakeMoveThenUndoRestoresEverything() {
+    IReversiModel model = new ReversiModelImpl(5);
+    model.placeTile(new Position3D(-2, 1, 1));
+    List<Tile> board = model.getCopyOfBoard();
+    model.makeMove(new Position3D(-1, -1, 2));
+    Assert.assertEquals(TileType.BLACK, model.getTurn());
+    Assert.assertEquals(TileType.WHITE,
+            model.getCopyOfTileAt(new Position3D(-1, -1, 2)).getTileType());
+    model.makePass();
+    model.makeMove(new Position3D(-3, 1, 2));
+    model.undoMove();
+    model.undoMove();
+    model.undoMove();
+    Assert.assertEquals(board, model.getCopyOfBoard());
+    Assert.assertEquals(TileType.WHITE, model.getTurn());
+    Assert.assertEquals(5, model.getBlackScore());
+    Assert.assertEquals(2, model.getWhiteScore());
+    Assert.assertEquals(0, model.getPassesInARow());
+  }
+
+  @Test
+  public void testUndoRestoresPassCounterAndGameOver() {
+    IReversiModel model = new SquareReversiModelImpl(4);
+    model.pass();
+    model.makePass();
+    Assert.assertTrue(model.isGameOver());
+    model.undoMove();
+    Assert.assertFalse(model.isGameOver());
+    Assert.assertEquals(1, model.getPassesInARow());
+    Assert.assertEquals(TileType.WHITE, model.getTurn());
+  }
+
+  @Test
+  public void testMakeMoveFollowsTheRules() {
+    IReversiModel model = new ReversiModelImpl(4);
+    Assert.assertThrows(IllegalStateException.class, () ->
+            model.makeMove(new Position3D(0, 0, 0)));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            model.makeMove(new Position3D(4, -4, 0)));
+    Assert.assertThrows(IllegalStateException.class, model::undoMove);
+  }
+
+  @Test
+  public void testPlaceTileForgetsRecordedMoves() {
+    IReversiModel model = new ReversiModelImpl(4);
+    model.makeMove(new Position3D(1, -2, 1));
+    model.placeTile(new Position3D(2, -3, 1));
+    Assert.assertThrows(IllegalStateException.class, model::undoMove);
+  }
+
+  @Test
+  public void testLegalMovesListsEveryLegalCell() {
+    IReversiModel model = new ReversiModelImpl(4);
+    int[] moves = new int[model.getBoardSize()];
+    int count = model.legalMoves(moves);
+    Assert.assertEquals(6, count);
+    for (int i = 0; i < count; i++) {
+      Assert.assertTrue(model.isMoveLegal(model.getGeometry().getPosition(moves[i])));
+    }
+    Assert.assertThrows(IllegalArgumentException.class, () -> model.legalMoves(new int[3]));
+    model.pass();
+    model.pass();
+    Assert.assertEquals(0, model.legalMoves(moves));
+  }
+
+  @Test
+  public void testFlipCountsFollowTheCurrentPosition() {
+    IReversiModel model = new ReversiModelImpl(4);
+    Assert.assertEquals(1, model.getFlipCount(new Position3D(1, -2, 1)));
+    Assert.assertEquals(0, model.getFlipCount(new Position3D(0, 0, 0)));
+    Assert.assertEquals(0, model.getFlipCount(new Position3D(0, -1, 1)));
+    model.placeTile(new Position3D(1, -2, 1));
+    Assert.assertEquals(0, model.getFlipCount(new Position3D(1, -2, 1)));
+    Assert.assertEquals(2, model.getFlipCount(new Position3D(2, -3, 1)));
+    Assert.assertTrue(model.isMoveLegal(new Position3D(2, -3, 1)));
+    model.makeMove(new Position3D(2, -3, 1));
+    Assert.assertEquals(0, model.getFlipCount(new Position3D(2, -3, 1)));
+    model.undoMove();
+    Assert.assertEquals(2, model.getFlipCount(new Position3D(2, -3, 1)));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            model.getFlipCount(new Position3D(5, -5, 0)));
+  }
+
+  @Test
+  public void testPositionHashFollowsThePosition() {
+    IReversiModel model = new ReversiModelImpl(5);
+    long start = model.getPositionHash();
+    Assert.assertEquals(start, new ReversiModelImpl(5).getPositionHash());
+    Assert.assertNotEquals(start, new ReversiModelImpl(6).getPositionHash());
+    model.makePass();
+    Assert.assertNotEquals(start, model.getPositionHash());
+    model.undoMove();
+    Assert.assertEquals(start, model.getPositionHash());
+    model.placeTile(new Position3D(-2, 1, 1));
+    Assert.assertNotEquals(start, model.getPositionHash());
+    Assert.assertEquals(model.getPositionHash(), new ReversiModelImpl(model).getPositionHash());
+    model.makeMove(new Position3D(-3, 1, 2));
+    model.undoMove();
+    Assert.assertEquals(new ReversiModelImpl(model).getPositionHash(), model.getPositionHash());
+
+    IReversiModel square = new SquareReversiModelImpl(8);
+    square.placeTile(new Position3D(3, 5, -8));
+    Assert.assertEquals(new SquareReversiModelImpl(square).getPositionHash(),
+            square.getPositionHash());
+  }
+
+  /**
+   * Sets a tile through getTileAt and checks the model agrees with a copy worked out from
+   * scratch, before and after a move on the changed board.
+   * @param model model to change
+   * @param copy makes a copy of a model of the same kind
+   * @param pos empty position to set
+   */
+  private void checkTileWritesThrough(IReversiModel model,
+                                      UnaryOperator<IReversiModel> copy,
+                                      Position3D pos) {
+    int cells = model.getGeometry().getCellCount();
+    int[] moves = new int[cells];
+    int[] copyMoves = new int[cells];
+    int white = model.getWhiteScore();
+    model.legalMoves(moves);
+    model.getTileAt(pos).setTileType(TileType.WHITE);
+    Assert.assertEquals(TileType.WHITE, model.getCopyOfTileAt(pos).getTileType());
+    Assert.assertEquals(white + 1, model.getWhiteScore());
+    for (int step = 0; step < 2; step++) {
+      IReversiModel fresh = copy.apply(model);
+      Assert.assertEquals(fresh.getPositionHash(), model.getPositionHash());
+      Assert.assertEquals(fresh.getBlackScore(), model.getBlackScore());
+      Assert.assertEquals(fresh.getWhiteScore(), model.getWhiteScore());
+      int count = model.legalMoves(moves);
+      Assert.assertEquals(fresh.legalMoves(copyMoves), count);
+      Assert.assertArrayEquals(Arrays.copyOf(copyMoves, count),
+              Arrays.copyOf(moves, count));
+      model.placeTile(model.getGeometry().getPosition(moves[0]));
+    }
+    Assert.assertThrows(IllegalStateException.class, () ->
+            model.getTileAt(pos).setTileType(TileType.EMPTY));
+  }
+
+  @Test
+  public void testTileFromGetTileAtWritesThrough() {
+    checkTileWritesThrough(new ReversiModelImpl(5), ReversiModelImpl::new,
+            new Position3D(0, 0, 0));
+    checkTileWritesThrough(new SquareReversiModelImpl(8), SquareReversiModelImpl::new,
+            new Position3D(2, 2, -4));
+    checkTileWritesThrough(new BitboardReversiModelImpl(5), BitboardReversiModelImpl::new,
+            new Position3D(0, 0, 0));
+  }
 }
@@ -0,0 +1,116 @@
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.BitboardReversiModelImpl;
+import model.geometry.BoardGeometry;
+import model.geometry.BoardSymmetry;
+
+/**
+ * Tests for the board symmetries and canonical hashes.
+ */
+public class SymmetryTests {
+
+  /**
+   * Checks that every transform of a board keeps it whole and keeps neighbours next to each
+   * other.
+   * @param geometry shape of the board
+   * @param count expected number of transforms
+   */
+  private void checkTransforms(BoardGeometry geometry, int count) {
+    BoardSymmetry symmetry = BoardSymmetry.of(geometry);
+    Assert.assertEquals(count, symmetry.getTransformCount());
+    Set<String> distinct = new HashSet<>();
+    for (int t = 0; t < count; t++) {
+      StringBuilder images = new StringBuilder();
+      Set<Integer> seen = new HashSet<>();
+      for (int cell = 0; cell < geometry.getCellCount(); cell++) {
+        int image = symmetry.apply(t, cell);
+        Assert.assertTrue(seen.add(image));
+        Assert.assertEquals(cell, symmetry.unapply(t, image));
+        if (t == 0) {
+          Assert.assertEquals(cell, image);
+        }
+        for (int[] ray : geometry.getRays(cell)) {
+          if (ray.length > 0) {
+            boolean found = false;
+            for (int[] imageRay : geometry.getRays(image)) {
+              found |= imageRay.length > 0 && imageRay[0] == symmetry.apply(t, ray[0]);
+            }
+            Assert.assertTrue(found);
+          }
+        }
+        images.append(image).append(' ');
+      }
+      distinct.add(images.toString());
+    }
+    Assert.assertEquals(count, distinct.size());
+  }
+
+  @Test
+  public void testTransformsAreSymmetriesOfTheBoard() {
+    this.checkTransforms(BoardGeometry.hex(2), 12);
+    this.checkTransforms(BoardGeometry.hex(5), 12);
+    this.checkTransforms(BoardGeometry.square(4), 8);
+    this.checkTransforms(BoardGeometry.square(8), 8);
+  }
+
+  /**
+   * Plays a random game and the same game seen through every transform that keeps the starting
+   * layout, checking that every move stays legal and the canonical hashes match.
+   * @param geometry shape of the board
+   * @param seed seed for the moves
+   * @return how many transforms keep the starting layout
+   */
+  private int checkTransformedGames(BoardGeometry geometry, long seed) {
+    BoardSymmetry symmetry = BoardSymmetry.of(geometry);
+    BitboardReversiModelImpl start = new BitboardReversiModelImpl(geometry);
+    Assert.assertEquals(start.getPositionHash(), symmetry.hash(start, 0));
+    int kept = 0;
+    for (int t = 0; t < symmetry.getTransformCount(); t++) {
+      if (symmetry.hash(start, t) != start.getPositionHash()) {
+        continue;
+      }
+      kept++;
+      Random random = new Random(seed);
+      BitboardReversiModelImpl game = new BitboardReversiModelImpl(geometry);
+      BitboardReversiModelImpl image = new BitboardReversiModelImpl(geometry);
+      int[] moves = new int[geometry.getCellCount()];
+      long[] hashes = new long[symmetry.getTransformCount()];
+      while (!game.isGameOver()) {
+        int count = game.legalMoves(moves);
+        Assert.assertEquals(count, image.legalMoves(new int[moves.length]));
+        if (count == 0) {
+          game.makePass();
+          image.makePass();
+        } else {
+          int move = moves[random.nextInt(count)];
+          game.makeMove(geometry.getPosition(move));
+          image.makeMove(geometry.getPosition(symmetry.apply(t, move)));
+        }
+        Assert.assertEquals(symmetry.hash(game, t), image.getPositionHash());
+        int transform = symmetry.canonicalTransform(game, hashes);
+        long canonical = symmetry.canonicalHash(game);
+        Assert.assertEquals(canonical, hashes[transform]);
+        Assert.assertEquals(canonical, symmetry.canonicalHash(image));
+        Assert.assertEquals(canonical, symmetry.hash(game, transform));
+      }
+      Assert.assertThrows(IllegalArgumentException.class, () ->
+              symmetry.canonicalTransform(game, new long[1]));
+      Assert.assertEquals(game.getBlackScore(), image.getBlackScore());
+    }
+    return kept;
+  }
+
+  @Test
+  public void testTransformedGamesShareCanonicalHashes() {
+    // The hex start keeps its colors under a third of a turn and under three of the mirrors
+    Assert.assertEquals(6, this.checkTransformedGames(BoardGeometry.hex(4), 1));
+    Assert.assertEquals(6, this.checkTransformedGames(BoardGeometry.hex(5), 2));
+    Assert.assertEquals(4, this.checkTransformedGames(BoardGeometry.square(8), 3));
+    Assert.assertEquals(4, this.checkTransformedGames(BoardGeometry.square(6), 4));
+  }
+}
@@ -0,0 +1,122 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.geometry.BoardGeometry;
+import model.player.AIPlayer;
+import model.player.AdvancedAIPlayer;
+import tools.MatchStats;
+import tools.PlayerFactory;
+import tools.Tournament;
+
+/**
+ * Tests for the match statistics and tournaments.
+ */
+public class TournamentTests {
+
+  @Test
+  public void testEloMatchesExpectedScore() {
+    Assert.assertEquals(0.5, MatchStats.scoreOf(0), 1e-12);
+    Assert.assertEquals(0.75, MatchStats.scoreOf(MatchStats.eloOf(0.75)), 1e-12);
+    Assert.assertEquals(190.85, MatchStats.eloOf(0.75), 0.01);
+    Assert.assertEquals(Double.POSITIVE_INFINITY, MatchStats.eloOf(1), 0);
+  }
+
+  @Test
+  public void testStatsCountPairs() {
+    MatchStats stats = new MatchStats();
+    Assert.assertEquals(0, stats.getElo(), 1e-12);
+    // Each player wins with black: an even match with no spread between pairs
+    for (int i = 0; i < 10; i++) {
+      stats.addPair(4, -6);
+    }
+    Assert.assertEquals(10, stats.getPairs());
+    Assert.assertEquals(10, stats.getWins());
+    Assert.assertEquals(10, stats.getLosses());
+    Assert.assertEquals(-1, stats.getAverageMargin(), 1e-12);
+    Assert.assertEquals(0, stats.getElo(), 1e-9);
+    Assert.assertEquals(0, stats.getEloError(), 1e-9);
+    // A quarter of pairs won twice and a quarter lost twice widen the interval but keep it even
+    for (int i = 0; i < 5; i++) {
+      stats.addPair(2, 2);
+      stats.addPair(-2, -2);
+    }
+    Assert.assertEquals(0, stats.getElo(), 1e-9);
+    Assert.assertTrue(stats.getEloError() > 50);
+    Assert.assertEquals(0, stats.sprt(0, 20, 0.05, 0.05));
+  }
+
+  @Test
+  public void testSprtDecides() {
+    MatchStats winning = new MatchStats();
+    MatchStats even = new MatchStats();
+    int pairs = 0;
+    while (winning.sprt(0, 50, 0.05, 0.05) == 0) {
+      winning.addPair(10, 10);
+      pairs++;
+    }
+    Assert.assertEquals(1, winning.sprt(0, 50, 0.05, 0.05));
+    Assert.assertEquals(Double.POSITIVE_INFINITY, winning.getEloError(), 0);
+    Assert.assertTrue(pairs > 2 && pairs < 20);
+    for (int i = 0; i < 1000 && even.sprt(0, 50, 0.05, 0.05) == 0; i++) {
+      even.addPair(10, -10);
+      even.addPair(10, 0);
+      even.addPair(-10, 0);
+    }
+    Assert.assertEquals(-1, even.sprt(0, 50, 0.05, 0.05));
+  }
+
+  @Test
+  public void testTournamentStreamsEveryGame() throws IOException {
+    Tournament tournament = new Tournament();
+    tournament.addPlayer("search", PlayerFactory.parse("search:3"));
+    tournament.addPlayer("ai", AIPlayer::new);
+    tournament.addPlayer("advanced", AdvancedAIPlayer::new);
+    tournament.addBoard(BoardGeometry.hex(4));
+    tournament.addBoard(BoardGeometry.square(6));
+    tournament.setFormat(Tournament.Format.GAUNTLET);
+    tournament.setMaxPairs(3);
+    tournament.setThreads(2);
+    Path results = Files.createTempFile("tournament", ".txt");
+    try {
+      List<Tournament.Match> matches = tournament.run(results);
+      Assert.assertEquals(4, matches.size());
+      List<String> lines = Files.readAllLines(results);
+      Assert.assertEquals(4 * 3 * 2, lines.size());
+      for (Tournament.Match match : matches) {
+        Assert.assertEquals(0, match.getFirst());
+        Assert.assertEquals(3, match.getStats().getPairs());
+      }
+      // The two games of a pair are written together, with the colors swapped
+      String[] first = lines.get(0).split(" ");
+      String[] second = lines.get(1).split(" ");
+      Assert.assertEquals(first[2], second[3]);
+      Assert.assertEquals(first[3], second[2]);
+    } finally {
+      Files.delete(results);
+    }
+  }
+
+  @Test
+  public void testSprtStopsDecidedMatch() throws IOException {
+    Tournament tournament = new Tournament();
+    tournament.addPlayer("search", PlayerFactory.parse("search:3"));
+    tournament.addPlayer("ai", AIPlayer::new);
+    tournament.addBoard(BoardGeometry.square(6));
+    tournament.setMaxPairs(200);
+    tournament.setSprt(0, 100, 0.05, 0.05);
+    Path results = Files.createTempFile("tournament", ".txt");
+    try {
+      Tournament.Match match = tournament.run(results).get(0);
+      Assert.assertEquals(1, match.getDecision());
+      Assert.assertTrue(match.getStats().getPairs() < 200);
+      Assert.assertTrue(match.getStats().getElo() > 100);
+    } finally {
+      Files.delete(results);
+    }
+  }
+}
@@ -0,0 +1,99 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.player.AIPlayer;
+import model.player.AdvancedAIPlayer;
+import model.player.TranspositionTable;
+import model.position.Position3D;
+import model.tile.TileType;
+
+/**
+ * Tests for the transposition table and players plugging it in.
+ */
+public class TranspositionTableTests {
+  // Two hashes that land on the same slot, 4, in every table
+  private static final long FIRST = 4L;
+  private static final long SECOND = (1L << 32) | 5L;
+
+  @Test
+  public void testCapacityFollowsTheBudget() {
+    Assert.assertEquals(65536, new TranspositionTable(1).getCapacity());
+    Assert.assertEquals(131072, new TranspositionTable(3).getCapacity());
+    Assert.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+  }
+
+  @Test
+  public void testStoreThenProbe() {
+    TranspositionTable table = new TranspositionTable(1);
+    Assert.assertEquals(0L, table.probe(FIRST));
+    table.store(FIRST, 7, -1234, TranspositionTable.LOWER_BOUND, 42);
+    long entry = table.probe(FIRST);
+    Assert.assertEquals(42, TranspositionTable.moveOf(entry));
+    Assert.assertEquals(7, TranspositionTable.depthOf(entry));
+    Assert.assertEquals(-1234, TranspositionTable.scoreOf(entry));
+    Assert.assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.boundOf(entry));
+    Assert.assertEquals(0L, table.probe(SECOND));
+
+    table.store(FIRST, 8, 5, TranspositionTable.EXACT, -1);
+    Assert.assertEquals(42, TranspositionTable.moveOf(table.probe(FIRST)));
+    table.clear();
+    Assert.assertEquals(0L, table.probe(FIRST));
+    Assert.assertThrows(IllegalArgumentException.class, () -> table.store(FIRST, 1, 0, 0, 0));
+  }
+
+  @Test
+  public void testDepthPreferredKeepsDeeperEntries() {
+    TranspositionTable table = new TranspositionTable(1,
+            TranspositionTable.Replacement.DEPTH_PREFERRED);
+    table.store(FIRST, 6, 0, TranspositionTable.EXACT, 1);
+    table.store(SECOND, 3, 0, TranspositionTable.EXACT, 2);
+    Assert.assertNotEquals(0L, table.probe(FIRST));
+    Assert.assertEquals(0L, table.probe(SECOND));
+    table.newSearch();
+    table.store(SECOND, 3, 0, TranspositionTable.EXACT, 2);
+    Assert.assertEquals(0L, table.probe(FIRST));
+    Assert.assertNotEquals(0L, table.probe(SECOND));
+  }
+
+  @Test
+  public void testTwoTierKeepsBoth() {
+    TranspositionTable table = new TranspositionTable(1);
+    table.store(FIRST, 6, 0, TranspositionTable.EXACT, 1);
+    table.store(SECOND, 3, 0, TranspositionTable.EXACT, 2);
+    Assert.assertEquals(1, TranspositionTable.moveOf(table.probe(FIRST)));
+    Assert.assertEquals(2, TranspositionTable.moveOf(table.probe(SECOND)));
+
+    TranspositionTable always = new TranspositionTable(1,
+            TranspositionTable.Replacement.ALWAYS);
+    always.store(FIRST, 6, 0, TranspositionTable.EXACT, 1);
+    always.store(SECOND, 3, 0, TranspositionTable.EXACT, 2);
+    Assert.assertEquals(0L, always.probe(FIRST));
+  }
+
+  @Test
+  public void testPlayersWithATableChooseTheSameMoves() {
+    IReversiModel model = new ReversiModelImpl(5);
+    TranspositionTable table = new TranspositionTable(1);
+    AIPlayer black = new AdvancedAIPlayer(TileType.BLACK, model);
+    AIPlayer white = new AdvancedAIPlayer(TileType.WHITE, model);
+    AIPlayer plainBlack = new AdvancedAIPlayer(TileType.BLACK, model);
+    AIPlayer plainWhite = new AdvancedAIPlayer(TileType.WHITE, model);
+    black.setTranspositionTable(table);
+    white.setTranspositionTable(table);
+    while (!model.isGameOver()) {
+      boolean blackTurn = model.getTurn().equals(TileType.BLACK);
+      if (model.hasLegalMove()) {
+        Position3D move = (blackTurn ? black : white).getOptimalMove();
+        Assert.assertEquals((blackTurn ? plainBlack : plainWhite).getOptimalMove(), move);
+        Assert.assertEquals(move, (blackTurn ? black : white).getOptimalMove());
+        Assert.assertEquals(model.getGeometry().indexOf(move),
+                TranspositionTable.moveOf(table.probe(model.getPositionHash())));
+        model.placeTile(move);
+      } else {
+        model.pass();
+      }
+    }
+  }
+}
@@ -0,0 +1,127 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.BitboardReversiModelImpl;
+import model.evaluation.Evaluator;
+import model.evaluation.PatternEvaluator;
+import model.evaluation.WeightFile;
+import model.evaluation.WeightedEvaluator;
+import model.geometry.BoardGeometry;
+import tools.GameRecord;
+import tools.WeightTuner;
+
+/**
+ * Tests for game records, weight files and the weight tuner.
+ */
+public class WeightTunerTests {
+
+  @Test
+  public void testRecordsReadBackTheSame() {
+    GameRecord record = GameRecord.parse("hex 4 1,-2 2,-1 pass 0,2");
+    Assert.assertEquals("hex 4 1,-2 2,-1 pass 0,2", record.toString());
+    Assert.assertEquals(-1, record.getMoves()[2]);
+    Assert.assertEquals(BoardGeometry.hex(4), record.getGeometry());
+    GameRecord square = GameRecord.parse("square 8  2,3 pass");
+    Assert.assertEquals("square 8 2,3 pass", square.toString());
+    Assert.assertEquals(square, GameRecord.parse(square.toString()));
+    Assert.assertThrows(IllegalArgumentException.class, () -> GameRecord.parse("hex"));
+    Assert.assertThrows(IllegalArgumentException.class, () -> GameRecord.parse("tri 4 1,1"));
+    Assert.assertThrows(IllegalArgumentException.class, () -> GameRecord.parse("hex 4 9,0"));
+    Assert.assertThrows(IllegalArgumentException.class, () -> GameRecord.parse("hex 4 1-2"));
+  }
+
+  @Test
+  public void testWeightFilesReadBackTheSame() throws IOException {
+    Path file = Files.createTempFile("weights", ".bin");
+    try {
+      WeightedEvaluator weighted = new WeightedEvaluator(new int[] {5, 2, 100, 20, -3, 0, 2});
+      WeightFile.write(weighted, file);
+      Evaluator read = WeightFile.read(file);
+      Assert.assertTrue(read instanceof WeightedEvaluator);
+      for (WeightedEvaluator.Term term : WeightedEvaluator.Term.values()) {
+        Assert.assertEquals(weighted.getWeight(term), ((WeightedEvaluator) read).getWeight(term));
+      }
+
+      BoardGeometry hex = BoardGeometry.hex(5);
+      BoardGeometry square = BoardGeometry.square(8);
+      PatternEvaluator patterns = new PatternEvaluator();
+      int[][] tables = patterns.getTables(square);
+      tables[1][7] = -1234;
+      patterns.setTables(square, tables);
+      WeightFile.write(patterns, file, hex, square);
+      read = WeightFile.read(file);
+      Assert.assertTrue(read instanceof PatternEvaluator);
+      Assert.assertTrue(Arrays.deepEquals(tables, ((PatternEvaluator) read).getTables(square)));
+      Assert.assertTrue(Arrays.deepEquals(patterns.getTables(hex),
+              ((PatternEvaluator) read).getTables(hex)));
+
+      tables[0][0] = 40_000;
+      patterns.setTables(square, tables);
+      Assert.assertThrows(IllegalArgumentException.class, () ->
+              WeightFile.write(patterns, file, square));
+      Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+      Assert.assertThrows(IOException.class, () -> WeightFile.read(file));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testFitLowersTheLoss() throws IOException {
+    BoardGeometry geometry = BoardGeometry.hex(4);
+    Path records = Files.createTempFile("games", ".txt");
+    Path weights = Files.createTempFile("weights", ".bin");
+    try {
+      WeightTuner.selfPlay(geometry, 12, 1, 6, 7, 2, records);
+      // A pass while a move is legal makes the record illegal, even if it ends the game
+      Files.write(records, Arrays.asList("square 4 pass", "hex 4 0,0", "not a game",
+              "hex 4 pass pass"), StandardOpenOption.APPEND);
+      Assert.assertEquals(16, Files.readAllLines(records).size());
+
+      WeightTuner tuner = new WeightTuner(geometry, WeightTuner.Model.WEIGHTED);
+      tuner.setThreads(2);
+      tuner.setEpochs(15);
+      tuner.setChunkSize(100);
+      double[] losses = tuner.fit(records);
+      Assert.assertEquals(4, tuner.getSkippedGames());
+      Assert.assertTrue(tuner.getPositionCount() > 12 * 20);
+      Assert.assertTrue(losses[losses.length - 1] < losses[0]);
+      tuner.save(weights);
+      Assert.assertTrue(WeightFile.read(weights) instanceof WeightedEvaluator);
+
+      WeightTuner patterns = new WeightTuner(geometry, WeightTuner.Model.PATTERN);
+      patterns.setLoss(WeightTuner.Loss.LOGISTIC);
+      patterns.setEpochs(5);
+      losses = patterns.fit(records);
+      Assert.assertTrue(losses[losses.length - 1] < losses[0]);
+      patterns.save(weights);
+      Evaluator read = WeightFile.read(weights);
+      Assert.assertTrue(read instanceof PatternEvaluator);
+      read.evaluate(new BitboardReversiModelImpl(geometry));
+    } finally {
+      Files.deleteIfExists(records);
+      Files.deleteIfExists(weights);
+    }
+  }
+
+  @Test
+  public void testBadSettingsThrow() throws IOException {
+    WeightTuner tuner = new WeightTuner(BoardGeometry.square(6), WeightTuner.Model.PATTERN);
+    Assert.assertThrows(IllegalArgumentException.class, () -> tuner.setThreads(0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> tuner.setEpochs(0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> tuner.setLearningRate(0));
+    Path records = Files.createTempFile("games", ".txt");
+    try {
+      Files.write(records, Arrays.asList("hex 4 pass"));
+      Assert.assertThrows(IllegalArgumentException.class, () -> tuner.fit(records));
+    } finally {
+      Files.deleteIfExists(records);
+    }
+  }
+}
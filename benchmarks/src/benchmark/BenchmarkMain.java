@@ -0,0 +1,41 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results as JSON, with the GC profiler on so that every
+ * benchmark also reports its allocation rate (gc.alloc.rate and gc.alloc.rate.norm, the bytes
+ * allocated per operation). The JSON can be kept from run to run to follow throughput and
+ * allocation over time.
+ */
+public final class BenchmarkMain {
+
+  /**
+   * Not to be constructed.
+   */
+  private BenchmarkMain() {
+  }
+
+  /**
+   * Runs the benchmarks.
+   * @param args optionally the file to write the JSON to (results.json by default), then a
+   *             regular expression picking the benchmarks to run (all of them by default)
+   * @throws RunnerException if JMH can't run the benchmarks
+   */
+  public static void main(String[] args) throws RunnerException {
+    String output = args.length > 0 ? args[0] : "results.json";
+    String include = args.length > 1 ? args[1] : ModelBenchmark.class.getSimpleName();
+    Options options = new OptionsBuilder()
+            .include(include)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result(output)
+            .build();
+    new Runner(options).run();
+  }
+}
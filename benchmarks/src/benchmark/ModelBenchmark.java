@@ -0,0 +1,154 @@
+package benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.position.Position3D;
+import model.tile.Tile;
+
+/**
+ * Throughput of the model operations the players and views use most, on every hex radius from 3
+ * to 12 and every square diameter from 4 to 16, in the opening, the middle game and the endgame.
+ * The position of each board and phase comes from random moves with a fixed seed, so every run
+ * measures the same positions.
+ * The models work out the legal moves of a position the first time they are asked and keep them
+ * until the position changes, so isMoveLegal, hasLegalMove and placeTile are measured on a fresh
+ * copy of the position each time, kept in its own state (FreshCopy) that only they use; the copy
+ * is made outside the timing, but its allocation counts towards theirs in the GC profiler.
+ * isMoveLegalCached measures the lookup once they are known. The copy constructor and
+ * getCopyOfBoard run on the same position every time, with no setup between calls.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmark {
+
+  @Param({"hex:3", "hex:4", "hex:5", "hex:6", "hex:7", "hex:8", "hex:9", "hex:10", "hex:11",
+      "hex:12", "square:4", "square:6", "square:8", "square:10", "square:12", "square:14",
+      "square:16"})
+  public String board;
+
+  @Param({"opening", "midgame", "endgame"})
+  public String phase;
+
+  private IReversiModel position;
+  private Position3D move;
+
+  /**
+   * Plays the position of the board and phase being measured, and picks a legal move in it.
+   */
+  @Setup(Level.Trial)
+  public void setUpPosition() {
+    this.position = Positions.play(this.board, this.phase);
+    List<Position3D> moves = Positions.legalMoves(this.position);
+    this.move = moves.get(new Random(moves.size()).nextInt(moves.size()));
+  }
+
+  /**
+   * A copy of the position being measured that has not worked out its legal moves yet, made
+   * again before every call of the benchmarks that take it.
+   */
+  @State(Scope.Thread)
+  public static class FreshCopy {
+    private IReversiModel model;
+
+    /**
+     * Copies the position of the benchmark.
+     * @param benchmark state holding the position
+     */
+    @Setup(Level.Invocation)
+    public void setUp(ModelBenchmark benchmark) {
+      this.model = copy(benchmark.position);
+    }
+  }
+
+  /**
+   * Checks a legal move on a position that hasn't worked out its legal moves.
+   * @param fresh copy of the position
+   * @return whether the move is legal
+   */
+  @Benchmark
+  public boolean isMoveLegal(FreshCopy fresh) {
+    return fresh.model.isMoveLegal(this.move);
+  }
+
+  /**
+   * Checks a legal move on a position that already knows its legal moves.
+   * @return whether the move is legal
+   */
+  @Benchmark
+  public boolean isMoveLegalCached() {
+    return this.position.isMoveLegal(this.move);
+  }
+
+  /**
+   * Checks for any legal move on a position that hasn't worked out its legal moves.
+   * @param fresh copy of the position
+   * @return whether there is a legal move
+   */
+  @Benchmark
+  public boolean hasLegalMove(FreshCopy fresh) {
+    return fresh.model.hasLegalMove();
+  }
+
+  /**
+   * Places a tile, flipping what it flips.
+   * @param fresh copy of the position
+   * @return the black score after the move, so the move can't be optimized away
+   */
+  @Benchmark
+  public int placeTile(FreshCopy fresh) {
+    fresh.model.placeTile(this.move);
+    return fresh.model.getBlackScore();
+  }
+
+  /**
+   * Copies every tile of the board, as the views do to draw it.
+   * @return the copied tiles
+   */
+  @Benchmark
+  public List<Tile> getCopyOfBoard() {
+    return this.position.getCopyOfBoard();
+  }
+
+  /**
+   * Copies the whole model, as the players do to try moves.
+   * @return the copy
+   */
+  @Benchmark
+  public IReversiModel copyConstructor() {
+    return copy(this.position);
+  }
+
+  /**
+   * Copies a model with the copy constructor of its kind.
+   * @param model model to copy
+   * @return the copy
+   */
+  private static IReversiModel copy(IReversiModel model) {
+    if (model.getGeometry().isSquare()) {
+      return new SquareReversiModelImpl(model);
+    }
+    return new ReversiModelImpl(model);
+  }
+}
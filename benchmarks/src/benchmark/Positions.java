@@ -0,0 +1,127 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.position.Position3D;
+
+/**
+ * Makes the positions the benchmarks run on, from random games with fixed seeds.
+ * A board is named "hex:radius" or "square:diameter". Random games on a hex board end well before
+ * it fills up, so the phases are placed by how far into a game they are rather than by how full
+ * the board is: the longest of a few random games is played again up to its opening (a quarter of
+ * its moves, at most four), its middle (half its moves) or its endgame (a quarter of its moves, at
+ * most twelve, before the end). A position always has a legal move for the side to move.
+ */
+final class Positions {
+  private static final int GAMES = 20;
+  private static final int OPENING_MOVES = 4;
+  private static final int ENDGAME_MOVES = 12;
+
+  /**
+   * Not to be constructed.
+   */
+  private Positions() {
+  }
+
+  /**
+   * Plays the position of a board and phase.
+   * @param board "hex:radius" or "square:diameter"
+   * @param phase "opening", "midgame" or "endgame"
+   * @return a new model at that position
+   * @throws IllegalArgumentException if the board or phase isn't known, or no random game is long
+   *                                  enough to tell the phases apart
+   */
+  static IReversiModel play(String board, String phase) throws IllegalArgumentException {
+    int seed = 0;
+    int length = 0;
+    for (int s = 0; s < GAMES; s++) {
+      int moves = playRandom(newModel(board), s, Integer.MAX_VALUE);
+      if (moves > length) {
+        seed = s;
+        length = moves;
+      }
+    }
+    if (length < 4) {
+      throw new IllegalArgumentException("Random games of " + board + " are too short");
+    }
+    int moves;
+    if (phase.equals("opening")) {
+      moves = Math.max(1, Math.min(OPENING_MOVES, length / 4));
+    } else if (phase.equals("midgame")) {
+      moves = length / 2;
+    } else if (phase.equals("endgame")) {
+      moves = length - Math.max(1, Math.min(ENDGAME_MOVES, length / 4));
+    } else {
+      throw new IllegalArgumentException("Phase must be opening, midgame or endgame");
+    }
+    IReversiModel model = newModel(board);
+    playRandom(model, seed, moves);
+    return model;
+  }
+
+  /**
+   * Plays random moves, passing when there is no move, until a number of tiles have been placed
+   * and the side to move has a legal move, or the game is over.
+   * @param model position to play from, which is changed
+   * @param seed seed for the moves
+   * @param moves how many tiles to place
+   * @return how many tiles were placed
+   */
+  private static int playRandom(IReversiModel model, long seed, int moves) {
+    Random random = new Random(seed);
+    int[] cells = new int[model.getGeometry().getCellCount()];
+    int placed = 0;
+    while (!model.isGameOver()) {
+      int count = model.legalMoves(cells);
+      if (count == 0) {
+        model.pass();
+      } else if (placed == moves) {
+        break;
+      } else {
+        model.placeTile(model.getGeometry().getPosition(cells[random.nextInt(count)]));
+        placed++;
+      }
+    }
+    return placed;
+  }
+
+  /**
+   * Gets the legal moves of the side to move.
+   * @param model position to look at
+   * @return legal moves, in board order
+   */
+  static List<Position3D> legalMoves(IReversiModel model) {
+    int[] cells = new int[model.getGeometry().getCellCount()];
+    int count = model.legalMoves(cells);
+    List<Position3D> moves = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      moves.add(model.getGeometry().getPosition(cells[i]));
+    }
+    return moves;
+  }
+
+  /**
+   * Makes the starting position of a board.
+   * @param board "hex:radius" or "square:diameter"
+   * @return a new model
+   * @throws IllegalArgumentException if the board isn't known
+   */
+  private static IReversiModel newModel(String board) throws IllegalArgumentException {
+    String[] parts = board.split(":");
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("Board must be hex:radius or square:diameter");
+    }
+    int size = Integer.parseInt(parts[1]);
+    if (parts[0].equals("hex")) {
+      return new ReversiModelImpl(size);
+    } else if (parts[0].equals("square")) {
+      return new SquareReversiModelImpl(size);
+    }
+    throw new IllegalArgumentException("Board must be hex:radius or square:diameter");
+  }
+}
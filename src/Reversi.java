@@ -1,11 +1,18 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
 import controller.ReversiController;
 import controller.ReversiControllerImpl;
 import model.IReversiModel;
 import model.ReversiModelImpl;
 import model.SquareReversiModelImpl;
+import model.evaluation.Evaluator;
+import model.evaluation.WeightFile;
 import model.player.AIPlayer;
+import model.player.AlphaBetaAIPlayer;
 import model.player.Player;
 import model.player.HumanPlayer;
+import model.player.MonteCarloAIPlayer;
 import model.tile.TileType;
 import view.IGraphicalView;
 import view.ReversiGraphicalView;
@@ -15,15 +22,24 @@ import view.SquareReversiView;
  * The main class for running a game of Reversi.
  */
 public final class Reversi {
+  // How long the search player thinks about each move
+  private static final long SEARCH_MILLIS_PER_MOVE = 1000;
+  // The Monte Carlo player stops at whichever limit it reaches first
+  private static final long MCTS_MILLIS_PER_MOVE = 1000;
+  private static final int MCTS_MAX_PLAYOUTS = 1_000_000;
+
   /**
-   * Main function.
+   * Main function. An optional fifth argument names a weight file (see WeightFile) for the
+   * search players to score positions with.
    * @param args why do we need to java doc this
+   * @throws IOException if the weight file can't be read
    */
-  public static void main(String[] args) {
-    if (args.length != 4) {
-      throw new IllegalArgumentException("Must have 4 args: hex/square human/ai human/ai " +
-              "[int that's >= 2]");
+  public static void main(String[] args) throws IOException {
+    if (args.length != 4 && args.length != 5) {
+      throw new IllegalArgumentException("Must have 4 args: hex/square human/ai/search/mcts "
+              + "human/ai/search/mcts [int that's >= 2], and optionally a weight file");
     }
+    Evaluator evaluator = args.length == 5 ? WeightFile.read(Paths.get(args[4])) : null;
 
     IReversiModel model;
     Player p1;
@@ -43,16 +59,35 @@ public final class Reversi {
       p1 = new HumanPlayer(TileType.BLACK, model);
     } else if (args[1].equals("ai")) {
       p1 = new AIPlayer(TileType.BLACK, model);
+    } else if (args[1].equals("search")) {
+      p1 = new AlphaBetaAIPlayer(TileType.BLACK, model, SEARCH_MILLIS_PER_MOVE);
+    } else if (args[1].equals("mcts")) {
+      p1 = new MonteCarloAIPlayer(TileType.BLACK, model, MCTS_MILLIS_PER_MOVE, MCTS_MAX_PLAYOUTS);
     } else {
-      throw new IllegalArgumentException("Second argument must be \"human\" or \"ai\"");
+      throw new IllegalArgumentException("Second argument must be \"human\", \"ai\", "
+              + "\"search\" or \"mcts\"");
     }
 
     if (args[2].equals("human")) {
       p2 = new HumanPlayer(TileType.WHITE, model);
     } else if (args[2].equals("ai")) {
       p2 = new AIPlayer(TileType.WHITE, model);
+    } else if (args[2].equals("search")) {
+      p2 = new AlphaBetaAIPlayer(TileType.WHITE, model, SEARCH_MILLIS_PER_MOVE);
+    } else if (args[2].equals("mcts")) {
+      p2 = new MonteCarloAIPlayer(TileType.WHITE, model, MCTS_MILLIS_PER_MOVE, MCTS_MAX_PLAYOUTS);
     } else {
-      throw new IllegalArgumentException("Third argument must be \"human\" or \"ai\"");
+      throw new IllegalArgumentException("Third argument must be \"human\", \"ai\", "
+              + "\"search\" or \"mcts\"");
+    }
+
+    if (evaluator != null) {
+      if (p1 instanceof AlphaBetaAIPlayer) {
+        ((AlphaBetaAIPlayer) p1).setEvaluator(evaluator);
+      }
+      if (p2 instanceof AlphaBetaAIPlayer) {
+        ((AlphaBetaAIPlayer) p2).setEvaluator(evaluator);
+      }
     }
 
     if (args[0].equals("hex")) {
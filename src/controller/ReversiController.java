@@ -50,5 +50,12 @@ public interface ReversiController {
 
   int getPlayerScore();
 
+  /**
+   * Gets how many tiles a move at the given position would flip for whoever turn it is.
+   * @param pos The position of the potential move
+   * @return amount of flipped tiles, or 0 if the move is not legal
+   */
+  int getFlipCount(Position3D pos);
+
   IReversiModel getCopyOfModel();
 }
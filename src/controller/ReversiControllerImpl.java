@@ -128,6 +128,11 @@ public class ReversiControllerImpl implements ReversiController {
     }
   }
 
+  @Override
+  public int getFlipCount(Position3D pos) {
+    return this.model.getFlipCount(pos);
+  }
+
   @Override
   public IReversiModel getCopyOfModel() {
     return new ReversiModelImpl(this.model);
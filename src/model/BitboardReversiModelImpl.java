@@ -0,0 +1,783 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import controller.ReversiController;
+import model.geometry.BoardGeometry;
+import model.position.Position3D;
+import model.tile.GameTile;
+import model.tile.Tile;
+import model.tile.TileType;
+
+/**
+ * Reversi model that keeps the board as two packed bitsets instead of a list of tiles.
+ * Cells are numbered by the dense ids of the board geometry, and bit 'id' of the black and white
+ * bitsets says which player, if any, is on that cell.
+ * Lookups are array reads, captures walk the precomputed rays of the geometry and are applied as
+ * a mask word by word, and the scores are bit counts.
+ * The Zobrist hash of the position is updated with XOR on every placement, flip and pass.
+ * The legal moves of the current position and their flip counts are worked out once, the first
+ * time they are asked for, and kept until the position changes.
+ * It plays on hex boards by default, and on square boards when given a square geometry.
+ * A BoardListener can be set to hear about every cell that changes.
+ */
+public class BitboardReversiModelImpl implements IReversiModel {
+  protected final int radius;
+  protected final BoardGeometry geometry;
+  protected final long[] black;
+  protected final long[] white;
+  protected final long[] flips;
+  protected final int[] flipCells;
+  protected TileType turn;
+  protected int passCounter;
+  protected long hash;
+  protected ReversiController blackObserver;
+  protected ReversiController whiteObserver;
+  private final MoveHistory history;
+  // Legal moves of the current position, valid while legalCached is true
+  private final int[] legalCells;
+  private final int[] flipCounts;
+  private int legalCount;
+  private boolean legalCached;
+  private BoardListener listener;
+
+  /**
+   * Constructor for the class.
+   * @param radius amount of hexagons from the center (included) to the edge in a straight line
+   * @throws IllegalArgumentException if the radius is too short
+   */
+  public BitboardReversiModelImpl(int radius) throws IllegalArgumentException {
+    this(BoardGeometry.hex(radius));
+  }
+
+  /**
+   * Constructor for a board of the given shape, with the usual starting pieces for that shape.
+   * @param geometry hex or square board geometry
+   */
+  public BitboardReversiModelImpl(BoardGeometry geometry) {
+    this.radius = geometry.getRadius();
+    this.geometry = geometry;
+    this.black = new long[(this.geometry.getCellCount() + 63) >>> 6];
+    this.white = new long[this.black.length];
+    this.flips = new long[this.black.length];
+    this.flipCells = new int[this.geometry.getCellCount()];
+    this.history = new MoveHistory();
+    this.legalCells = new int[this.geometry.getCellCount()];
+    this.flipCounts = new int[this.geometry.getCellCount()];
+    this.legalCached = false;
+    this.turn = TileType.BLACK;
+    this.passCounter = 0;
+    for (int id = 0; id < this.geometry.getCellCount(); id++) {
+      Position3D p = this.geometry.getPosition(id);
+      if (geometry.isSquare()) {
+        int x = p.getQ();
+        int y = p.getR();
+        if ((x == radius && y == radius) || (x == radius - 1 && y == radius - 1)) {
+          set(this.black, id);
+        } else if ((x == radius && y == radius - 1) || (x == radius - 1 && y == radius)) {
+          set(this.white, id);
+        }
+      } else if (Math.abs(p.getQ()) + Math.abs(p.getR()) + Math.abs(p.getS()) == 2) {
+        if ((p.getQ() == 0 && p.getR() == -1)
+                || (p.getQ() == 1 && p.getR() == 0)
+                || (p.getQ() == -1 && p.getR() == 1)) {
+          set(this.black, id);
+        } else {
+          set(this.white, id);
+        }
+      }
+    }
+    this.hash = this.computeHash();
+  }
+
+  /**
+   * Constructor to make a copy of the game.
+   * @param rm model to copy
+   */
+  public BitboardReversiModelImpl(ReadonlyIReversiModel rm) {
+    this(rm.getGeometry());
+    clear(this.black);
+    clear(this.white);
+    for (Tile t : rm.getCopyOfBoard()) {
+      int id = this.requireCell(t.getPos());
+      if (t.getTileType().equals(TileType.BLACK)) {
+        set(this.black, id);
+      } else if (t.getTileType().equals(TileType.WHITE)) {
+        set(this.white, id);
+      }
+    }
+    this.turn = rm.getTurn();
+    this.passCounter = rm.getPassesInARow();
+    this.hash = this.computeHash();
+  }
+
+  private static boolean test(long[] bits, int id) {
+    return (bits[id >>> 6] & (1L << id)) != 0;
+  }
+
+  private static void set(long[] bits, int id) {
+    bits[id >>> 6] |= 1L << id;
+  }
+
+  private static void clear(long[] bits) {
+    Arrays.fill(bits, 0L);
+  }
+
+  private static int count(long[] bits) {
+    int total = 0;
+    for (long word : bits) {
+      total += Long.bitCount(word);
+    }
+    return total;
+  }
+
+  /**
+   * Gets the cell id of the given position.
+   * @param pos position on the board
+   * @return the cell id
+   * @throws IllegalArgumentException if the position is not on the board
+   */
+  private int requireCell(Position3D pos) throws IllegalArgumentException {
+    int id = this.geometry.indexOf(pos);
+    if (id < 0) {
+      throw new IllegalArgumentException("This position is not on the board");
+    }
+    return id;
+  }
+
+  /**
+   * Gets what is on the given cell.
+   * @param id cell id
+   * @return the tile type at that cell
+   */
+  private TileType typeOf(int id) {
+    if (test(this.black, id)) {
+      return TileType.BLACK;
+    }
+    if (test(this.white, id)) {
+      return TileType.WHITE;
+    }
+    return TileType.EMPTY;
+  }
+
+  /**
+   * Gets the Zobrist key of the given piece on the given cell.
+   * @param id cell id
+   * @param type piece on the cell
+   * @return the key, or 0 for an empty cell
+   */
+  private long pieceKey(int id, TileType type) {
+    if (type == TileType.BLACK) {
+      return this.geometry.getBlackKey(id);
+    }
+    if (type == TileType.WHITE) {
+      return this.geometry.getWhiteKey(id);
+    }
+    return 0L;
+  }
+
+  /**
+   * Works out the Zobrist hash of the position from scratch.
+   * @return XOR of the keys of every piece, and of the side to move key if it is white's turn
+   */
+  private long computeHash() {
+    long h = this.turn == TileType.WHITE ? this.geometry.getWhiteToMoveKey() : 0L;
+    for (int id = 0; id < this.geometry.getCellCount(); id++) {
+      h ^= this.pieceKey(id, this.typeOf(id));
+    }
+    return h;
+  }
+
+  /**
+   * Gives the turn to the other player, without alerting anyone.
+   */
+  private void switchTurn() {
+    this.turn = this.turn == TileType.BLACK ? TileType.WHITE : TileType.BLACK;
+    this.hash ^= this.geometry.getWhiteToMoveKey();
+  }
+
+  /**
+   * Fills the flips mask and the flipCells buffer with every cell captured by placing on the
+   * given cell.
+   * @param id cell id
+   * @return how many cells are captured
+   */
+  private int computeFlips(int id) {
+    long[] own = this.turn == TileType.BLACK ? this.black : this.white;
+    long[] opp = this.turn == TileType.BLACK ? this.white : this.black;
+    clear(this.flips);
+    int total = 0;
+    for (int[] ray : this.geometry.getRays(id)) {
+      int run = 0;
+      while (run < ray.length && test(opp, ray[run])) {
+        run++;
+      }
+      if (run > 0 && run < ray.length && test(own, ray[run])) {
+        for (int i = 0; i < run; i++) {
+          set(this.flips, ray[i]);
+          this.flipCells[total++] = ray[i];
+        }
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Counts the cells captured by placing on the given empty cell, without touching the flip
+   * buffers.
+   * @param id cell id
+   * @return how many cells are captured
+   */
+  private int countFlips(int id) {
+    long[] own = this.turn == TileType.BLACK ? this.black : this.white;
+    long[] opp = this.turn == TileType.BLACK ? this.white : this.black;
+    int total = 0;
+    for (int[] ray : this.geometry.getRays(id)) {
+      int run = 0;
+      while (run < ray.length && test(opp, ray[run])) {
+        run++;
+      }
+      if (run > 0 && run < ray.length && test(own, ray[run])) {
+        total += run;
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Works out the legal moves of the current position and how many cells each of them flips,
+   * unless that is already known. Only the empty cells are visited, a word of the bitsets at a
+   * time.
+   */
+  private void cacheLegalMoves() {
+    if (this.legalCached) {
+      return;
+    }
+    Arrays.fill(this.flipCounts, 0);
+    this.legalCount = 0;
+    if (!this.isGameOver()) {
+      int cells = this.geometry.getCellCount();
+      for (int w = 0; w < this.black.length; w++) {
+        long empty = ~(this.black[w] | this.white[w]);
+        if ((w + 1) << 6 > cells) {
+          empty &= (1L << (cells & 63)) - 1;
+        }
+        while (empty != 0) {
+          int id = (w << 6) + Long.numberOfTrailingZeros(empty);
+          this.flipCounts[id] = this.countFlips(id);
+          if (this.flipCounts[id] > 0) {
+            this.legalCells[this.legalCount++] = id;
+          }
+          empty &= empty - 1;
+        }
+      }
+    }
+    this.legalCached = true;
+  }
+
+  /**
+   * Switches the turn to the other player and alerts them if the game is still going.
+   */
+  private void nextTurn() {
+    this.switchTurn();
+    if (this.turn == TileType.WHITE) {
+      if (whiteObserver != null && !this.isGameOver()) {
+        this.whiteObserver.alertTurn();
+      }
+    } else {
+      if (blackObserver != null && !this.isGameOver()) {
+        this.blackObserver.alertTurn();
+      }
+    }
+  }
+
+  /**
+   * Gets the Tile on the board at the given position.
+   * The tile writes through to the bitsets, so setting its type changes the board.
+   * @param pos coordinates as a position type
+   * @return The Tile at the given position.
+   * @throws IllegalArgumentException If the position is not on the board.
+   */
+  @Override
+  public Tile getTileAt(Position3D pos) throws IllegalArgumentException {
+    return new CellTile(this.requireCell(pos));
+  }
+
+  /**
+   * Starts the game, allowing players to make moves.
+   */
+  @Override
+  public void startGame() {
+    if (blackObserver != null) {
+      this.blackObserver.alertTurn();
+    }
+  }
+
+  /**
+   * Gets a copy of the tile at the given position.
+   * @param pos position of tile
+   * @return A copy of the Tile at the given position.
+   * @throws IllegalArgumentException If the position is not on the board.
+   */
+  @Override
+  public Tile getCopyOfTileAt(Position3D pos) throws IllegalArgumentException {
+    int id = this.requireCell(pos);
+    return new GameTile(this.geometry.getPosition(id), this.typeOf(id));
+  }
+
+  /**
+   * Gets what is on the cell with the given id.
+   * @param cell cell id
+   * @return tile type on that cell
+   */
+  @Override
+  public TileType getTileTypeAt(int cell) {
+    if (cell < 0 || cell >= this.geometry.getCellCount()) {
+      throw new IndexOutOfBoundsException("Cell " + cell + " is not on the board");
+    }
+    return this.typeOf(cell);
+  }
+
+  /**
+   * Gets the shape of the board.
+   * @return this model's geometry
+   */
+  @Override
+  public BoardGeometry getGeometry() {
+    return this.geometry;
+  }
+
+  /**
+   * Gets the radius of the board.
+   * @return The radius as an int.
+   */
+  @Override
+  public int getRadius() {
+    return this.radius;
+  }
+
+  /**
+   * Gets whose turn it currently is.
+   * @return The player whose turn it is.
+   */
+  @Override
+  public TileType getTurn() {
+    return this.turn;
+  }
+
+  /**
+   * Passes to the next player.
+   * @throws IllegalStateException If the game is already over.
+   */
+  @Override
+  public void pass() throws IllegalStateException {
+    if (this.isGameOver()) {
+      throw new IllegalStateException("The game is over");
+    }
+    this.passCounter += 1;
+    this.history.clear();
+    this.legalCached = false;
+    this.nextTurn();
+  }
+
+  /**
+   * Places a tile at the position given, based on whose turn it is.
+   * @param pos coordinates as position type
+   * @throws IllegalStateException If the move does not capture any pieces,
+   *                                or if the move is illegal.
+   * @throws IllegalArgumentException If the position argument is not on the board.
+   */
+  @Override
+  public void placeTile(Position3D pos) throws IllegalStateException, IllegalArgumentException {
+    this.applyMove(pos, false);
+    this.history.clear();
+    this.nextTurn();
+  }
+
+  /**
+   * Checks and applies a move for whoever turn it is, without switching the turn.
+   * @param pos coordinates as position type
+   * @param record true to record the move so that undoMove can take it back
+   * @throws IllegalStateException If the move does not capture any pieces,
+   *                                or if the move is illegal.
+   * @throws IllegalArgumentException If the position argument is not on the board.
+   */
+  private void applyMove(Position3D pos, boolean record) throws IllegalStateException,
+          IllegalArgumentException {
+    if (this.isGameOver()) {
+      throw new IllegalStateException("The game is over");
+    }
+    int id = this.geometry.indexOf(pos);
+    if (id < 0) {
+      throw new IllegalArgumentException("Position out of bounds for game board");
+    }
+    if (test(this.black, id) || test(this.white, id)) {
+      throw new IllegalStateException("There already is a tile in this position");
+    }
+    int flipCount = this.computeFlips(id);
+    if (flipCount == 0) {
+      throw new IllegalStateException("No available bridges");
+    }
+    if (record) {
+      this.history.push(id, this.passCounter, this.flipCells, flipCount);
+    }
+    long[] own = this.turn == TileType.BLACK ? this.black : this.white;
+    long[] opp = this.turn == TileType.BLACK ? this.white : this.black;
+    for (int w = 0; w < own.length; w++) {
+      own[w] |= this.flips[w];
+      opp[w] &= ~this.flips[w];
+    }
+    set(own, id);
+    this.hash ^= this.pieceKey(id, this.turn);
+    for (int i = 0; i < flipCount; i++) {
+      this.hash ^= this.geometry.getBlackKey(this.flipCells[i])
+              ^ this.geometry.getWhiteKey(this.flipCells[i]);
+    }
+    this.passCounter = 0;
+    this.legalCached = false;
+    if (this.listener != null) {
+      TileType opponent = this.turn == TileType.BLACK ? TileType.WHITE : TileType.BLACK;
+      this.listener.cellChanged(id, TileType.EMPTY, this.turn);
+      for (int i = 0; i < flipCount; i++) {
+        this.listener.cellChanged(this.flipCells[i], opponent, this.turn);
+      }
+    }
+  }
+
+  /**
+   * Makes a move for whoever turn it is and records it so that undoMove can take it back.
+   * Observers are not alerted.
+   * @param pos coordinates as position type
+   * @throws IllegalStateException If the move does not capture any pieces,
+   *                                or if the move is illegal.
+   * @throws IllegalArgumentException If the position argument is not on the board.
+   */
+  @Override
+  public void makeMove(Position3D pos) throws IllegalStateException, IllegalArgumentException {
+    this.applyMove(pos, true);
+    this.switchTurn();
+  }
+
+  /**
+   * Passes for whoever turn it is and records it so that undoMove can take it back.
+   * Observers are not alerted.
+   * @throws IllegalStateException If the game is already over.
+   */
+  @Override
+  public void makePass() throws IllegalStateException {
+    if (this.isGameOver()) {
+      throw new IllegalStateException("The game is over");
+    }
+    this.history.push(-1, this.passCounter, this.flipCells, 0);
+    this.passCounter += 1;
+    this.legalCached = false;
+    this.switchTurn();
+  }
+
+  /**
+   * Takes back the latest makeMove or makePass.
+   * @throws IllegalStateException If there is no recorded move to take back.
+   */
+  @Override
+  public void undoMove() throws IllegalStateException {
+    if (this.history.isEmpty()) {
+      throw new IllegalStateException("There is no move to undo");
+    }
+    TileType mover = this.turn == TileType.BLACK ? TileType.WHITE : TileType.BLACK;
+    int id = this.history.lastCell();
+    if (id >= 0) {
+      long[] own = mover == TileType.BLACK ? this.black : this.white;
+      long[] opp = mover == TileType.BLACK ? this.white : this.black;
+      own[id >>> 6] &= ~(1L << id);
+      this.hash ^= this.pieceKey(id, mover);
+      for (int i = 0; i < this.history.lastFlipCount(); i++) {
+        int flipped = this.history.lastFlip(i);
+        own[flipped >>> 6] &= ~(1L << flipped);
+        opp[flipped >>> 6] |= 1L << flipped;
+        this.hash ^= this.geometry.getBlackKey(flipped) ^ this.geometry.getWhiteKey(flipped);
+      }
+      if (this.listener != null) {
+        TileType opponent = mover == TileType.BLACK ? TileType.WHITE : TileType.BLACK;
+        this.listener.cellChanged(id, mover, TileType.EMPTY);
+        for (int i = 0; i < this.history.lastFlipCount(); i++) {
+          this.listener.cellChanged(this.history.lastFlip(i), mover, opponent);
+        }
+      }
+    }
+    this.passCounter = this.history.lastPassCounter();
+    this.switchTurn();
+    this.history.pop();
+    this.legalCached = false;
+    assert this.hash == this.computeHash() : "Hash out of sync with the board";
+  }
+
+  /**
+   * Adds the observer for the controller for the White player.
+   * @param controller The controller observing this model.
+   */
+  @Override
+  public void addWhiteObserver(ReversiController controller) {
+    if (!(controller.getPlayerColor().equals(TileType.WHITE))) {
+      throw new IllegalArgumentException("This player is not white.");
+    }
+    this.whiteObserver = controller;
+  }
+
+  /**
+   * Adds the observer for the controller for the Black player.
+   * @param controller The controller observing this model.
+   */
+  @Override
+  public void addBlackObserver(ReversiController controller) {
+    if (!(controller.getPlayerColor().equals(TileType.BLACK))) {
+      throw new IllegalArgumentException("This player is not black.");
+    }
+    this.blackObserver = controller;
+  }
+
+  /**
+   * Determines if both players in the game are human players, as opposed to AI.
+   * @return True if both players are human, and false otherwise.
+   */
+  @Override
+  public boolean bothPlayersHuman() {
+    if (this.blackObserver == null || this.whiteObserver == null) {
+      return false;
+    }
+    return this.blackObserver.isHuman() && this.whiteObserver.isHuman();
+  }
+
+  /**
+   * Gets the size of the board in tiles.
+   * @return The size of the board
+   */
+  @Override
+  public int getBoardSize() {
+    return this.geometry.getCellCount();
+  }
+
+  /**
+   * Gets the Zobrist hash of the position.
+   * @return 64-bit position hash
+   */
+  @Override
+  public long getPositionHash() {
+    return this.hash;
+  }
+
+  /**
+   * Gets the score of the black player.
+   * @return how many bits are set in the black bitset
+   */
+  @Override
+  public int getBlackScore() {
+    return count(this.black);
+  }
+
+  /**
+   * Gets the score of the white player.
+   * @return how many bits are set in the white bitset
+   */
+  @Override
+  public int getWhiteScore() {
+    return count(this.white);
+  }
+
+  /**
+   * Determines if the game has ended.
+   * @return 'true' is the game has ended, and false otherwise
+   */
+  @Override
+  public boolean isGameOver() {
+    return this.passCounter == 2;
+  }
+
+  /**
+   * Returns how many times players have passed, in a row.
+   * @return this model's passCounter
+   */
+  @Override
+  public int getPassesInARow() {
+    return this.passCounter;
+  }
+
+  /**
+   * Returns a copy of this model's board, in cell id order.
+   * @return a list of new tiles matching the bitsets
+   */
+  @Override
+  public List<Tile> getCopyOfBoard() {
+    List<Tile> copyBoard = new ArrayList<>(this.geometry.getCellCount());
+    for (int id = 0; id < this.geometry.getCellCount(); id++) {
+      copyBoard.add(new GameTile(this.geometry.getPosition(id), this.typeOf(id)));
+    }
+    return copyBoard;
+  }
+
+  /**
+   * Is the move at the given position legal for whoever turn it is.
+   * @param pos position of potential move
+   * @return true if legal
+   * @throws IllegalArgumentException If the position is not on the board.
+   */
+  @Override
+  public boolean isMoveLegal(Position3D pos) {
+    if (this.isGameOver()) {
+      return false;
+    }
+    return this.getFlipCount(pos) > 0;
+  }
+
+  /**
+   * Does the current player have a legal move.
+   *
+   * @return true if current player has legal move
+   */
+  @Override
+  public boolean hasLegalMove() {
+    this.cacheLegalMoves();
+    return this.legalCount > 0;
+  }
+
+  /**
+   * Finds every legal move for whoever turn it is.
+   * @param moves array to fill with cell ids, at least as long as the board
+   * @return how many moves were written
+   * @throws IllegalArgumentException if the array is too short to hold every cell
+   */
+  @Override
+  public int legalMoves(int[] moves) throws IllegalArgumentException {
+    if (moves.length < this.geometry.getCellCount()) {
+      throw new IllegalArgumentException("Move array is shorter than the board");
+    }
+    this.cacheLegalMoves();
+    System.arraycopy(this.legalCells, 0, moves, 0, this.legalCount);
+    return this.legalCount;
+  }
+
+  /**
+   * Gets how many tiles a move at the given position would flip for whoever turn it is.
+   * @param pos position of potential move
+   * @return amount of flipped tiles, or 0 if the move is not legal
+   * @throws IllegalArgumentException If the position is not on the board.
+   */
+  @Override
+  public int getFlipCount(Position3D pos) throws IllegalArgumentException {
+    int id = this.requireCell(pos);
+    this.cacheLegalMoves();
+    return this.flipCounts[id];
+  }
+
+  /**
+   * Gets how many legal moves whoever turn it is has.
+   * @return legal move count
+   */
+  public int getLegalMoveCount() {
+    this.cacheLegalMoves();
+    return this.legalCount;
+  }
+
+  /**
+   * Sets the listener that hears about every cell that changes from now on.
+   * @param listener listener to tell, or null for none
+   */
+  public void setBoardListener(BoardListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Gets the listener that hears about every cell that changes.
+   * @return the listener, or null if there is none
+   */
+  public BoardListener getBoardListener() {
+    return this.listener;
+  }
+
+  /**
+   * Gets how many 64-bit words the bitsets of this board take.
+   * @return word count
+   */
+  public int getWordCount() {
+    return this.black.length;
+  }
+
+  /**
+   * Gets one word of a player's bitset, for code that works on 64 cells at a time.
+   * Bit i of word w is set if the player is on cell 64 * w + i.
+   * @param color BLACK or WHITE
+   * @param word index of the word, from 0 to getWordCount() - 1
+   * @return the word
+   * @throws IllegalArgumentException if the color is EMPTY
+   */
+  public long getBits(TileType color, int word) throws IllegalArgumentException {
+    if (color == TileType.BLACK) {
+      return this.black[word];
+    } else if (color == TileType.WHITE) {
+      return this.white[word];
+    }
+    throw new IllegalArgumentException("Only players have bitsets");
+  }
+
+  /**
+   * A tile handed out by getTileAt that reads and writes the bitsets of this model directly.
+   */
+  private final class CellTile implements Tile {
+    private final int id;
+
+    private CellTile(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public void setTileType(TileType t) {
+      TileType current = typeOf(this.id);
+      if (!current.equals(TileType.EMPTY) && t.equals(TileType.EMPTY)) {
+        throw new IllegalStateException("Can't make a tile empty when it has a piece");
+      }
+      hash ^= pieceKey(this.id, current) ^ pieceKey(this.id, t);
+      long bit = 1L << this.id;
+      black[this.id >>> 6] &= ~bit;
+      white[this.id >>> 6] &= ~bit;
+      if (t.equals(TileType.BLACK)) {
+        black[this.id >>> 6] |= bit;
+      } else if (t.equals(TileType.WHITE)) {
+        white[this.id >>> 6] |= bit;
+      }
+      legalCached = false;
+      if (listener != null && current != t) {
+        listener.cellChanged(this.id, current, t);
+      }
+    }
+
+    @Override
+    public TileType getTileType() {
+      return typeOf(this.id);
+    }
+
+    @Override
+    public Position3D getPos() {
+      return geometry.getPosition(this.id);
+    }
+
+    @Override
+    public String toString() {
+      return typeOf(this.id).getSymbol();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Tile)) {
+        return false;
+      }
+      Tile t = (Tile) other;
+      return t.getPos().equals(this.getPos()) && t.getTileType().equals(this.getTileType());
+    }
+
+    @Override
+    public int hashCode() {
+      return new GameTile(this).hashCode();
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package model;
+
+import model.tile.TileType;
+
+/**
+ * Gets told about every cell of a BitboardReversiModelImpl that changes, so that it can keep
+ * something worked out from the board (such as the indexes of an evaluator's patterns) up to date
+ * without looking at the whole board again.
+ * It hears about placements, flips and the undoing of both, and about tiles set directly.
+ */
+public interface BoardListener {
+
+  /**
+   * Called after a cell changes.
+   * @param cell cell id
+   * @param before what was on the cell
+   * @param after what is on the cell now
+   */
+  void cellChanged(int cell, TileType before, TileType after);
+}
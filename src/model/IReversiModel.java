@@ -13,6 +13,8 @@ import model.tile.Tile;
 public interface IReversiModel extends ReadonlyIReversiModel {
   /**
    * Get tile at a given position (intentionally mutable so that we can flip them when necessary).
+   * The tile writes through to the board: setting its type changes the board, and the scores,
+   * position hash and legal moves follow. A tile with a piece can't be made empty again.
    * @param pos coordinates as a position type
    * @return the tile type at the given
    * @throws IllegalArgumentException if provided position is out of the bounds of the board
@@ -39,6 +41,31 @@ public interface IReversiModel extends ReadonlyIReversiModel {
    */
   void placeTile(Position3D pos) throws IllegalStateException, IllegalArgumentException;
 
+  /**
+   * Makes a move for whoever turn it is and records it so that undoMove can take it back.
+   * This follows the same rules as placeTile, but observers are not alerted, so search code can
+   * try moves on a model in place. Calling placeTile or pass forgets all recorded moves.
+   * @param pos coordinates as position type
+   * @throws IllegalStateException if the move is Illegal
+   * @throws IllegalArgumentException if the position is out of bounds
+   * @throws IllegalStateException if the game is over
+   */
+  void makeMove(Position3D pos) throws IllegalStateException, IllegalArgumentException;
+
+  /**
+   * Passes for whoever turn it is and records it so that undoMove can take it back.
+   * Observers are not alerted.
+   * @throws IllegalStateException if the game is over
+   */
+  void makePass() throws IllegalStateException;
+
+  /**
+   * Takes back the latest makeMove or makePass, restoring the board, turn, pass counter and scores
+   * exactly as they were before it.
+   * @throws IllegalStateException if there is no recorded move to take back
+   */
+  void undoMove() throws IllegalStateException;
+
   /**
    * Adds the observer for the controller for the White player.
    * @param controller The controller observing this model.
@@ -0,0 +1,112 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The undo records behind makeMove, makePass and undoMove.
+ * Each entry remembers the cell that was placed on (or -1 for a pass), the pass counter before the
+ * move, and which cells were flipped. Everything is kept in primitive arrays that only grow, so
+ * making and undoing moves allocates nothing once the arrays are big enough.
+ */
+final class MoveHistory {
+  private int[] cells;
+  private int[] passCounters;
+  private int[] flipStarts;
+  private int[] flipped;
+  private int size;
+  private int flipTop;
+
+  /**
+   * Constructs an empty history.
+   */
+  MoveHistory() {
+    this.cells = new int[16];
+    this.passCounters = new int[16];
+    this.flipStarts = new int[16];
+    this.flipped = new int[64];
+    this.size = 0;
+    this.flipTop = 0;
+  }
+
+  /**
+   * Records a move.
+   * @param cell cell id that was placed on, or -1 for a pass
+   * @param passCounter pass counter before the move
+   * @param flips buffer holding the flipped cell ids
+   * @param flipCount how many entries of the buffer were flipped
+   */
+  void push(int cell, int passCounter, int[] flips, int flipCount) {
+    if (this.size == this.cells.length) {
+      this.cells = Arrays.copyOf(this.cells, this.size * 2);
+      this.passCounters = Arrays.copyOf(this.passCounters, this.size * 2);
+      this.flipStarts = Arrays.copyOf(this.flipStarts, this.size * 2);
+    }
+    if (this.flipTop + flipCount > this.flipped.length) {
+      this.flipped = Arrays.copyOf(this.flipped, Math.max(this.flipped.length * 2,
+              this.flipTop + flipCount));
+    }
+    this.cells[this.size] = cell;
+    this.passCounters[this.size] = passCounter;
+    this.flipStarts[this.size] = this.flipTop;
+    System.arraycopy(flips, 0, this.flipped, this.flipTop, flipCount);
+    this.flipTop += flipCount;
+    this.size++;
+  }
+
+  /**
+   * Is there nothing to undo.
+   * @return true if empty
+   */
+  boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Gets the cell the latest move placed on.
+   * @return cell id, or -1 if it was a pass
+   */
+  int lastCell() {
+    return this.cells[this.size - 1];
+  }
+
+  /**
+   * Gets the pass counter from before the latest move.
+   * @return passes in a row
+   */
+  int lastPassCounter() {
+    return this.passCounters[this.size - 1];
+  }
+
+  /**
+   * Gets how many cells the latest move flipped.
+   * @return flip count
+   */
+  int lastFlipCount() {
+    return this.flipTop - this.flipStarts[this.size - 1];
+  }
+
+  /**
+   * Gets one of the cells the latest move flipped.
+   * @param i which flipped cell, from 0 to lastFlipCount() - 1
+   * @return cell id
+   */
+  int lastFlip(int i) {
+    return this.flipped[this.flipStarts[this.size - 1] + i];
+  }
+
+  /**
+   * Forgets the latest move, once it has been reverted.
+   */
+  void pop() {
+    this.size--;
+    this.flipTop = this.flipStarts[this.size];
+  }
+
+  /**
+   * Forgets every move.
+   */
+  void clear() {
+    this.size = 0;
+    this.flipTop = 0;
+  }
+}
@@ -1,5 +1,6 @@
 package model;
 
+import model.geometry.BoardGeometry;
 import model.position.Position3D;
 import model.tile.Tile;
 import model.tile.TileType;
@@ -20,6 +21,28 @@ public interface ReadonlyIReversiModel {
    */
   Tile getCopyOfTileAt(Position3D pos) throws IllegalArgumentException;
 
+  /**
+   * Gets what is on the cell with the given id, using the cell ids of this model's geometry.
+   * @param cell cell id
+   * @return tile type on that cell
+   * @throws IndexOutOfBoundsException if the cell id is not on the board
+   */
+  TileType getTileTypeAt(int cell);
+
+  /**
+   * Get the shape of the board, which maps positions to cell ids.
+   * @return the board geometry
+   */
+  BoardGeometry getGeometry();
+
+  /**
+   * Gets the Zobrist hash of the position: the pieces on every cell and the side to move.
+   * Equal positions on boards of the same shape have equal hashes. The pass counter is not part
+   * of it.
+   * @return 64-bit position hash
+   */
+  long getPositionHash();
+
   /**
    * Get the amount of hexagons starting from the center making a straight line to the edge.
    * @return radius
@@ -81,4 +104,21 @@ public interface ReadonlyIReversiModel {
    * @return true if current player has legal move
    */
   boolean hasLegalMove();
+
+  /**
+   * Finds every legal move for whoever turn it is in one pass over the board, and writes their
+   * cell ids into the given array in increasing order. The array can be reused between calls.
+   * @param moves array to fill, at least getGeometry().getCellCount() long
+   * @return how many moves were written (0 if the game is over)
+   * @throws IllegalArgumentException if the array is too short to hold every cell
+   */
+  int legalMoves(int[] moves) throws IllegalArgumentException;
+
+  /**
+   * Gets how many tiles a move at the given position would flip for whoever turn it is.
+   * @param pos position of potential move
+   * @return amount of flipped tiles, or 0 if the move is not legal
+   * @throws IllegalArgumentException if provided position is out of the bounds of the board
+   */
+  int getFlipCount(Position3D pos) throws IllegalArgumentException;
 }
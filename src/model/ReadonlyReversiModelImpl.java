@@ -1,5 +1,6 @@
 package model;
 
+import model.geometry.BoardGeometry;
 import model.position.Position3D;
 import model.tile.Tile;
 import model.tile.TileType;
@@ -40,6 +41,27 @@ public class ReadonlyReversiModelImpl implements ReadonlyIReversiModel {
     return this.model.getCopyOfTileAt(pos);
   }
 
+  /**
+   * Gets what is on the cell with the given id, using the cell ids of this model's geometry.
+   *
+   * @param cell cell id
+   * @return tile type on that cell
+   */
+  @Override
+  public TileType getTileTypeAt(int cell) {
+    return this.model.getTileTypeAt(cell);
+  }
+
+  /**
+   * Get the shape of the board, which maps positions to cell ids.
+   *
+   * @return the board geometry
+   */
+  @Override
+  public BoardGeometry getGeometry() {
+    return this.model.getGeometry();
+  }
+
   /**
    * Get the amount of hexagons starting from the center making a straight line to the edge.
    *
@@ -138,4 +160,33 @@ public class ReadonlyReversiModelImpl implements ReadonlyIReversiModel {
   public boolean hasLegalMove() {
     return this.model.hasLegalMove();
   }
+
+  /**
+   * Gets the Zobrist hash of the position.
+   * @return 64-bit position hash
+   */
+  @Override
+  public long getPositionHash() {
+    return this.model.getPositionHash();
+  }
+
+  /**
+   * Finds every legal move for whoever turn it is.
+   * @param moves array to fill with cell ids
+   * @return how many moves were written
+   */
+  @Override
+  public int legalMoves(int[] moves) {
+    return this.model.legalMoves(moves);
+  }
+
+  /**
+   * Gets how many tiles a move at the given position would flip for whoever turn it is.
+   * @param pos position of potential move
+   * @return amount of flipped tiles, or 0 if the move is not legal
+   */
+  @Override
+  public int getFlipCount(Position3D pos) {
+    return this.model.getFlipCount(pos);
+  }
 }
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import controller.ReversiController;
+import model.geometry.BoardGeometry;
 import model.position.Position3D;
 import model.tile.GameTile;
 import model.tile.Tile;
@@ -12,19 +13,35 @@ import model.tile.TileType;
 /**
  * Manages the board and the rules.
  * The board is a list of tiles (all tiles contain their own position).
- * The scores are kept and updated every time a move is made.
+ * The list is in cell id order of the board geometry, so tiles are looked up by index.
+ * The scores are kept and updated by the amount of flipped tiles every time a move is made, and
+ * so is the Zobrist hash of the position, by XORing in the keys of the placed and flipped tiles.
+ * A tile from getTileAt updates both when it is set.
+ * The legal moves of the current position and their flip counts are worked out once, the first
+ * time they are asked for, and kept until a move or pass changes the position.
  * There is a counter to detect 2 passes in a row.
  */
 public class ReversiModelImpl implements IReversiModel {
   protected final List<Tile> board;
+  protected BoardGeometry geometry;
+  protected int[] flips;
   protected TileType turn;
   protected int radius;
   protected int blackScore;
   protected int whiteScore;
   protected int passCounter;
+  protected long hash;
   protected ReversiController blackObserver;
   protected ReversiController whiteObserver;
-  
+  private final MoveHistory history;
+  private Tile[] emptyTiles;
+  private Tile[] placedTiles;
+  // Legal moves of the current position, valid while legalCached is true
+  private int[] legalCells;
+  private int[] flipCounts;
+  private int legalCount;
+  private boolean legalCached;
+
   /**
    * Constructor for the class.
    * @param radius amount of hexagons from the center (included) to the edge in a straight line
@@ -38,28 +55,32 @@ public class ReversiModelImpl implements IReversiModel {
     this.whiteScore = 3;
     this.passCounter = 0;
     this.radius = radius;
+    this.geometry = BoardGeometry.hex(radius);
+    this.flips = new int[this.geometry.getCellCount()];
+    this.history = new MoveHistory();
     this.board = new ArrayList<>();
     this.turn = TileType.BLACK;
-    for (int q = -1 * radius + 1; q < radius; q++) {
-      for (int r = -1 * radius + 1; r < radius; r++) {
-        for (int s = -1 * radius + 1; s < radius; s++) {
-          if (q + r + s == 0) {
-            if (Math.abs(q) + Math.abs(r) + Math.abs(s) == 2) {
-              if ((q == 0 && r == -1 && s == 1)
-                      || (q == 1 && r == 0 && s == -1)
-                      || (q == -1 && r == 1 && s == 0)) {
-                this.board.add(new GameTile(new Position3D(q, r, s), TileType.BLACK));
-              } else {
-                this.board.add(new GameTile(new Position3D(q, r, s), TileType.WHITE));
-              }
-            } else {
-              this.board.add(new GameTile(new Position3D(q, r, s), TileType.EMPTY));
-            }
-          }
+    for (int cell = 0; cell < this.geometry.getCellCount(); cell++) {
+      Position3D pos = this.geometry.getPosition(cell);
+      int q = pos.getQ();
+      int r = pos.getR();
+      int s = pos.getS();
+      if (Math.abs(q) + Math.abs(r) + Math.abs(s) == 2) {
+        if ((q == 0 && r == -1 && s == 1)
+                || (q == 1 && r == 0 && s == -1)
+                || (q == -1 && r == 1 && s == 0)) {
+          this.board.add(new GameTile(pos, TileType.BLACK));
+        } else {
+          this.board.add(new GameTile(pos, TileType.WHITE));
         }
+      } else {
+        this.board.add(new GameTile(pos, TileType.EMPTY));
       }
     }
+    this.hash = this.computeHash();
     // INVARIANT: The q, r, and s values of every position on the board add to 0
+    // INVARIANT: board.get(i) is the tile at geometry.getPosition(i)
+    // INVARIANT: hash == computeHash()
   }
 
 
@@ -70,27 +91,32 @@ public class ReversiModelImpl implements IReversiModel {
    */
   public ReversiModelImpl(ReadonlyIReversiModel rm) {
     this.board = rm.getCopyOfBoard();
+    this.geometry = rm.getGeometry();
+    this.flips = new int[this.geometry.getCellCount()];
+    this.history = new MoveHistory();
     this.turn = rm.getTurn();
     this.radius = rm.getRadius();
     this.blackScore = rm.getBlackScore();
     this.whiteScore = rm.getWhiteScore();
     this.passCounter = rm.getPassesInARow();
+    this.hash = this.computeHash();
   }
 
   /**
    * Gets the Tile on the board at the given position.
+   * The tile writes through to the board, so setting its type changes the board and keeps the
+   * scores, hash and cached legal moves in step with it.
    * @param pos coordinates as a position type
    * @return The Tile at the given position.
    * @throws IllegalArgumentException If the position is not on the board.
    */
   @Override
   public Tile getTileAt(Position3D pos) throws IllegalArgumentException {
-    for (Tile tile : this.board) {
-      if (tile.getPos().equals(pos)) {
-        return tile;
-      }
+    int cell = this.geometry.indexOf(pos);
+    if (cell < 0) {
+      throw new IllegalArgumentException("This position is not on the board");
     }
-    throw new IllegalArgumentException("This position is not on the board");
+    return new CellTile(cell);
   }
 
   /**
@@ -111,12 +137,30 @@ public class ReversiModelImpl implements IReversiModel {
    */
   @Override
   public Tile getCopyOfTileAt(Position3D pos) throws IllegalArgumentException {
-    for (Tile tile : this.board) {
-      if (tile.getPos().equals(pos)) {
-        return new GameTile(tile);
-      }
+    int cell = this.geometry.indexOf(pos);
+    if (cell < 0) {
+      throw new IllegalArgumentException("This position is not on the board");
     }
-    throw new IllegalArgumentException("This position is not on the board");
+    return new GameTile(this.board.get(cell));
+  }
+
+  /**
+   * Gets what is on the cell with the given id.
+   * @param cell cell id
+   * @return tile type on that cell
+   */
+  @Override
+  public TileType getTileTypeAt(int cell) {
+    return this.board.get(cell).getTileType();
+  }
+
+  /**
+   * Gets the shape of the board.
+   * @return this model's geometry
+   */
+  @Override
+  public BoardGeometry getGeometry() {
+    return this.geometry;
   }
 
   /**
@@ -147,6 +191,9 @@ public class ReversiModelImpl implements IReversiModel {
       throw new IllegalStateException("The game is over");
     }
     this.passCounter += 1;
+    this.history.clear();
+    this.legalCached = false;
+    this.hash ^= this.geometry.getWhiteToMoveKey();
     if (this.turn == TileType.BLACK) {
       this.turn = TileType.WHITE;
       if (whiteObserver != null && !this.isGameOver()) {
@@ -171,7 +218,7 @@ public class ReversiModelImpl implements IReversiModel {
     if (this.isGameOver()) {
       throw new IllegalStateException("The game is over");
     }
-    if (pos.getFarthestDirection() >= radius) {
+    if (!this.geometry.contains(pos)) {
       throw new IllegalArgumentException("Position out of bounds for game board");
     }
     if (!this.getTileAt(pos).getTileType().equals(TileType.EMPTY)) {
@@ -180,61 +227,58 @@ public class ReversiModelImpl implements IReversiModel {
   }
 
   /**
-   * Helps getAvailableBridges by filling bridges of tiles to be flipped with the given destination.
-   * @param pos The position to place a tile on
-   * @param bridges The list of bridges to fill with Tiles to flip
-   * @param qInc How much (if at all) the q value increases in the direction of the bridge
-   * @param rInc How much (if at all) the r value increases in the direction of the bridge
-   * @param sInc How much (if at all) the s value increases in the direction of the bridge
+   * Determines if the given cell holds a piece of the player who is not moving.
+   * @param cell The cell id to check
+   * @return true if the cell holds an opponent's piece
    */
-  private void getAvailableBridgesHelper(Position3D pos, List<List<Tile>> bridges,
-                                         int qInc, int rInc, int sInc) {
-    Position3D p = new Position3D(pos);
-    List<Tile> bridge = new ArrayList<>();
-    while (true) {
-      p = new Position3D(p.getQ() + qInc, p.getR() + rInc, p.getS() + sInc);
-      if (p.getFarthestDirection() >= radius
-              || this.getTileAt(p).getTileType().equals(TileType.EMPTY)) {
-        break;
-      }
-      if (getTileAt(p).getTileType().equals(this.turn)) {
-        bridges.add(bridge);
-        break;
-      } else {
-        bridge.add(this.getTileAt(p));
-      }
-    }
+  private boolean isOpponentAt(int cell) {
+    TileType type = this.board.get(cell).getTileType();
+    return type != TileType.EMPTY && type != this.turn;
   }
 
   /**
-   * Gets the available bridges that will be flipped if a tile is placed in the given position.
-   * @param pos The destination position
-   * @return The list of bridges containing tiles to be flipped.
+   * Works out the legal moves of the current position and how many tiles each of them flips,
+   * unless that is already known.
    */
-  private List<List<Tile>> getAvailableBridges(Position3D pos) {
-    List<List<Tile>> bridges = new ArrayList<>();
-    placeTileBasicExceptions(pos);
-
-    getAvailableBridgesHelper(pos, bridges, 1, -1, 0);
-    getAvailableBridgesHelper(pos, bridges, 1, 0, -1);
-    getAvailableBridgesHelper(pos, bridges, 0, 1, -1);
-    getAvailableBridgesHelper(pos, bridges, -1, 1, 0);
-    getAvailableBridgesHelper(pos, bridges, -1, 0, 1);
-    getAvailableBridgesHelper(pos, bridges, 0, -1, 1);
-
-    return bridges;
+  private void cacheLegalMoves() {
+    if (this.legalCached) {
+      return;
+    }
+    if (this.flipCounts == null || this.flipCounts.length != this.geometry.getCellCount()) {
+      this.legalCells = new int[this.geometry.getCellCount()];
+      this.flipCounts = new int[this.geometry.getCellCount()];
+    }
+    this.legalCount = 0;
+    for (int cell = 0; cell < this.geometry.getCellCount(); cell++) {
+      this.flipCounts[cell] = 0;
+      if (!this.isGameOver() && this.board.get(cell).getTileType() == TileType.EMPTY) {
+        this.flipCounts[cell] = this.computeFlips(cell);
+        if (this.flipCounts[cell] > 0) {
+          this.legalCells[this.legalCount++] = cell;
+        }
+      }
+    }
+    this.legalCached = true;
   }
 
   /**
-   * Flips the tiles of a bridge for tile capture.
-   * @param bridge The bridge of Tiles to flip.
+   * Fills the flip buffer with the cells captured by placing on the given cell.
+   * @param cell The cell id of the destination
+   * @return How many cells are captured, which are the first entries of the flip buffer
    */
-  protected void flipBridge(List<Tile> bridge) {
-    for (Tile t : bridge) {
-      if (!t.getTileType().equals(this.turn)) {
-        t.setTileType(this.turn);
+  protected int computeFlips(int cell) {
+    int count = 0;
+    for (int[] ray : this.geometry.getRays(cell)) {
+      int run = 0;
+      while (run < ray.length && this.isOpponentAt(ray[run])) {
+        run++;
+      }
+      if (run > 0 && run < ray.length && this.board.get(ray[run]).getTileType() == this.turn) {
+        System.arraycopy(ray, 0, this.flips, count, run);
+        count += run;
       }
     }
+    return count;
   }
 
   /**
@@ -255,6 +299,94 @@ public class ReversiModelImpl implements IReversiModel {
     this.whiteScore = w;
   }
 
+  /**
+   * Updates the scores for a move by the player whose turn it is, without recounting the board.
+   * The mover gains the placed tile and every flipped tile, and the opponent loses the flipped
+   * ones.
+   * With assertions enabled (-ea), the result is checked against a full recount.
+   * @param flipCount How many tiles the move flipped
+   */
+  protected void addToScores(int flipCount) {
+    if (this.turn == TileType.BLACK) {
+      this.blackScore += flipCount + 1;
+      this.whiteScore -= flipCount;
+    } else {
+      this.whiteScore += flipCount + 1;
+      this.blackScore -= flipCount;
+    }
+    assert this.scoresMatchBoard() : "Score out of sync with the board";
+  }
+
+  /**
+   * Works out the Zobrist hash of the position from scratch.
+   * @return XOR of the keys of every piece on the board, and of the side to move key if it is
+   *         white's turn
+   */
+  protected long computeHash() {
+    long h = this.turn == TileType.WHITE ? this.geometry.getWhiteToMoveKey() : 0L;
+    for (int cell = 0; cell < this.board.size(); cell++) {
+      TileType type = this.board.get(cell).getTileType();
+      if (type == TileType.BLACK) {
+        h ^= this.geometry.getBlackKey(cell);
+      } else if (type == TileType.WHITE) {
+        h ^= this.geometry.getWhiteKey(cell);
+      }
+    }
+    return h;
+  }
+
+  /**
+   * Gets the change to the hash of a move by the given player: their piece on the placed cell,
+   * the flipped cells changing color, and the side to move changing.
+   * Applying the same change again takes the move back out of the hash.
+   * @param mover player who made the move
+   * @param cell The cell id placed on
+   * @param flipped cell ids that were flipped, in the first flipCount entries
+   * @param flipCount how many cells were flipped
+   * @return the keys to XOR into the hash
+   */
+  private long moveKey(TileType mover, int cell, int[] flipped, int flipCount) {
+    long key = this.geometry.getWhiteToMoveKey();
+    key ^= mover == TileType.BLACK ? this.geometry.getBlackKey(cell)
+            : this.geometry.getWhiteKey(cell);
+    for (int i = 0; i < flipCount; i++) {
+      key ^= this.geometry.getBlackKey(flipped[i]) ^ this.geometry.getWhiteKey(flipped[i]);
+    }
+    return key;
+  }
+
+  /**
+   * Gets the hash key of a piece on a cell.
+   * @param cell The cell id
+   * @param type what is on the cell
+   * @return the key of that piece, or 0 if the cell is empty
+   */
+  private long keyOf(int cell, TileType type) {
+    if (type == TileType.BLACK) {
+      return this.geometry.getBlackKey(cell);
+    }
+    return type == TileType.WHITE ? this.geometry.getWhiteKey(cell) : 0L;
+  }
+
+  /**
+   * Determines if the kept scores agree with the amount of black and white tiles on the board.
+   * Only used to check the score invariant when assertions are enabled.
+   * @return true if both scores match a full recount
+   */
+  private boolean scoresMatchBoard() {
+    int b = 0;
+    int w = 0;
+    for (Tile t : this.board) {
+      if (t.getTileType().equals(TileType.BLACK)) {
+        b += 1;
+      }
+      if (t.getTileType().equals(TileType.WHITE)) {
+        w += 1;
+      }
+    }
+    return b == this.blackScore && w == this.whiteScore;
+  }
+
   /**
    * Places a tile at the position given, based on whose turn it is.
    * @param pos coordinates as position type
@@ -266,21 +398,19 @@ public class ReversiModelImpl implements IReversiModel {
   public void placeTile(Position3D pos) throws IllegalStateException, IllegalArgumentException {
     placeTileBasicExceptions(pos);
     this.passCounter = 0;
-    boolean noBridges = true;
-    for (List<Tile> l : this.getAvailableBridges(pos)) {
-      if (!l.isEmpty()) {
-        noBridges = false;
-        break;
-      }
-    }
-    if (noBridges) {
+    this.legalCached = false;
+    int cell = this.geometry.indexOf(pos);
+    int flipCount = this.computeFlips(cell);
+    if (flipCount == 0) {
       throw new IllegalStateException("No available bridges");
     }
-    for (List<Tile> l : this.getAvailableBridges(pos)) {
-      this.flipBridge(l);
+    for (int i = 0; i < flipCount; i++) {
+      this.board.get(this.flips[i]).setTileType(this.turn);
     }
-    this.getTileAt(pos).setTileType(this.turn);
-    this.updateScore();
+    this.board.get(cell).setTileType(this.turn);
+    this.addToScores(flipCount);
+    this.hash ^= this.moveKey(this.turn, cell, this.flips, flipCount);
+    this.history.clear();
     if (this.turn == TileType.BLACK) {
       this.turn = TileType.WHITE;
       if (whiteObserver != null && !this.isGameOver()) {
@@ -294,6 +424,112 @@ public class ReversiModelImpl implements IReversiModel {
     }
   }
 
+  /**
+   * Makes a move for whoever turn it is and records it so that undoMove can take it back.
+   * Observers are not alerted.
+   * @param pos coordinates as position type
+   * @throws IllegalStateException If the move does not capture any pieces,
+   *                                or if the move is illegal.
+   * @throws IllegalArgumentException If the position argument is not on the board.
+   */
+  @Override
+  public void makeMove(Position3D pos) throws IllegalStateException, IllegalArgumentException {
+    placeTileBasicExceptions(pos);
+    int cell = this.geometry.indexOf(pos);
+    int flipCount = this.computeFlips(cell);
+    if (flipCount == 0) {
+      throw new IllegalStateException("No available bridges");
+    }
+    this.history.push(cell, this.passCounter, this.flips, flipCount);
+    for (int i = 0; i < flipCount; i++) {
+      this.board.get(this.flips[i]).setTileType(this.turn);
+    }
+    this.occupyCell(cell);
+    this.addToScores(flipCount);
+    this.hash ^= this.moveKey(this.turn, cell, this.flips, flipCount);
+    this.passCounter = 0;
+    this.legalCached = false;
+    this.turn = this.turn == TileType.BLACK ? TileType.WHITE : TileType.BLACK;
+    assert this.hash == this.computeHash() : "Hash out of sync with the board";
+  }
+
+  /**
+   * Puts a tile of the current player on an empty cell in a way that undoMove can reverse.
+   * A tile can't be made empty again, so the empty tile is set aside and a per-cell placed tile
+   * takes its spot; undoing swaps the empty tile back in. The placed tiles are reused, so this
+   * only allocates the first time a cell is played on.
+   * @param cell The cell id to place on
+   */
+  private void occupyCell(int cell) {
+    if (this.placedTiles == null) {
+      this.emptyTiles = new Tile[this.geometry.getCellCount()];
+      this.placedTiles = new Tile[this.geometry.getCellCount()];
+    }
+    Tile placed = this.placedTiles[cell];
+    if (placed == null) {
+      placed = new GameTile(this.geometry.getPosition(cell), this.turn);
+      this.placedTiles[cell] = placed;
+    } else {
+      placed.setTileType(this.turn);
+    }
+    this.emptyTiles[cell] = this.board.get(cell);
+    this.board.set(cell, placed);
+  }
+
+  /**
+   * Passes for whoever turn it is and records it so that undoMove can take it back.
+   * Observers are not alerted.
+   * @throws IllegalStateException If the game is already over.
+   */
+  @Override
+  public void makePass() throws IllegalStateException {
+    if (this.isGameOver()) {
+      throw new IllegalStateException("The game is over");
+    }
+    this.history.push(-1, this.passCounter, this.flips, 0);
+    this.passCounter += 1;
+    this.hash ^= this.geometry.getWhiteToMoveKey();
+    this.legalCached = false;
+    this.turn = this.turn == TileType.BLACK ? TileType.WHITE : TileType.BLACK;
+  }
+
+  /**
+   * Takes back the latest makeMove or makePass.
+   * @throws IllegalStateException If there is no recorded move to take back.
+   */
+  @Override
+  public void undoMove() throws IllegalStateException {
+    if (this.history.isEmpty()) {
+      throw new IllegalStateException("There is no move to undo");
+    }
+    TileType mover = this.turn == TileType.BLACK ? TileType.WHITE : TileType.BLACK;
+    int cell = this.history.lastCell();
+    this.hash ^= this.geometry.getWhiteToMoveKey();
+    if (cell >= 0) {
+      int flipCount = this.history.lastFlipCount();
+      for (int i = 0; i < flipCount; i++) {
+        int flipped = this.history.lastFlip(i);
+        this.board.get(flipped).setTileType(this.turn);
+        this.hash ^= this.geometry.getBlackKey(flipped) ^ this.geometry.getWhiteKey(flipped);
+      }
+      this.board.set(cell, this.emptyTiles[cell]);
+      this.hash ^= mover == TileType.BLACK ? this.geometry.getBlackKey(cell)
+              : this.geometry.getWhiteKey(cell);
+      if (mover == TileType.BLACK) {
+        this.blackScore -= flipCount + 1;
+        this.whiteScore += flipCount;
+      } else {
+        this.whiteScore -= flipCount + 1;
+        this.blackScore += flipCount;
+      }
+    }
+    this.passCounter = this.history.lastPassCounter();
+    this.turn = mover;
+    this.history.pop();
+    this.legalCached = false;
+    assert this.hash == this.computeHash() : "Hash out of sync with the board";
+  }
+
   /**
    * Adds the observer for the controller for the White player.
    *
@@ -341,6 +577,15 @@ public class ReversiModelImpl implements IReversiModel {
     return this.board.size();
   }
 
+  /**
+   * Gets the Zobrist hash of the position.
+   * @return 64-bit position hash
+   */
+  @Override
+  public long getPositionHash() {
+    return this.hash;
+  }
+
   /**
    * Gets the score of the black player.
    * @return this model's blackScore
@@ -403,23 +648,8 @@ public class ReversiModelImpl implements IReversiModel {
     if (!this.getTileAt(pos).getTileType().equals(TileType.EMPTY)) {
       return false;
     }
-    boolean noBridges = true;
-    for (List<Tile> l : this.getAvailableBridges(pos)) {
-      if (!l.isEmpty()) {
-        noBridges = false;
-        break;
-      }
-    }
-    if (noBridges) {
-      return false;
-    }
-    boolean legality = false;
-    for (Tile t : this.board) {
-      if (t.getPos().equals(pos)) {
-        legality = true;
-      }
-    }
-    return legality;
+    this.cacheLegalMoves();
+    return this.flipCounts[this.geometry.indexOf(pos)] > 0;
   }
 
   /**
@@ -429,11 +659,91 @@ public class ReversiModelImpl implements IReversiModel {
    */
   @Override
   public boolean hasLegalMove() {
-    for (Tile t : this.board) {
-      if (this.isMoveLegal(t.getPos())) {
-        return true;
+    this.cacheLegalMoves();
+    return this.legalCount > 0;
+  }
+
+  /**
+   * Finds every legal move for whoever turn it is.
+   * @param moves array to fill with cell ids, at least as long as the board
+   * @return how many moves were written
+   * @throws IllegalArgumentException if the array is too short to hold every cell
+   */
+  @Override
+  public int legalMoves(int[] moves) throws IllegalArgumentException {
+    if (moves.length < this.geometry.getCellCount()) {
+      throw new IllegalArgumentException("Move array is shorter than the board");
+    }
+    this.cacheLegalMoves();
+    System.arraycopy(this.legalCells, 0, moves, 0, this.legalCount);
+    return this.legalCount;
+  }
+
+  /**
+   * Gets how many tiles a move at the given position would flip for whoever turn it is.
+   * @param pos position of potential move
+   * @return amount of flipped tiles, or 0 if the move is not legal
+   * @throws IllegalArgumentException If the position is not on the board.
+   */
+  @Override
+  public int getFlipCount(Position3D pos) throws IllegalArgumentException {
+    int cell = this.geometry.indexOf(pos);
+    if (cell < 0) {
+      throw new IllegalArgumentException("This position is not on the board");
+    }
+    this.cacheLegalMoves();
+    return this.flipCounts[cell];
+  }
+
+  /**
+   * A tile handed out by getTileAt that reads and writes the board tile of its cell, updating the
+   * scores and hash and dropping the cached legal moves when its type is set.
+   */
+  private final class CellTile implements Tile {
+    private final int id;
+
+    private CellTile(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public void setTileType(TileType t) {
+      Tile tile = board.get(this.id);
+      TileType current = tile.getTileType();
+      tile.setTileType(t);
+      hash ^= keyOf(this.id, current) ^ keyOf(this.id, t);
+      blackScore += (t == TileType.BLACK ? 1 : 0) - (current == TileType.BLACK ? 1 : 0);
+      whiteScore += (t == TileType.WHITE ? 1 : 0) - (current == TileType.WHITE ? 1 : 0);
+      legalCached = false;
+    }
+
+    @Override
+    public TileType getTileType() {
+      return board.get(this.id).getTileType();
+    }
+
+    @Override
+    public Position3D getPos() {
+      return board.get(this.id).getPos();
+    }
+
+    @Override
+    public String toString() {
+      return board.get(this.id).toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Tile)) {
+        return false;
       }
+      Tile t = (Tile) other;
+      return t.getPos().equals(this.getPos()) && t.getTileType().equals(this.getTileType());
+    }
+
+    @Override
+    public int hashCode() {
+      return board.get(this.id).hashCode();
     }
-    return false;
   }
 }
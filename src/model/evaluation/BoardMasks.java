@@ -0,0 +1,93 @@
+package model.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.geometry.BoardGeometry;
+
+/**
+ * Bit masks and cell lists of one board shape that evaluation functions need: which bits are
+ * cells at all, which cells are corners, the neighbours of every cell as a mask, and the edges
+ * leading away from every corner.
+ * A corner is a cell with only three neighbours, and an edge cell is one with fewer neighbours
+ * than there are directions. There is one instance per geometry, built the first time it is
+ * asked for.
+ */
+final class BoardMasks {
+  private static final Map<BoardGeometry, BoardMasks> CACHE = new ConcurrentHashMap<>();
+
+  final int words;
+  final long[] cells;
+  final long[] corners;
+  final long[][] neighbours;
+  final int[] cornerCells;
+  // Cell ids along each edge leading away from each corner, in order, ending at the next corner
+  final int[][][] cornerEdges;
+
+  /**
+   * Builds the masks of a board shape.
+   * @param geometry shape of the board
+   */
+  private BoardMasks(BoardGeometry geometry) {
+    int count = geometry.getCellCount();
+    this.words = (count + 63) >>> 6;
+    this.cells = new long[this.words];
+    this.corners = new long[this.words];
+    this.neighbours = new long[count][this.words];
+    int[] neighbourCounts = new int[count];
+    for (int cell = 0; cell < count; cell++) {
+      set(this.cells, cell);
+      for (int d = 0; d < geometry.getDirectionCount(); d++) {
+        int[] ray = geometry.getRay(cell, d);
+        if (ray.length > 0) {
+          set(this.neighbours[cell], ray[0]);
+          neighbourCounts[cell]++;
+        }
+      }
+    }
+    List<Integer> cornerList = new ArrayList<>();
+    for (int cell = 0; cell < count; cell++) {
+      if (neighbourCounts[cell] == 3) {
+        set(this.corners, cell);
+        cornerList.add(cell);
+      }
+    }
+    this.cornerCells = new int[cornerList.size()];
+    this.cornerEdges = new int[cornerList.size()][][];
+    for (int i = 0; i < this.cornerCells.length; i++) {
+      int corner = cornerList.get(i);
+      this.cornerCells[i] = corner;
+      List<int[]> edges = new ArrayList<>();
+      for (int[] ray : geometry.getRays(corner)) {
+        boolean alongEdge = ray.length > 0;
+        for (int cell : ray) {
+          alongEdge &= neighbourCounts[cell] < geometry.getDirectionCount();
+        }
+        if (alongEdge) {
+          edges.add(ray);
+        }
+      }
+      this.cornerEdges[i] = edges.toArray(new int[0][]);
+    }
+  }
+
+  /**
+   * Gets the masks of a board shape.
+   * @param geometry shape of the board
+   * @return the shared masks for that shape
+   */
+  static BoardMasks of(BoardGeometry geometry) {
+    return CACHE.computeIfAbsent(geometry, BoardMasks::new);
+  }
+
+  /**
+   * Sets the bit of a cell in a mask.
+   * @param mask mask to change
+   * @param cell cell id
+   */
+  private static void set(long[] mask, int cell) {
+    mask[cell >>> 6] |= 1L << cell;
+  }
+}
@@ -0,0 +1,32 @@
+package model.evaluation;
+
+import model.BitboardReversiModelImpl;
+
+/**
+ * A static evaluation function: a guess at how good a position is for the side to move, used by
+ * the search players where they stop looking ahead.
+ * Evaluators work on the bitboard copies the searches run on, so they can read whole words of
+ * the board at once. A search may call the same evaluator from several threads at once, each on
+ * its own board, so anything an evaluator keeps track of must belong to one board (see attach).
+ */
+public interface Evaluator {
+
+  /**
+   * Gets ready to score positions of the given board. A search calls this once on the board it is
+   * going to make its moves on, before scoring any of them, so evaluators that keep track of the
+   * board as it changes can start listening to it. Evaluators that work from scratch each time
+   * can do nothing.
+   * @param board board the search will use
+   */
+  void attach(BitboardReversiModelImpl board);
+
+  /**
+   * Scores a position that is not over yet. The board may be changed with makeMove, makePass and
+   * undoMove while scoring, but must be left as it was found.
+   * Scores must stay well under a million either way, since the searches use that for games
+   * that are won or lost.
+   * @param board position to score
+   * @return score for the side to move, higher is better
+   */
+  int evaluate(BitboardReversiModelImpl board);
+}
@@ -0,0 +1,235 @@
+package model.evaluation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.BitboardReversiModelImpl;
+import model.BoardListener;
+import model.geometry.BoardGeometry;
+import model.tile.TileType;
+
+/**
+ * An evaluator that scores a board as the sum of table lookups, one per fixed pattern of cells:
+ * the edges, the corner regions, and the lines from each corner towards the middle (see
+ * PatternSet). Each kind of pattern has one table, indexed by the base-3 number the pattern's cells
+ * make, holding the value of that pattern for black.
+ * Once attached to a board, the evaluator keeps the index of every pattern up to date on each
+ * placement and flip, so a full evaluation is one array read per pattern. A board that isn't
+ * attached gets its indexes worked out from scratch.
+ * Tables are per board shape. Until they are set, each shape gets starting tables that value
+ * corners, stable discs along an edge, and other edge cells, and count cells next to an empty
+ * corner against their owner.
+ */
+public final class PatternEvaluator implements Evaluator {
+  private static final int CORNER_VALUE = 10;
+  private static final int NEXT_TO_EMPTY_CORNER_VALUE = -3;
+  private static final int EDGE_VALUE = 1;
+  private static final int STABLE_EDGE_VALUE = 2;
+
+  private final Map<BoardGeometry, int[][]> tables;
+
+  /**
+   * Constructs a pattern evaluator with the starting tables for every board shape.
+   */
+  public PatternEvaluator() {
+    this.tables = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Sets the tables for one board shape, in place of the starting ones.
+   * @param geometry shape of the board
+   * @param kindTables one table per kind of pattern (edge, corner, line), each with one value for
+   *                   black per base-3 pattern index
+   * @throws IllegalArgumentException if there aren't three tables of the right sizes
+   */
+  public void setTables(BoardGeometry geometry, int[][] kindTables)
+          throws IllegalArgumentException {
+    PatternSet set = PatternSet.of(geometry);
+    if (kindTables.length != PatternSet.KINDS) {
+      throw new IllegalArgumentException("Need one table per kind of pattern");
+    }
+    int[][] copy = new int[PatternSet.KINDS][];
+    for (int kind = 0; kind < PatternSet.KINDS; kind++) {
+      if (kindTables[kind].length != set.tableSize(kind)) {
+        throw new IllegalArgumentException("Table " + kind + " should have "
+                + set.tableSize(kind) + " entries");
+      }
+      copy[kind] = kindTables[kind].clone();
+    }
+    this.tables.put(geometry, copy);
+  }
+
+  /**
+   * Gets a copy of the tables used for one board shape.
+   * @param geometry shape of the board
+   * @return one table per kind of pattern (edge, corner, line)
+   */
+  public int[][] getTables(BoardGeometry geometry) {
+    int[][] current = this.tablesFor(geometry);
+    int[][] copy = new int[current.length][];
+    for (int kind = 0; kind < current.length; kind++) {
+      copy[kind] = current[kind].clone();
+    }
+    return copy;
+  }
+
+  @Override
+  public void attach(BitboardReversiModelImpl board) {
+    board.setBoardListener(new PatternIndexes(PatternSet.of(board.getGeometry()), board));
+  }
+
+  @Override
+  public int evaluate(BitboardReversiModelImpl board) {
+    PatternSet set = PatternSet.of(board.getGeometry());
+    int[][] kindTables = this.tablesFor(board.getGeometry());
+    int[] indexes = indexesOf(board, set);
+    int score = 0;
+    for (int p = 0; p < indexes.length; p++) {
+      score += kindTables[set.kinds[p]][indexes[p]];
+    }
+    return board.getTurn() == TileType.BLACK ? score : -score;
+  }
+
+  /**
+   * Works out which table entry each pattern of a position reads, for fitting tables to games.
+   * Entries are numbered through the three tables one after another (edge, corner, then line),
+   * and each holds a value for black.
+   * @param board position to look at
+   * @param entries filled with one entry per pattern, at least 18 long
+   * @return how many patterns the board's shape has
+   */
+  public static int features(BitboardReversiModelImpl board, int[] entries) {
+    PatternSet set = PatternSet.of(board.getGeometry());
+    int[] indexes = indexesOf(board, set);
+    int[] offsets = new int[PatternSet.KINDS];
+    for (int kind = 1; kind < PatternSet.KINDS; kind++) {
+      offsets[kind] = offsets[kind - 1] + set.tableSize(kind - 1);
+    }
+    for (int p = 0; p < indexes.length; p++) {
+      entries[p] = offsets[set.kinds[p]] + indexes[p];
+    }
+    return indexes.length;
+  }
+
+  /**
+   * Gets how many entries each table of a board shape has.
+   * @param geometry shape of the board
+   * @return one size per kind of pattern (edge, corner, line)
+   */
+  public static int[] tableSizes(BoardGeometry geometry) {
+    PatternSet set = PatternSet.of(geometry);
+    int[] sizes = new int[PatternSet.KINDS];
+    for (int kind = 0; kind < PatternSet.KINDS; kind++) {
+      sizes[kind] = set.tableSize(kind);
+    }
+    return sizes;
+  }
+
+  /**
+   * Gets the pattern indexes of a position, from the board's listener if this evaluator is
+   * attached to it, or else worked out from scratch.
+   * @param board position to look at
+   * @param set patterns of the board's shape
+   * @return one index per pattern, not to be changed
+   */
+  private static int[] indexesOf(BitboardReversiModelImpl board, PatternSet set) {
+    BoardListener listener = board.getBoardListener();
+    if (listener instanceof PatternIndexes && ((PatternIndexes) listener).set == set) {
+      return ((PatternIndexes) listener).indexes;
+    }
+    return new PatternIndexes(set, board).indexes;
+  }
+
+  /**
+   * Gets the tables of a board shape, making the starting ones the first time.
+   * @param geometry shape of the board
+   * @return one table per kind of pattern
+   */
+  private int[][] tablesFor(BoardGeometry geometry) {
+    return this.tables.computeIfAbsent(geometry, g -> startingTables(PatternSet.of(g)));
+  }
+
+  /**
+   * Builds the starting tables of a board shape from what each cell of a pattern is: a corner, a
+   * cell next to a corner of the same pattern, another edge cell, or an inside cell.
+   * @param set patterns of the board's shape
+   * @return one table per kind of pattern
+   */
+  private static int[][] startingTables(PatternSet set) {
+    BoardMasks masks = BoardMasks.of(set.geometry);
+    int[][] kindTables = new int[PatternSet.KINDS][];
+    for (int kind = 0; kind < PatternSet.KINDS; kind++) {
+      int[] cells = set.patterns[set.kindStarts[kind]];
+      int length = cells.length;
+      boolean[] corner = new boolean[length];
+      boolean[] edge = new boolean[length];
+      int[] nextToCorner = new int[length];
+      for (int i = 0; i < length; i++) {
+        corner[i] = has(masks.corners, cells[i]);
+        int neighbours = 0;
+        for (long word : masks.neighbours[cells[i]]) {
+          neighbours += Long.bitCount(word);
+        }
+        edge[i] = neighbours < set.geometry.getDirectionCount();
+      }
+      for (int i = 0; i < length; i++) {
+        nextToCorner[i] = -1;
+        for (int j = 0; j < length && !corner[i]; j++) {
+          if (corner[j] && has(masks.neighbours[cells[i]], cells[j])) {
+            nextToCorner[i] = j;
+          }
+        }
+      }
+      int[] table = new int[set.tableSize(kind)];
+      int[] digits = new int[length];
+      for (int index = 0; index < table.length; index++) {
+        int rest = index;
+        for (int i = 0; i < length; i++) {
+          digits[i] = rest % 3;
+          rest /= 3;
+        }
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+          int cellValue = 0;
+          if (corner[i]) {
+            cellValue = CORNER_VALUE;
+          } else if (nextToCorner[i] >= 0 && digits[nextToCorner[i]] == 0) {
+            cellValue = NEXT_TO_EMPTY_CORNER_VALUE;
+          } else if (edge[i]) {
+            cellValue = EDGE_VALUE;
+          }
+          value += sign(digits[i]) * cellValue;
+        }
+        if (kind == PatternSet.EDGE && corner[0] && digits[0] != 0) {
+          int run = 1;
+          while (run < length && digits[run] == digits[0]) {
+            run++;
+          }
+          value += sign(digits[0]) * STABLE_EDGE_VALUE * (run - 1);
+        }
+        table[index] = value;
+      }
+      kindTables[kind] = table;
+    }
+    return kindTables;
+  }
+
+  /**
+   * Checks a cell's bit in a mask.
+   * @param mask mask to look in
+   * @param cell cell id
+   * @return true if the bit is set
+   */
+  private static boolean has(long[] mask, int cell) {
+    return (mask[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  /**
+   * Gets which way a cell counts.
+   * @param digit base-3 digit of the cell
+   * @return 1 for black, -1 for white, 0 for empty
+   */
+  private static int sign(int digit) {
+    return digit == 1 ? 1 : digit == 2 ? -1 : 0;
+  }
+}
@@ -0,0 +1,51 @@
+package model.evaluation;
+
+import model.BoardListener;
+import model.ReadonlyIReversiModel;
+import model.tile.TileType;
+
+/**
+ * The base-3 index of every pattern of one board, kept up to date as the board changes.
+ * It listens to the board, and each cell that changes adds the change of its digit, times its
+ * power of 3, to the index of every pattern it is in, so the indexes never have to be worked out
+ * again from the whole board.
+ */
+final class PatternIndexes implements BoardListener {
+  final PatternSet set;
+  final int[] indexes;
+
+  /**
+   * Works out the indexes of a board from scratch.
+   * @param set patterns of the board's shape
+   * @param board board to index
+   */
+  PatternIndexes(PatternSet set, ReadonlyIReversiModel board) {
+    this.set = set;
+    this.indexes = new int[set.patterns.length];
+    for (int cell = 0; cell < set.geometry.getCellCount(); cell++) {
+      this.cellChanged(cell, TileType.EMPTY, board.getTileTypeAt(cell));
+    }
+  }
+
+  @Override
+  public void cellChanged(int cell, TileType before, TileType after) {
+    int change = digit(after) - digit(before);
+    int[] patterns = this.set.cellPatterns[cell];
+    int[] powers = this.set.cellPowers[cell];
+    for (int i = 0; i < patterns.length; i++) {
+      this.indexes[patterns[i]] += change * powers[i];
+    }
+  }
+
+  /**
+   * Gets the base-3 digit of what is on a cell.
+   * @param type what is on the cell
+   * @return 0 for empty, 1 for black, 2 for white
+   */
+  static int digit(TileType type) {
+    if (type == TileType.BLACK) {
+      return 1;
+    }
+    return type == TileType.WHITE ? 2 : 0;
+  }
+}
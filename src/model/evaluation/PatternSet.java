@@ -0,0 +1,252 @@
+package model.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.geometry.BoardGeometry;
+import model.position.Position3D;
+
+/**
+ * The fixed cell patterns a PatternEvaluator scores a board shape by.
+ * There are three kinds of pattern, each laid out once from the first corner and then rotated
+ * round the board to every other corner (six times on a hex board, four times on a square one),
+ * so that the copies of a kind list their cells in matching order and can share one table:
+ * EDGE runs along the edge to the next corner, CORNER is the corner and every cell within two
+ * steps of it, and LINE runs from the corner towards the middle (a diagonal on a square board, a
+ * hex axis on a hex board). No pattern is longer than MAX_CELLS. A rotated copy that covers the
+ * same cells as an earlier copy of its kind is left out, so no cell is counted twice by one kind:
+ * on a square board whose diagonal fits in MAX_CELLS the LINE reaches the far corner, and only
+ * the first two of its quarter turns are kept.
+ * A pattern's index is a base-3 number with one digit per cell (0 empty, 1 black, 2 white), the
+ * first cell being the lowest digit. For each cell the set also lists the patterns it is in and
+ * the power of 3 of its digit in each, so an index can be updated with one addition per pattern
+ * when the cell changes. There is one instance per geometry, built the first time it is asked for.
+ */
+final class PatternSet {
+  static final int EDGE = 0;
+  static final int CORNER = 1;
+  static final int LINE = 2;
+  static final int KINDS = 3;
+  // Longest pattern, which keeps each table at 3^10 entries
+  static final int MAX_CELLS = 10;
+
+  private static final Map<BoardGeometry, PatternSet> CACHE = new ConcurrentHashMap<>();
+
+  final BoardGeometry geometry;
+  final int[][] patterns;
+  final int[] kinds;
+  final int[] kindLengths;
+  // Id of the first pattern of each kind, which is the one laid out before any rotation
+  final int[] kindStarts;
+  // Pattern ids each cell is in, and the power of 3 of its digit in each of them
+  final int[][] cellPatterns;
+  final int[][] cellPowers;
+
+  /**
+   * Lays out the patterns of a board shape.
+   * @param geometry shape of the board
+   */
+  private PatternSet(BoardGeometry geometry) {
+    this.geometry = geometry;
+    List<List<Position3D>> shapes = new ArrayList<>();
+    shapes.add(this.edge());
+    shapes.add(this.corner());
+    shapes.add(this.line());
+    int turns = geometry.isSquare() ? 4 : 6;
+    List<int[]> laidOut = new ArrayList<>();
+    List<Integer> laidOutKinds = new ArrayList<>();
+    this.kindLengths = new int[KINDS];
+    this.kindStarts = new int[KINDS];
+    for (int kind = 0; kind < KINDS; kind++) {
+      List<Position3D> shape = shapes.get(kind);
+      this.kindLengths[kind] = shape.size();
+      this.kindStarts[kind] = laidOut.size();
+      for (int turn = 0; turn < turns; turn++) {
+        int[] pattern = new int[shape.size()];
+        for (int i = 0; i < shape.size(); i++) {
+          Position3D pos = shape.get(i);
+          for (int t = 0; t < turn; t++) {
+            pos = this.rotate(pos);
+          }
+          pattern[i] = geometry.indexOf(pos);
+        }
+        if (!this.coversSameCells(pattern, laidOut.subList(this.kindStarts[kind],
+                laidOut.size()))) {
+          laidOut.add(pattern);
+          laidOutKinds.add(kind);
+        }
+      }
+    }
+    this.patterns = laidOut.toArray(new int[0][]);
+    this.kinds = new int[laidOutKinds.size()];
+    for (int id = 0; id < this.kinds.length; id++) {
+      this.kinds[id] = laidOutKinds.get(id);
+    }
+    int cells = geometry.getCellCount();
+    int[] counts = new int[cells];
+    for (int[] pattern : this.patterns) {
+      for (int cell : pattern) {
+        counts[cell]++;
+      }
+    }
+    this.cellPatterns = new int[cells][];
+    this.cellPowers = new int[cells][];
+    for (int cell = 0; cell < cells; cell++) {
+      this.cellPatterns[cell] = new int[counts[cell]];
+      this.cellPowers[cell] = new int[counts[cell]];
+      counts[cell] = 0;
+    }
+    for (int id = 0; id < this.patterns.length; id++) {
+      int power = 1;
+      for (int cell : this.patterns[id]) {
+        this.cellPatterns[cell][counts[cell]] = id;
+        this.cellPowers[cell][counts[cell]] = power;
+        counts[cell]++;
+        power *= 3;
+      }
+    }
+  }
+
+  /**
+   * Gets the patterns of a board shape.
+   * @param geometry shape of the board
+   * @return the shared patterns for that shape
+   */
+  static PatternSet of(BoardGeometry geometry) {
+    return CACHE.computeIfAbsent(geometry, PatternSet::new);
+  }
+
+  /**
+   * Gets how many entries the table of a kind of pattern has.
+   * @param kind EDGE, CORNER or LINE
+   * @return 3 to the power of the pattern length
+   */
+  int tableSize(int kind) {
+    int size = 1;
+    for (int i = 0; i < this.kindLengths[kind]; i++) {
+      size *= 3;
+    }
+    return size;
+  }
+
+  /**
+   * Tells whether a pattern covers the same cells as one of some others, in any order.
+   * @param pattern cell ids of the pattern
+   * @param others cell ids of the patterns to compare with
+   * @return true if one of the others has exactly the same cells
+   */
+  private boolean coversSameCells(int[] pattern, List<int[]> others) {
+    int[] sorted = pattern.clone();
+    Arrays.sort(sorted);
+    for (int[] other : others) {
+      int[] otherSorted = other.clone();
+      Arrays.sort(otherSorted);
+      if (Arrays.equals(sorted, otherSorted)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the first corner, which every pattern is laid out from before it is rotated.
+   * @return position of the corner
+   */
+  private Position3D firstCorner() {
+    if (this.geometry.isSquare()) {
+      return new Position3D(0, 0, 0);
+    }
+    int far = this.geometry.getRadius() - 1;
+    return new Position3D(far, -far, 0);
+  }
+
+  /**
+   * Lays out the cells along the edge from the first corner.
+   * @return positions in pattern order
+   */
+  private List<Position3D> edge() {
+    Position3D corner = this.firstCorner();
+    List<Position3D> cells = new ArrayList<>();
+    for (int i = 0; cells.size() < MAX_CELLS; i++) {
+      Position3D pos = this.geometry.isSquare()
+              ? new Position3D(i, 0, -i)
+              : new Position3D(corner.getQ(), corner.getR() + i, corner.getS() - i);
+      if (!this.geometry.contains(pos)) {
+        break;
+      }
+      cells.add(pos);
+    }
+    return cells;
+  }
+
+  /**
+   * Lays out the cells from the first corner towards the middle of the board.
+   * @return positions in pattern order
+   */
+  private List<Position3D> line() {
+    Position3D corner = this.firstCorner();
+    List<Position3D> cells = new ArrayList<>();
+    for (int i = 0; cells.size() < MAX_CELLS; i++) {
+      Position3D pos = this.geometry.isSquare()
+              ? new Position3D(i, i, -2 * i)
+              : new Position3D(corner.getQ() - i, corner.getR() + i, 0);
+      if (!this.geometry.contains(pos) || (!this.geometry.isSquare() && i >= corner.getQ() + 1)) {
+        break;
+      }
+      cells.add(pos);
+    }
+    return cells;
+  }
+
+  /**
+   * Lays out the cells within two steps of the first corner, nearest first.
+   * @return positions in pattern order
+   */
+  private List<Position3D> corner() {
+    Position3D corner = this.firstCorner();
+    List<Position3D> cells = new ArrayList<>();
+    for (int cell = 0; cell < this.geometry.getCellCount(); cell++) {
+      if (this.steps(corner, this.geometry.getPosition(cell)) <= 2) {
+        cells.add(this.geometry.getPosition(cell));
+      }
+    }
+    cells.sort(Comparator.<Position3D>comparingInt(p -> this.steps(corner, p))
+            .thenComparingInt(Position3D::getQ).thenComparingInt(Position3D::getR));
+    return cells.subList(0, Math.min(cells.size(), MAX_CELLS));
+  }
+
+  /**
+   * Counts the steps between two cells, using the board's directions.
+   * @param a first cell
+   * @param b second cell
+   * @return how many steps apart they are
+   */
+  private int steps(Position3D a, Position3D b) {
+    int dq = Math.abs(a.getQ() - b.getQ());
+    int dr = Math.abs(a.getR() - b.getR());
+    if (this.geometry.isSquare()) {
+      return Math.max(dq, dr);
+    }
+    return Math.max(Math.max(dq, dr), Math.abs(a.getS() - b.getS()));
+  }
+
+  /**
+   * Turns a position a quarter turn (square board) or a sixth of a turn (hex board) round the
+   * middle of the board, which takes each corner to the next.
+   * @param pos position to turn
+   * @return turned position
+   */
+  private Position3D rotate(Position3D pos) {
+    if (this.geometry.isSquare()) {
+      int side = 2 * this.geometry.getRadius();
+      int q = side - 1 - pos.getR();
+      int r = pos.getQ();
+      return new Position3D(q, r, -q - r);
+    }
+    return new Position3D(-pos.getR(), -pos.getS(), -pos.getQ());
+  }
+}
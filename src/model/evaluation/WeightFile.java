@@ -0,0 +1,161 @@
+package model.evaluation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import model.geometry.BoardGeometry;
+
+/**
+ * Reads and writes evaluator weights as a small binary file, so that weights fitted offline can be
+ * given to the AI players when they start.
+ * A file starts with a magic number and a version, then holds either the weights of a
+ * WeightedEvaluator (one int per term) or the tables of a PatternEvaluator for one or more board
+ * shapes (each value as a 16-bit short, which keeps a square 8 board under 400 KB).
+ * Everything is big-endian, as written by DataOutputStream.
+ */
+public final class WeightFile {
+  // "RVEW", for Reversi evaluator weights
+  private static final int MAGIC = 0x52564557;
+  private static final int VERSION = 1;
+  private static final byte WEIGHTED = 0;
+  private static final byte PATTERN = 1;
+
+  /**
+   * Not to be constructed.
+   */
+  private WeightFile() {
+  }
+
+  /**
+   * Writes the weights of a weighted evaluator.
+   * @param evaluator evaluator to save
+   * @param file file to write
+   * @throws IOException if the file can't be written
+   */
+  public static void write(WeightedEvaluator evaluator, Path file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeByte(WEIGHTED);
+      WeightedEvaluator.Term[] terms = WeightedEvaluator.Term.values();
+      out.writeInt(terms.length);
+      for (WeightedEvaluator.Term term : terms) {
+        out.writeInt(evaluator.getWeight(term));
+      }
+    }
+  }
+
+  /**
+   * Writes the tables a pattern evaluator uses for some board shapes.
+   * @param evaluator evaluator to save
+   * @param file file to write
+   * @param geometries shapes to save the tables of
+   * @throws IOException if the file can't be written
+   * @throws IllegalArgumentException if no shape is given or a value doesn't fit in a short
+   */
+  public static void write(PatternEvaluator evaluator, Path file, BoardGeometry... geometries)
+          throws IOException, IllegalArgumentException {
+    if (geometries.length == 0) {
+      throw new IllegalArgumentException("Need at least one board shape");
+    }
+    int[][][] tables = new int[geometries.length][][];
+    for (int g = 0; g < geometries.length; g++) {
+      tables[g] = evaluator.getTables(geometries[g]);
+      for (int[] table : tables[g]) {
+        for (int value : table) {
+          if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Table value " + value + " doesn't fit in a short");
+          }
+        }
+      }
+    }
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeByte(PATTERN);
+      out.writeInt(geometries.length);
+      for (int g = 0; g < geometries.length; g++) {
+        out.writeBoolean(geometries[g].isSquare());
+        out.writeInt(size(geometries[g]));
+        out.writeInt(tables[g].length);
+        for (int[] table : tables[g]) {
+          out.writeInt(table.length);
+          for (int value : table) {
+            out.writeShort(value);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads an evaluator back from a weight file.
+   * @param file file to read
+   * @return a WeightedEvaluator or a PatternEvaluator, whichever the file holds
+   * @throws IOException if the file can't be read or isn't a weight file
+   */
+  public static Evaluator read(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(file + " is not a weight file");
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unknown weight file version " + version);
+      }
+      byte type = in.readByte();
+      if (type == WEIGHTED) {
+        int[] weights = new int[in.readInt()];
+        for (int i = 0; i < weights.length; i++) {
+          weights[i] = in.readInt();
+        }
+        try {
+          return new WeightedEvaluator(weights);
+        } catch (IllegalArgumentException e) {
+          throw new IOException("Wrong number of weights in " + file, e);
+        }
+      }
+      if (type != PATTERN) {
+        throw new IOException("Unknown evaluator type " + type + " in " + file);
+      }
+      PatternEvaluator evaluator = new PatternEvaluator();
+      int shapes = in.readInt();
+      for (int g = 0; g < shapes; g++) {
+        boolean square = in.readBoolean();
+        int size = in.readInt();
+        int[][] tables = new int[in.readInt()][];
+        for (int kind = 0; kind < tables.length; kind++) {
+          tables[kind] = new int[in.readInt()];
+          for (int i = 0; i < tables[kind].length; i++) {
+            tables[kind][i] = in.readShort();
+          }
+        }
+        try {
+          evaluator.setTables(square ? BoardGeometry.square(size) : BoardGeometry.hex(size),
+                  tables);
+        } catch (IllegalArgumentException e) {
+          throw new IOException("Tables in " + file + " don't fit their board", e);
+        }
+      }
+      return evaluator;
+    }
+  }
+
+  /**
+   * Gets the number a board shape is made from: the radius of a hex board or the diameter of a
+   * square one.
+   * @param geometry shape of the board
+   * @return radius or diameter
+   */
+  private static int size(BoardGeometry geometry) {
+    return geometry.isSquare() ? 2 * geometry.getRadius() : geometry.getRadius();
+  }
+}
@@ -0,0 +1,252 @@
+package model.evaluation;
+
+import model.BitboardReversiModelImpl;
+import model.tile.TileType;
+
+/**
+ * An evaluator that adds up a few features of the position, each times its own weight.
+ * Every term is the side to move's count minus the opponent's:
+ * MOBILITY counts legal moves, POTENTIAL_MOBILITY counts empty cells next to the other player's
+ * discs, CORNERS counts corners, EDGE_STABILITY counts edge discs joined to an own corner by an
+ * unbroken line along the edge (they can never be flipped), FRONTIER counts discs next to an empty
+ * cell, and DISCS counts discs. PARITY is 1 if the side to move gets the last move when nobody
+ * passes (an odd number of empty cells) and -1 if not.
+ * Apart from mobility, which comes from the board's cached legal moves, the terms are worked out
+ * on whole words of the bitsets. Terms with a weight of 0 are skipped.
+ * The default weights only count mobility (8) and discs (1), which is how the search players
+ * scored positions before evaluators could be swapped.
+ */
+public final class WeightedEvaluator implements Evaluator {
+
+  /**
+   * The features the evaluator can weigh.
+   */
+  public enum Term {
+    MOBILITY,
+    POTENTIAL_MOBILITY,
+    CORNERS,
+    EDGE_STABILITY,
+    FRONTIER,
+    DISCS,
+    PARITY
+  }
+
+  private final int[] weights;
+
+  /**
+   * Constructs an evaluator with the default weights.
+   */
+  public WeightedEvaluator() {
+    this.weights = new int[Term.values().length];
+    this.weights[Term.MOBILITY.ordinal()] = 8;
+    this.weights[Term.DISCS.ordinal()] = 1;
+  }
+
+  /**
+   * Constructs an evaluator with the given weights.
+   * @param weights one weight per term, in the order of Term.values()
+   * @throws IllegalArgumentException if there isn't exactly one weight per term
+   */
+  public WeightedEvaluator(int[] weights) throws IllegalArgumentException {
+    if (weights.length != Term.values().length) {
+      throw new IllegalArgumentException("Need one weight per term");
+    }
+    this.weights = weights.clone();
+  }
+
+  /**
+   * Sets the weight of one term. Shouldn't be called while a search is using the evaluator.
+   * @param term term to weigh
+   * @param weight new weight, negative for terms that are bad for the side to move
+   */
+  public void setWeight(Term term, int weight) {
+    this.weights[term.ordinal()] = weight;
+  }
+
+  /**
+   * Gets the weight of one term.
+   * @param term term to look up
+   * @return its weight
+   */
+  public int getWeight(Term term) {
+    return this.weights[term.ordinal()];
+  }
+
+  @Override
+  public void attach(BitboardReversiModelImpl board) {
+    // Every term is worked out from the board as it is, so there is nothing to keep track of
+  }
+
+  @Override
+  public int evaluate(BitboardReversiModelImpl board) {
+    BoardMasks masks = BoardMasks.of(board.getGeometry());
+    TileType own = board.getTurn();
+    TileType other = own == TileType.BLACK ? TileType.WHITE : TileType.BLACK;
+    int score = 0;
+    for (Term term : Term.values()) {
+      int weight = this.weights[term.ordinal()];
+      if (weight != 0) {
+        score += weight * termValue(term, board, masks, own, other);
+      }
+    }
+    return score;
+  }
+
+  /**
+   * Works out every term of a position, unweighted, for fitting the weights to games.
+   * @param board position to look at, which is left as it was
+   * @param values array to fill, one value per term in the order of Term.values()
+   */
+  public static void features(BitboardReversiModelImpl board, int[] values) {
+    BoardMasks masks = BoardMasks.of(board.getGeometry());
+    TileType own = board.getTurn();
+    TileType other = own == TileType.BLACK ? TileType.WHITE : TileType.BLACK;
+    for (Term term : Term.values()) {
+      values[term.ordinal()] = termValue(term, board, masks, own, other);
+    }
+  }
+
+  /**
+   * Works out one term of a position.
+   * @param term term to work out
+   * @param board position to look at
+   * @param masks masks of the board's shape
+   * @param own side to move
+   * @param other opponent
+   * @return the side to move's value minus the opponent's
+   */
+  private static int termValue(Term term, BitboardReversiModelImpl board, BoardMasks masks,
+                               TileType own, TileType other) {
+    if (term == Term.MOBILITY) {
+      return mobility(board);
+    } else if (term == Term.POTENTIAL_MOBILITY) {
+      return touching(board, masks, other, true) - touching(board, masks, own, true);
+    } else if (term == Term.CORNERS) {
+      return count(board, masks.corners, own) - count(board, masks.corners, other);
+    } else if (term == Term.EDGE_STABILITY) {
+      return stableEdges(board, masks, own) - stableEdges(board, masks, other);
+    } else if (term == Term.FRONTIER) {
+      return touching(board, masks, own, false) - touching(board, masks, other, false);
+    } else if (term == Term.DISCS) {
+      return count(board, masks.cells, own) - count(board, masks.cells, other);
+    }
+    return emptyCount(board, masks) % 2 == 1 ? 1 : -1;
+  }
+
+  /**
+   * Gets how many more legal moves the side to move has than the opponent would have.
+   * @param board position to look at, which is left as it was
+   * @return mobility difference
+   */
+  private static int mobility(BitboardReversiModelImpl board) {
+    int own = board.getLegalMoveCount();
+    board.makePass();
+    int opponent = board.getLegalMoveCount();
+    board.undoMove();
+    return own - opponent;
+  }
+
+  /**
+   * Counts a player's discs inside a mask.
+   * @param board position to look at
+   * @param mask cells to count
+   * @param color player to count
+   * @return disc count
+   */
+  private static int count(BitboardReversiModelImpl board, long[] mask, TileType color) {
+    int total = 0;
+    for (int w = 0; w < mask.length; w++) {
+      total += Long.bitCount(board.getBits(color, w) & mask[w]);
+    }
+    return total;
+  }
+
+  /**
+   * Counts the empty cells of a position.
+   * @param board position to look at
+   * @param masks masks of the board's shape
+   * @return empty cell count
+   */
+  private static int emptyCount(BitboardReversiModelImpl board, BoardMasks masks) {
+    int total = 0;
+    for (int w = 0; w < masks.words; w++) {
+      total += Long.bitCount(empty(board, masks, w));
+    }
+    return total;
+  }
+
+  /**
+   * Gets one word of the empty cells of a position.
+   * @param board position to look at
+   * @param masks masks of the board's shape
+   * @param word index of the word
+   * @return bits of the empty cells
+   */
+  private static long empty(BitboardReversiModelImpl board, BoardMasks masks, int word) {
+    return masks.cells[word]
+            & ~(board.getBits(TileType.BLACK, word) | board.getBits(TileType.WHITE, word));
+  }
+
+  /**
+   * Counts the cells next to both an empty cell and a disc of the given player: either the
+   * player's discs that touch an empty cell (its frontier), or the empty cells that touch one of
+   * the player's discs (where the opponent might be able to move later).
+   * @param board position to look at
+   * @param masks masks of the board's shape
+   * @param color player whose discs to look at
+   * @param countEmpty true to count the empty cells, false to count the discs
+   * @return cell count
+   */
+  private static int touching(BitboardReversiModelImpl board, BoardMasks masks, TileType color,
+                              boolean countEmpty) {
+    int total = 0;
+    for (int w = 0; w < masks.words; w++) {
+      long candidates = countEmpty ? empty(board, masks, w) : board.getBits(color, w);
+      while (candidates != 0) {
+        int cell = (w << 6) + Long.numberOfTrailingZeros(candidates);
+        candidates &= candidates - 1;
+        long[] around = masks.neighbours[cell];
+        for (int v = 0; v < masks.words; v++) {
+          long target = countEmpty ? board.getBits(color, v) : empty(board, masks, v);
+          if ((around[v] & target) != 0) {
+            total++;
+            break;
+          }
+        }
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Counts a player's edge discs that are joined to one of its corners by an unbroken line of its
+   * own discs along the edge. The corners themselves are left to the CORNERS term.
+   * @param board position to look at
+   * @param masks masks of the board's shape
+   * @param color player to count
+   * @return stable edge disc count
+   */
+  private static int stableEdges(BitboardReversiModelImpl board, BoardMasks masks,
+                                 TileType color) {
+    int total = 0;
+    for (int i = 0; i < masks.cornerCells.length; i++) {
+      int corner = masks.cornerCells[i];
+      if (board.getTileTypeAt(corner) != color) {
+        continue;
+      }
+      for (int[] edge : masks.cornerEdges[i]) {
+        int last = edge.length - 1;
+        int run = 0;
+        while (run < last && board.getTileTypeAt(edge[run]) == color) {
+          run++;
+        }
+        // A whole edge of the player's discs between two of its corners is counted once
+        if (run == last && board.getTileTypeAt(edge[last]) == color && edge[last] < corner) {
+          continue;
+        }
+        total += run;
+      }
+    }
+    return total;
+  }
+}
@@ -0,0 +1,259 @@
+package model.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.position.Position3D;
+
+/**
+ * The shape of a board: which positions exist on it and the dense cell id of each of them.
+ * Cell ids run from 0 to getCellCount() - 1 in the same order the models lay out their boards
+ * (q first, then r), so a model's list of tiles can be indexed directly by cell id.
+ * Lookups go through an axial (q, r) table, so finding the id of a position is O(1).
+ * For every cell and direction the geometry also keeps the ray of cell ids from that cell out to
+ * the edge of the board, so walking a line never builds positions or checks bounds.
+ * It also holds the Zobrist keys of the shape: a random 64-bit key for a black piece and a white
+ * piece on every cell, and one for white being the side to move. The keys come from a fixed seed,
+ * so the same position hashes the same in every run.
+ * There is one instance per board shape, shared by every model of that shape.
+ */
+public final class BoardGeometry {
+  // Directions as (q, r) steps, s follows from q + r + s == 0
+  private static final int[][] HEX_DIRECTIONS =
+          {{1, -1}, {1, 0}, {0, 1}, {-1, 1}, {-1, 0}, {0, -1}};
+  private static final int[][] SQUARE_DIRECTIONS =
+          {{1, -1}, {1, 0}, {0, 1}, {-1, 1}, {-1, 0}, {0, -1}, {1, 1}, {-1, -1}};
+
+  private static final Map<Integer, BoardGeometry> HEX_CACHE = new ConcurrentHashMap<>();
+  private static final Map<Integer, BoardGeometry> SQUARE_CACHE = new ConcurrentHashMap<>();
+  private static final long ZOBRIST_SEED = 0x5eed_2e7e_7510_0b1fL;
+
+  private final boolean square;
+  private final int radius;
+  private final int minQ;
+  private final int minR;
+  private final int width;
+  private final Position3D[] positions;
+  private final int[] cellIndex;
+  private final int[][][] rays;
+  private final long[] blackKeys;
+  private final long[] whiteKeys;
+  private final long whiteToMoveKey;
+
+  /**
+   * Builds the geometry of a board.
+   * @param square true for a square board, false for a hexagonal one
+   * @param radius radius of the hex board, or half the diameter of the square board
+   */
+  private BoardGeometry(boolean square, int radius) {
+    this.square = square;
+    this.radius = radius;
+    if (square) {
+      this.minQ = 0;
+      this.minR = 0;
+      this.width = 2 * radius;
+    } else {
+      this.minQ = -1 * radius + 1;
+      this.minR = -1 * radius + 1;
+      this.width = 2 * radius - 1;
+    }
+    List<Position3D> cells = new ArrayList<>();
+    for (int q = this.minQ; q < this.minQ + this.width; q++) {
+      for (int r = this.minR; r < this.minR + this.width; r++) {
+        if (square || Math.abs(q + r) < radius) {
+          cells.add(new Position3D(q, r, -q - r));
+        }
+      }
+    }
+    this.positions = cells.toArray(new Position3D[0]);
+    this.cellIndex = new int[this.width * this.width];
+    Arrays.fill(this.cellIndex, -1);
+    for (int cell = 0; cell < this.positions.length; cell++) {
+      this.cellIndex[(this.positions[cell].getQ() - this.minQ) * this.width
+              + this.positions[cell].getR() - this.minR] = cell;
+    }
+    int[][] directions = square ? SQUARE_DIRECTIONS : HEX_DIRECTIONS;
+    this.rays = new int[this.positions.length][directions.length][];
+    int[] buffer = new int[this.width];
+    for (int cell = 0; cell < this.positions.length; cell++) {
+      for (int d = 0; d < directions.length; d++) {
+        int length = 0;
+        int q = this.positions[cell].getQ() + directions[d][0];
+        int r = this.positions[cell].getR() + directions[d][1];
+        for (int next = this.indexOf(q, r); next >= 0; next = this.indexOf(q, r)) {
+          buffer[length++] = next;
+          q += directions[d][0];
+          r += directions[d][1];
+        }
+        this.rays[cell][d] = Arrays.copyOf(buffer, length);
+      }
+    }
+    SplittableRandom random = new SplittableRandom(ZOBRIST_SEED ^ (square ? -radius : radius));
+    this.blackKeys = new long[this.positions.length];
+    this.whiteKeys = new long[this.positions.length];
+    for (int cell = 0; cell < this.positions.length; cell++) {
+      this.blackKeys[cell] = random.nextLong();
+      this.whiteKeys[cell] = random.nextLong();
+    }
+    this.whiteToMoveKey = random.nextLong();
+  }
+
+  /**
+   * Gets the geometry of a hexagonal board.
+   * @param radius amount of hexagons from the center (included) to the edge in a straight line
+   * @return the shared geometry for that radius
+   * @throws IllegalArgumentException if the radius is too short
+   */
+  public static BoardGeometry hex(int radius) throws IllegalArgumentException {
+    if (radius < 2) {
+      throw new IllegalArgumentException("Radius must be 2 or greater");
+    }
+    return HEX_CACHE.computeIfAbsent(radius, r -> new BoardGeometry(false, r));
+  }
+
+  /**
+   * Gets the geometry of a square board.
+   * @param diameter amount of squares along one side
+   * @return the shared geometry for that diameter
+   * @throws IllegalArgumentException if the diameter is too short or isn't even
+   */
+  public static BoardGeometry square(int diameter) throws IllegalArgumentException {
+    if (diameter < 2) {
+      throw new IllegalArgumentException("Diameter must be 2 or greater");
+    }
+    if (diameter % 2 != 0) {
+      throw new IllegalArgumentException("Diameter must be even");
+    }
+    return SQUARE_CACHE.computeIfAbsent(diameter / 2, r -> new BoardGeometry(true, r));
+  }
+
+  /**
+   * Is this a square board.
+   * @return true if square, false if hexagonal
+   */
+  public boolean isSquare() {
+    return this.square;
+  }
+
+  /**
+   * Gets the radius the models report for this board (half the diameter for square boards).
+   * @return radius
+   */
+  public int getRadius() {
+    return this.radius;
+  }
+
+  /**
+   * Gets how many cells are on the board.
+   * @return amount of cells
+   */
+  public int getCellCount() {
+    return this.positions.length;
+  }
+
+  /**
+   * Gets the cell id of the given axial coordinates.
+   * @param q q value
+   * @param r r value
+   * @return the cell id, or -1 if the coordinates are not on the board
+   */
+  public int indexOf(int q, int r) {
+    int qi = q - this.minQ;
+    int ri = r - this.minR;
+    if (qi < 0 || ri < 0 || qi >= this.width || ri >= this.width) {
+      return -1;
+    }
+    return this.cellIndex[qi * this.width + ri];
+  }
+
+  /**
+   * Gets the cell id of the given position.
+   * @param pos position on the board
+   * @return the cell id, or -1 if the position is not on the board
+   */
+  public int indexOf(Position3D pos) {
+    return this.indexOf(pos.getQ(), pos.getR());
+  }
+
+  /**
+   * Is the given position on the board.
+   * @param pos position to check
+   * @return true if it is on the board
+   */
+  public boolean contains(Position3D pos) {
+    return this.indexOf(pos) >= 0;
+  }
+
+  /**
+   * Gets how many directions a line can go in from a cell (6 for hex boards, 8 for square).
+   * @return amount of directions
+   */
+  public int getDirectionCount() {
+    return this.rays[0].length;
+  }
+
+  /**
+   * Gets the cells on the line from the given cell to the edge of the board in one direction,
+   * nearest first. The array is shared, so it must not be modified.
+   * @param cell cell id to start from (not included in the ray)
+   * @param direction direction index, from 0 to getDirectionCount() - 1
+   * @return cell ids along the ray
+   * @throws IndexOutOfBoundsException if the cell or direction does not exist
+   */
+  public int[] getRay(int cell, int direction) {
+    return this.rays[cell][direction];
+  }
+
+  /**
+   * Gets the rays from the given cell in every direction. The arrays are shared, so they must not
+   * be modified.
+   * @param cell cell id to start from
+   * @return cell ids along each ray, indexed by direction
+   * @throws IndexOutOfBoundsException if the cell does not exist
+   */
+  public int[][] getRays(int cell) {
+    return this.rays[cell];
+  }
+
+  /**
+   * Gets the position of the given cell. The same instance is returned every time.
+   * @param cell cell id
+   * @return position of that cell
+   * @throws IndexOutOfBoundsException if the cell id is not on the board
+   */
+  public Position3D getPosition(int cell) {
+    return this.positions[cell];
+  }
+
+  /**
+   * Gets the Zobrist key of a black piece on the given cell.
+   * @param cell cell id
+   * @return 64-bit key
+   * @throws IndexOutOfBoundsException if the cell id is not on the board
+   */
+  public long getBlackKey(int cell) {
+    return this.blackKeys[cell];
+  }
+
+  /**
+   * Gets the Zobrist key of a white piece on the given cell.
+   * @param cell cell id
+   * @return 64-bit key
+   * @throws IndexOutOfBoundsException if the cell id is not on the board
+   */
+  public long getWhiteKey(int cell) {
+    return this.whiteKeys[cell];
+  }
+
+  /**
+   * Gets the Zobrist key that is part of the hash when white is the side to move.
+   * @return 64-bit key
+   */
+  public long getWhiteToMoveKey() {
+    return this.whiteToMoveKey;
+  }
+}
@@ -0,0 +1,198 @@
+package model.geometry;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.ReadonlyIReversiModel;
+import model.position.Position3D;
+import model.tile.TileType;
+
+/**
+ * The symmetries of a board shape, used to treat positions that are turns or mirror images of
+ * each other as one.
+ * A hex board has 12 (six turns, each with or without a mirror) and a square board has 8 (four
+ * turns, each with or without a mirror). Transform t is the mirror (when t is at least the number
+ * of turns) followed by t modulo the number of turns sixth or quarter turns; transform 0 leaves the
+ * board as it is. Each is kept as a table from every cell id to the cell id it goes to.
+ * The rules are the same on a turned or mirrored board, so a position's best move, seen through
+ * the same transform, is the best move of the transformed position. The canonical form of a
+ * position is the transform of it with the lowest Zobrist hash, and that hash (the canonical
+ * hash) is the same for every position that is a turn or mirror image of it. Tables keyed by it
+ * should store moves as they are in the canonical form, and map them back with unapply and the
+ * transform that was used.
+ * The starting layout is only kept by some of the transforms (a sixth of a turn swaps the colors
+ * of the hex start, for example), so games from the start don't reach every transform of a
+ * position, but every transform is still a position with the same value.
+ * There is one instance per board shape, built the first time it is asked for.
+ */
+public final class BoardSymmetry {
+  private static final Map<BoardGeometry, BoardSymmetry> CACHE = new ConcurrentHashMap<>();
+
+  private final BoardGeometry geometry;
+  // Cell each cell goes to under each transform, and the cell each one comes from
+  private final int[][] forward;
+  private final int[][] backward;
+  // Hashes of every transform, for canonicalHash
+  private final ThreadLocal<long[]> scratch;
+
+  /**
+   * Works out the transforms of a board shape.
+   * @param geometry shape of the board
+   */
+  private BoardSymmetry(BoardGeometry geometry) {
+    this.geometry = geometry;
+    int turns = geometry.isSquare() ? 4 : 6;
+    int cells = geometry.getCellCount();
+    this.forward = new int[2 * turns][cells];
+    this.backward = new int[2 * turns][cells];
+    for (int t = 0; t < 2 * turns; t++) {
+      for (int cell = 0; cell < cells; cell++) {
+        Position3D pos = geometry.getPosition(cell);
+        if (t >= turns) {
+          pos = this.mirror(pos);
+        }
+        for (int k = 0; k < t % turns; k++) {
+          pos = this.turn(pos);
+        }
+        int image = geometry.indexOf(pos);
+        this.forward[t][cell] = image;
+        this.backward[t][image] = cell;
+      }
+    }
+    this.scratch = ThreadLocal.withInitial(() -> new long[2 * turns]);
+  }
+
+  /**
+   * Gets the symmetries of a board shape.
+   * @param geometry shape of the board
+   * @return the shared symmetries for that shape
+   */
+  public static BoardSymmetry of(BoardGeometry geometry) {
+    return CACHE.computeIfAbsent(geometry, BoardSymmetry::new);
+  }
+
+  /**
+   * Gets how many transforms the board has, counting the one that leaves it as it is.
+   * @return 12 for a hex board, 8 for a square board
+   */
+  public int getTransformCount() {
+    return this.forward.length;
+  }
+
+  /**
+   * Gets where a cell goes under a transform.
+   * @param transform transform number
+   * @param cell cell id
+   * @return cell id it goes to
+   */
+  public int apply(int transform, int cell) {
+    return this.forward[transform][cell];
+  }
+
+  /**
+   * Gets the cell that goes to a cell under a transform, which undoes apply.
+   * @param transform transform number
+   * @param cell cell id after the transform
+   * @return cell id it came from
+   */
+  public int unapply(int transform, int cell) {
+    return this.backward[transform][cell];
+  }
+
+  /**
+   * Works out the Zobrist hash a position would have after a transform. Transform 0 gives the
+   * model's own position hash.
+   * @param model position to look at
+   * @param transform transform number
+   * @return hash of the transformed position
+   */
+  public long hash(ReadonlyIReversiModel model, int transform) {
+    int[] images = this.forward[transform];
+    long h = model.getTurn() == TileType.WHITE ? this.geometry.getWhiteToMoveKey() : 0L;
+    for (int cell = 0; cell < images.length; cell++) {
+      TileType type = model.getTileTypeAt(cell);
+      if (type == TileType.BLACK) {
+        h ^= this.geometry.getBlackKey(images[cell]);
+      } else if (type == TileType.WHITE) {
+        h ^= this.geometry.getWhiteKey(images[cell]);
+      }
+    }
+    return h;
+  }
+
+  /**
+   * Works out the canonical hash of a position, the lowest hash of any of its transforms, going
+   * over the board once for all of them. The hashes are worked out in an array kept for each
+   * thread, so nothing is allocated.
+   * @param model position to look at
+   * @return canonical hash
+   */
+  public long canonicalHash(ReadonlyIReversiModel model) {
+    long[] hashes = this.scratch.get();
+    return hashes[this.canonicalTransform(model, hashes)];
+  }
+
+  /**
+   * Works out the hash of every transform of a position, going over the board once for all of
+   * them, and finds the one that gives the canonical form.
+   * @param model position to look at
+   * @param hashes array to fill with the hash of each transform, at least getTransformCount()
+   *               long
+   * @return the transform that gives the canonical form (the lowest one if several do), whose
+   *         hash is the canonical hash
+   * @throws IllegalArgumentException if the array is too short to hold every transform
+   */
+  public int canonicalTransform(ReadonlyIReversiModel model, long[] hashes)
+          throws IllegalArgumentException {
+    int transforms = this.forward.length;
+    if (hashes.length < transforms) {
+      throw new IllegalArgumentException("Hash array is shorter than the transform count");
+    }
+    long start = model.getTurn() == TileType.WHITE ? this.geometry.getWhiteToMoveKey() : 0L;
+    Arrays.fill(hashes, 0, transforms, start);
+    for (int cell = 0; cell < this.geometry.getCellCount(); cell++) {
+      TileType type = model.getTileTypeAt(cell);
+      if (type == TileType.BLACK) {
+        for (int t = 0; t < transforms; t++) {
+          hashes[t] ^= this.geometry.getBlackKey(this.forward[t][cell]);
+        }
+      } else if (type == TileType.WHITE) {
+        for (int t = 0; t < transforms; t++) {
+          hashes[t] ^= this.geometry.getWhiteKey(this.forward[t][cell]);
+        }
+      }
+    }
+    int best = 0;
+    for (int t = 1; t < transforms; t++) {
+      if (hashes[t] < hashes[best]) {
+        best = t;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Mirrors a position by swapping q and r, which is across the main diagonal on a square board.
+   * @param pos position to mirror
+   * @return mirrored position
+   */
+  private Position3D mirror(Position3D pos) {
+    return new Position3D(pos.getR(), pos.getQ(), pos.getS());
+  }
+
+  /**
+   * Turns a position a sixth of a turn round the middle of a hex board, or a quarter turn on a
+   * square board.
+   * @param pos position to turn
+   * @return turned position
+   */
+  private Position3D turn(Position3D pos) {
+    if (this.geometry.isSquare()) {
+      int q = 2 * this.geometry.getRadius() - 1 - pos.getR();
+      int r = pos.getQ();
+      return new Position3D(q, r, -q - r);
+    }
+    return new Position3D(-pos.getR(), -pos.getS(), -pos.getQ());
+  }
+}
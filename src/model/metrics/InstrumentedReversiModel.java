@@ -0,0 +1,374 @@
+package model.metrics;
+
+import java.util.List;
+
+import controller.ReversiController;
+import model.BitboardReversiModelImpl;
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.geometry.BoardGeometry;
+import model.position.Position3D;
+import model.tile.Tile;
+import model.tile.TileType;
+
+/**
+ * A model that passes every call on to another model, counting and timing the operations listed
+ * in Operation in a ModelMetrics. The cheap getters (turn, scores, hash, geometry and the like)
+ * are passed on without being counted. An operation that throws is still counted.
+ * Copying a model with a copy constructor reads it through getCopyOfBoard, which is counted; copy
+ * makes and counts a copy that is instrumented too.
+ * This replaces logging models such as MockModelLoggingObservations for profiling: it keeps a
+ * fixed amount of memory however long it runs, and several models can share one ModelMetrics.
+ */
+public class InstrumentedReversiModel implements IReversiModel {
+  private final IReversiModel model;
+  private final ModelMetrics metrics;
+
+  /**
+   * Constructs an instrumented view of a model.
+   * @param model model to pass calls on to
+   * @param metrics where the operations are recorded
+   */
+  public InstrumentedReversiModel(IReversiModel model, ModelMetrics metrics) {
+    this.model = model;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Gets the metrics the operations are recorded in.
+   * @return the shared metrics
+   */
+  public ModelMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Copies the model into a new model of the same kind (ReversiModelImpl, SquareReversiModelImpl
+   * or BitboardReversiModelImpl), recording into the same metrics.
+   * @return the instrumented copy
+   */
+  public InstrumentedReversiModel copy() {
+    long start = this.metrics.start();
+    try {
+      IReversiModel copy;
+      if (this.model instanceof BitboardReversiModelImpl) {
+        copy = new BitboardReversiModelImpl(this.model);
+      } else if (this.model.getGeometry().isSquare()) {
+        copy = new SquareReversiModelImpl(this.model);
+      } else {
+        copy = new ReversiModelImpl(this.model);
+      }
+      return new InstrumentedReversiModel(copy, this.metrics);
+    } finally {
+      this.metrics.record(Operation.COPY, start);
+    }
+  }
+
+  /**
+   * Gets the tile at a position, counted as GET_TILE_AT.
+   * @param pos coordinates as a position type
+   * @return the tile itself
+   * @throws IllegalArgumentException if the position is not on the board
+   */
+  @Override
+  public Tile getTileAt(Position3D pos) throws IllegalArgumentException {
+    long start = this.metrics.start();
+    try {
+      return this.model.getTileAt(pos);
+    } finally {
+      this.metrics.record(Operation.GET_TILE_AT, start);
+    }
+  }
+
+  /**
+   * Starts the game.
+   */
+  @Override
+  public void startGame() {
+    this.model.startGame();
+  }
+
+  /**
+   * Passes, counted as PASS.
+   * @throws IllegalStateException if the game is over
+   */
+  @Override
+  public void pass() throws IllegalStateException {
+    long start = this.metrics.start();
+    try {
+      this.model.pass();
+    } finally {
+      this.metrics.record(Operation.PASS, start);
+    }
+  }
+
+  /**
+   * Places a tile, counted as PLACE_TILE.
+   * @param pos coordinates as a position type
+   * @throws IllegalStateException if the move is illegal or the game is over
+   * @throws IllegalArgumentException if the position is not on the board
+   */
+  @Override
+  public void placeTile(Position3D pos) throws IllegalStateException, IllegalArgumentException {
+    long start = this.metrics.start();
+    try {
+      this.model.placeTile(pos);
+    } finally {
+      this.metrics.record(Operation.PLACE_TILE, start);
+    }
+  }
+
+  /**
+   * Makes a move that can be taken back, counted as MAKE_MOVE.
+   * @param pos coordinates as a position type
+   * @throws IllegalStateException if the move is illegal or the game is over
+   * @throws IllegalArgumentException if the position is not on the board
+   */
+  @Override
+  public void makeMove(Position3D pos) throws IllegalStateException, IllegalArgumentException {
+    long start = this.metrics.start();
+    try {
+      this.model.makeMove(pos);
+    } finally {
+      this.metrics.record(Operation.MAKE_MOVE, start);
+    }
+  }
+
+  /**
+   * Passes in a way that can be taken back, counted as MAKE_PASS.
+   * @throws IllegalStateException if the game is over
+   */
+  @Override
+  public void makePass() throws IllegalStateException {
+    long start = this.metrics.start();
+    try {
+      this.model.makePass();
+    } finally {
+      this.metrics.record(Operation.MAKE_PASS, start);
+    }
+  }
+
+  /**
+   * Takes back the latest makeMove or makePass, counted as UNDO_MOVE.
+   * @throws IllegalStateException if there is no move to take back
+   */
+  @Override
+  public void undoMove() throws IllegalStateException {
+    long start = this.metrics.start();
+    try {
+      this.model.undoMove();
+    } finally {
+      this.metrics.record(Operation.UNDO_MOVE, start);
+    }
+  }
+
+  /**
+   * Adds the observer for the White player.
+   * @param controller the controller observing the model
+   */
+  @Override
+  public void addWhiteObserver(ReversiController controller) {
+    this.model.addWhiteObserver(controller);
+  }
+
+  /**
+   * Adds the observer for the Black player.
+   * @param controller the controller observing the model
+   */
+  @Override
+  public void addBlackObserver(ReversiController controller) {
+    this.model.addBlackObserver(controller);
+  }
+
+  /**
+   * Determines if both players are human.
+   * @return true if both players are human
+   */
+  @Override
+  public boolean bothPlayersHuman() {
+    return this.model.bothPlayersHuman();
+  }
+
+  /**
+   * Gets a copy of the tile at a position, counted as GET_COPY_OF_TILE_AT.
+   * @param pos position of tile
+   * @return copy of the tile
+   * @throws IllegalArgumentException if the position is not on the board
+   */
+  @Override
+  public Tile getCopyOfTileAt(Position3D pos) throws IllegalArgumentException {
+    long start = this.metrics.start();
+    try {
+      return this.model.getCopyOfTileAt(pos);
+    } finally {
+      this.metrics.record(Operation.GET_COPY_OF_TILE_AT, start);
+    }
+  }
+
+  /**
+   * Gets what is on a cell.
+   * @param cell cell id
+   * @return tile type on that cell
+   */
+  @Override
+  public TileType getTileTypeAt(int cell) {
+    return this.model.getTileTypeAt(cell);
+  }
+
+  /**
+   * Gets the shape of the board.
+   * @return the board geometry
+   */
+  @Override
+  public BoardGeometry getGeometry() {
+    return this.model.getGeometry();
+  }
+
+  /**
+   * Gets the Zobrist hash of the position.
+   * @return position hash
+   */
+  @Override
+  public long getPositionHash() {
+    return this.model.getPositionHash();
+  }
+
+  /**
+   * Gets the radius of the board.
+   * @return the radius
+   */
+  @Override
+  public int getRadius() {
+    return this.model.getRadius();
+  }
+
+  /**
+   * Gets whose turn it is.
+   * @return the color to move
+   */
+  @Override
+  public TileType getTurn() {
+    return this.model.getTurn();
+  }
+
+  /**
+   * Gets the number of tiles on the board.
+   * @return board size
+   */
+  @Override
+  public int getBoardSize() {
+    return this.model.getBoardSize();
+  }
+
+  /**
+   * Gets the black score.
+   * @return number of black tiles
+   */
+  @Override
+  public int getBlackScore() {
+    return this.model.getBlackScore();
+  }
+
+  /**
+   * Gets the white score.
+   * @return number of white tiles
+   */
+  @Override
+  public int getWhiteScore() {
+    return this.model.getWhiteScore();
+  }
+
+  /**
+   * Tells whether the game is over.
+   * @return true if the game is over
+   */
+  @Override
+  public boolean isGameOver() {
+    return this.model.isGameOver();
+  }
+
+  /**
+   * Gets how many passes were made in a row.
+   * @return passes in a row
+   */
+  @Override
+  public int getPassesInARow() {
+    return this.model.getPassesInARow();
+  }
+
+  /**
+   * Copies the board, counted as GET_COPY_OF_BOARD.
+   * @return copies of every tile
+   */
+  @Override
+  public List<Tile> getCopyOfBoard() {
+    long start = this.metrics.start();
+    try {
+      return this.model.getCopyOfBoard();
+    } finally {
+      this.metrics.record(Operation.GET_COPY_OF_BOARD, start);
+    }
+  }
+
+  /**
+   * Checks a move, counted as IS_MOVE_LEGAL.
+   * @param pos position of potential move
+   * @return true if legal
+   */
+  @Override
+  public boolean isMoveLegal(Position3D pos) {
+    long start = this.metrics.start();
+    try {
+      return this.model.isMoveLegal(pos);
+    } finally {
+      this.metrics.record(Operation.IS_MOVE_LEGAL, start);
+    }
+  }
+
+  /**
+   * Checks for any legal move, counted as HAS_LEGAL_MOVE.
+   * @return true if the side to move has a legal move
+   */
+  @Override
+  public boolean hasLegalMove() {
+    long start = this.metrics.start();
+    try {
+      return this.model.hasLegalMove();
+    } finally {
+      this.metrics.record(Operation.HAS_LEGAL_MOVE, start);
+    }
+  }
+
+  /**
+   * Finds every legal move, counted as LEGAL_MOVES.
+   * @param moves array to fill with cell ids
+   * @return how many moves were written
+   * @throws IllegalArgumentException if the array is too short to hold every cell
+   */
+  @Override
+  public int legalMoves(int[] moves) throws IllegalArgumentException {
+    long start = this.metrics.start();
+    try {
+      return this.model.legalMoves(moves);
+    } finally {
+      this.metrics.record(Operation.LEGAL_MOVES, start);
+    }
+  }
+
+  /**
+   * Gets how many tiles a move would flip, counted as GET_FLIP_COUNT.
+   * @param pos position of potential move
+   * @return amount of flipped tiles, or 0 if the move is not legal
+   * @throws IllegalArgumentException if the position is not on the board
+   */
+  @Override
+  public int getFlipCount(Position3D pos) throws IllegalArgumentException {
+    long start = this.metrics.start();
+    try {
+      return this.model.getFlipCount(pos);
+    } finally {
+      this.metrics.record(Operation.GET_FLIP_COUNT, start);
+    }
+  }
+}
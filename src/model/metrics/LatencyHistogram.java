@@ -0,0 +1,158 @@
+package model.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds that any number of threads can record into without
+ * locking. Like HdrHistogram, the buckets are log-linear: every value below 32 has its own
+ * bucket, and each power of two above that is split into 16 buckets, so a bucket is never wider
+ * than about 6% of the values in it. Values up to about 36 minutes are kept apart; longer ones
+ * share the last bucket. Recording a value is one atomic increment of its bucket, plus updating
+ * the total and the maximum.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKETS = 16;
+  private static final long MAX_VALUE = (1L << 41) - 1;
+  private static final int BUCKETS = indexOf(MAX_VALUE) + 1;
+
+  private final AtomicLongArray counts;
+  private final LongAdder total;
+  private final AtomicLong max;
+
+  /**
+   * Constructs an empty histogram.
+   */
+  public LatencyHistogram() {
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.total = new LongAdder();
+    this.max = new AtomicLong();
+  }
+
+  /**
+   * Records one latency.
+   * @param nanos latency in nanoseconds; negative values count as 0
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    this.counts.incrementAndGet(indexOf(Math.min(value, MAX_VALUE)));
+    this.total.add(value);
+    if (value > this.max.get()) {
+      this.max.accumulateAndGet(value, Math::max);
+    }
+  }
+
+  /**
+   * Copies the histogram. Values recorded while it is being copied may be only partly in the copy.
+   * @return a new histogram with the same counts
+   */
+  public LatencyHistogram copy() {
+    LatencyHistogram copy = new LatencyHistogram();
+    for (int i = 0; i < BUCKETS; i++) {
+      copy.counts.set(i, this.counts.get(i));
+    }
+    copy.total.add(this.total.sum());
+    copy.max.set(this.max.get());
+    return copy;
+  }
+
+  /**
+   * Forgets every recorded value.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.counts.set(i, 0);
+    }
+    this.total.reset();
+    this.max.set(0);
+  }
+
+  /**
+   * Gets how many values were recorded.
+   * @return number of values
+   */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      count += this.counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * Gets the sum of the recorded values.
+   * @return total nanoseconds
+   */
+  public long getTotalNanos() {
+    return this.total.sum();
+  }
+
+  /**
+   * Gets the largest recorded value.
+   * @return nanoseconds, 0 if nothing was recorded
+   */
+  public long getMaxNanos() {
+    return this.max.get();
+  }
+
+  /**
+   * Gets the mean of the recorded values.
+   * @return nanoseconds, 0 if nothing was recorded
+   */
+  public double getMeanNanos() {
+    long count = this.getCount();
+    return count == 0 ? 0 : (double) this.getTotalNanos() / count;
+  }
+
+  /**
+   * Gets a percentile of the recorded values, as the top of the bucket it falls in (and never
+   * more than the maximum), or the maximum if it falls in the last bucket.
+   * @param percentile percentile from 0 to 100
+   * @return nanoseconds, 0 if nothing was recorded
+   * @throws IllegalArgumentException if the percentile isn't between 0 and 100
+   */
+  public long getPercentileNanos(double percentile) throws IllegalArgumentException {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+    long count = this.getCount();
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += this.counts.get(i);
+      if (seen >= rank && i < BUCKETS - 1) {
+        return Math.min(lowestValueOf(i + 1) - 1, this.getMaxNanos());
+      }
+    }
+    // The last bucket has no top, so its values are only known to be at most the maximum
+    return this.getMaxNanos();
+  }
+
+  /**
+   * Gets the bucket of a value.
+   * @param value value from 0 to MAX_VALUE
+   * @return bucket index
+   */
+  private static int indexOf(long value) {
+    // Values below 2 * SUB_BUCKETS are shifted by 0; each power of two above shifts one more
+    int shift = Math.max(0, 59 - Long.numberOfLeadingZeros(value));
+    return SUB_BUCKETS * shift + (int) (value >>> shift);
+  }
+
+  /**
+   * Gets the lowest value that goes in a bucket.
+   * @param index bucket index
+   * @return lowest value of the bucket
+   */
+  private static long lowestValueOf(int index) {
+    if (index < 2 * SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    return (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+  }
+}
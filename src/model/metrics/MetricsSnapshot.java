@@ -0,0 +1,111 @@
+package model.metrics;
+
+import java.util.Locale;
+
+/**
+ * The counters and latency histograms of a ModelMetrics at one moment. It doesn't change when the
+ * metrics do, and can be written out as text or as JSON.
+ */
+public final class MetricsSnapshot {
+  private final boolean timed;
+  private final long[] counts;
+  private final LatencyHistogram[] latencies;
+
+  /**
+   * Constructs a snapshot from copies of the counters and histograms.
+   * @param timed whether operations were timed
+   * @param counts how many times each operation ran, by ordinal
+   * @param latencies latencies of each operation, by ordinal; not shared with the metrics
+   */
+  MetricsSnapshot(boolean timed, long[] counts, LatencyHistogram[] latencies) {
+    this.timed = timed;
+    this.counts = counts;
+    this.latencies = latencies;
+  }
+
+  /**
+   * Tells whether operations were timed; if not, every latency is 0.
+   * @return true if latencies were recorded
+   */
+  public boolean isTimed() {
+    return this.timed;
+  }
+
+  /**
+   * Gets how many times an operation ran.
+   * @param operation the operation
+   * @return number of calls
+   */
+  public long getCount(Operation operation) {
+    return this.counts[operation.ordinal()];
+  }
+
+  /**
+   * Gets the latencies of an operation.
+   * @param operation the operation
+   * @return a copy of its histogram
+   */
+  public LatencyHistogram getLatencies(Operation operation) {
+    return this.latencies[operation.ordinal()].copy();
+  }
+
+  /**
+   * Writes the snapshot as one JSON object, with an entry for every operation that ran: its count
+   * and, if timed, its total, mean, median, 90th and 99th percentile and maximum latency in
+   * nanoseconds.
+   * @return JSON text
+   */
+  public String toJson() {
+    StringBuilder json = new StringBuilder("{\"timed\": ").append(this.timed)
+            .append(", \"operations\": {");
+    String separator = "";
+    for (Operation operation : Operation.values()) {
+      long count = this.getCount(operation);
+      if (count == 0) {
+        continue;
+      }
+      json.append(separator).append('"').append(operation).append("\": {\"count\": ").append(count);
+      if (this.timed) {
+        LatencyHistogram latency = this.latencies[operation.ordinal()];
+        json.append(String.format(Locale.ROOT, ", \"totalNanos\": %d, \"meanNanos\": %.1f, "
+                        + "\"p50Nanos\": %d, \"p90Nanos\": %d, \"p99Nanos\": %d, \"maxNanos\": %d",
+                latency.getTotalNanos(), latency.getMeanNanos(), latency.getPercentileNanos(50),
+                latency.getPercentileNanos(90), latency.getPercentileNanos(99),
+                latency.getMaxNanos()));
+      }
+      json.append('}');
+      separator = ", ";
+    }
+    return json.append("}}").toString();
+  }
+
+  /**
+   * Writes the snapshot as a table with a line for every operation that ran.
+   * @return the table
+   */
+  @Override
+  public String toString() {
+    StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-20s %12s", "operation",
+            "count"));
+    if (this.timed) {
+      table.append(String.format(Locale.ROOT, " %10s %10s %10s %12s", "mean ns", "p50 ns",
+              "p99 ns", "max ns"));
+    }
+    table.append('\n');
+    for (Operation operation : Operation.values()) {
+      long count = this.getCount(operation);
+      if (count == 0) {
+        continue;
+      }
+      table.append(String.format(Locale.ROOT, "%-20s %12d", operation, count));
+      if (this.timed) {
+        LatencyHistogram latency = this.latencies[operation.ordinal()];
+        table.append(String.format(Locale.ROOT, " %10.1f %10d %10d %12d", latency.getMeanNanos(),
+                latency.getPercentileNanos(50), latency.getPercentileNanos(99),
+                latency.getMaxNanos()));
+      }
+      table.append('\n');
+    }
+    return table.toString();
+  }
+}
@@ -0,0 +1,83 @@
+package model.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for each model operation, filled in by InstrumentedReversiModel.
+ * One instance can be shared by any number of models on any number of threads: the counters are
+ * LongAdders and the histograms are lock-free, so recording never blocks. Timing an operation
+ * costs two System.nanoTime calls, so it can be turned off to keep only the counters.
+ */
+public final class ModelMetrics {
+  private final boolean timed;
+  private final LongAdder[] counts;
+  private final LatencyHistogram[] latencies;
+
+  /**
+   * Constructs metrics with every counter at 0.
+   * @param timed whether operations are timed as well as counted
+   */
+  public ModelMetrics(boolean timed) {
+    this.timed = timed;
+    Operation[] operations = Operation.values();
+    this.counts = new LongAdder[operations.length];
+    this.latencies = new LatencyHistogram[operations.length];
+    for (int i = 0; i < operations.length; i++) {
+      this.counts[i] = new LongAdder();
+      this.latencies[i] = new LatencyHistogram();
+    }
+  }
+
+  /**
+   * Tells whether operations are timed.
+   * @return true if latencies are recorded
+   */
+  public boolean isTimed() {
+    return this.timed;
+  }
+
+  /**
+   * Gets the time an operation starts at.
+   * @return System.nanoTime, or 0 if operations aren't timed
+   */
+  long start() {
+    return this.timed ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Counts an operation that has just finished and records how long it took.
+   * @param operation the operation
+   * @param start what start returned when it began
+   */
+  void record(Operation operation, long start) {
+    this.counts[operation.ordinal()].increment();
+    if (this.timed) {
+      this.latencies[operation.ordinal()].record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Copies the counters and histograms as they are now. Operations finishing meanwhile may be in
+   * some of them and not others.
+   * @return the snapshot
+   */
+  public MetricsSnapshot snapshot() {
+    long[] counts = new long[this.counts.length];
+    LatencyHistogram[] latencies = new LatencyHistogram[this.latencies.length];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = this.counts[i].sum();
+      latencies[i] = this.latencies[i].copy();
+    }
+    return new MetricsSnapshot(this.timed, counts, latencies);
+  }
+
+  /**
+   * Sets every counter back to 0 and empties the histograms.
+   */
+  public void reset() {
+    for (int i = 0; i < this.counts.length; i++) {
+      this.counts[i].reset();
+      this.latencies[i].reset();
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package model.metrics;
+
+/**
+ * The model operations an InstrumentedReversiModel counts and times.
+ */
+public enum Operation {
+  PLACE_TILE,
+  PASS,
+  MAKE_MOVE,
+  MAKE_PASS,
+  UNDO_MOVE,
+  IS_MOVE_LEGAL,
+  HAS_LEGAL_MOVE,
+  LEGAL_MOVES,
+  GET_FLIP_COUNT,
+  GET_TILE_AT,
+  GET_COPY_OF_TILE_AT,
+  GET_COPY_OF_BOARD,
+  COPY
+}
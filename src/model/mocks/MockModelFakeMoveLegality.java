@@ -35,4 +35,20 @@ public class MockModelFakeMoveLegality extends ReversiModelImpl implements IReve
       return pos.getR() >= 1;
     }
   }
+
+  /**
+   * Finds the legal moves by asking the fake isMoveLegal about every position.
+   * @param moves array to fill with cell ids
+   * @return how many moves were written
+   */
+  @Override
+  public int legalMoves(int[] moves) {
+    int count = 0;
+    for (int cell = 0; cell < this.geometry.getCellCount(); cell++) {
+      if (this.isMoveLegal(this.geometry.getPosition(cell))) {
+        moves[count++] = cell;
+      }
+    }
+    return count;
+  }
 }
@@ -59,6 +59,22 @@ public class MockModelLoggingObservations extends ReversiModelImpl implements IR
     return super.isMoveLegal(pos);
   }
 
+  /**
+   * Finds the legal moves by checking every position with isMoveLegal, so each check is logged.
+   * @param moves array to fill with cell ids
+   * @return how many moves were written
+   */
+  @Override
+  public int legalMoves(int[] moves) {
+    int count = 0;
+    for (int cell = 0; cell < this.geometry.getCellCount(); cell++) {
+      if (this.isMoveLegal(this.geometry.getPosition(cell))) {
+        moves[count++] = cell;
+      }
+    }
+    return count;
+  }
+
   /**
    * Returns the log of this mock.
    * @return The log value of this mock.
@@ -1,9 +1,7 @@
 package model.player;
 
 import model.IReversiModel;
-import model.SquareReversiModelImpl;
 import model.position.Position3D;
-import model.ReversiModelImpl;
 import model.tile.TileType;
 
 import java.util.List;
@@ -13,7 +11,9 @@ import java.util.List;
  * This is the basic version that makes the highest scoring move every time.
  */
 public class AIPlayer extends HumanPlayer implements Player {
-
+  protected TranspositionTable table;
+  protected EndgameSolver endgameSolver;
+  protected OpeningBook book;
 
   /**
    * Constructs an AIPlayer.
@@ -24,6 +24,89 @@ public class AIPlayer extends HumanPlayer implements Player {
     super(playerColor, model);
   }
 
+  /**
+   * Lets the player remember its decisions in the given table, keyed by position hash, so it
+   * doesn't work out the same position twice. A table should only be shared between players of
+   * the same kind, since they all trust what is in it.
+   * @param table table to use, or null to work out every decision from scratch
+   */
+  public void setTranspositionTable(TranspositionTable table) {
+    this.table = table;
+  }
+
+  /**
+   * Lets the player hand the end of the game over to the given solver, which plays perfectly once
+   * there are few enough empty cells left (see EndgameSolver.getMaxEmpties).
+   * @param solver solver to use, or null to play the whole game with the player's own strategy
+   */
+  public void setEndgameSolver(EndgameSolver solver) {
+    this.endgameSolver = solver;
+  }
+
+  /**
+   * Lets the player take its moves from the given opening book while the game is still in it.
+   * @param book book to use, or null to work out every move
+   */
+  public void setOpeningBook(OpeningBook book) {
+    this.book = book;
+  }
+
+  /**
+   * Looks up the current position in the opening book.
+   * @return the book move, or null if there is no book, the position isn't in it, or it isn't
+   *         the player's turn
+   */
+  protected Position3D lookUpBook() {
+    if (this.book == null || !this.model.getTurn().equals(this.playerColor)) {
+      return null;
+    }
+    return this.book.lookUp(this.model);
+  }
+
+  /**
+   * Works out the perfect move with the endgame solver, if the player has one and the game is
+   * close enough to the end.
+   * @return the perfect move, or null if there is no solver, the solver doesn't take this
+   *         position, or it isn't the player's turn
+   */
+  protected Position3D solveEndgame() {
+    if (this.endgameSolver == null || !this.model.getTurn().equals(this.playerColor)
+            || !this.endgameSolver.canSolve(this.model)) {
+      return null;
+    }
+    this.endgameSolver.solve(this.model);
+    return this.endgameSolver.getBestMove();
+  }
+
+  /**
+   * Looks up the move this kind of player already chose in the current position.
+   * @return the remembered move, or null if there is no table, no entry, or it isn't the
+   *         player's turn
+   */
+  protected Position3D recallMove() {
+    if (this.table == null || !this.model.getTurn().equals(this.playerColor)) {
+      return null;
+    }
+    long entry = this.table.probe(this.model.getPositionHash());
+    if (entry == 0L || TranspositionTable.moveOf(entry) < 0) {
+      return null;
+    }
+    Position3D move = this.model.getGeometry().getPosition(TranspositionTable.moveOf(entry));
+    // A different position with the same hash could have left a move that is illegal here
+    return this.model.isMoveLegal(move) ? move : null;
+  }
+
+  /**
+   * Remembers the move chosen in the current position, if the player has a table.
+   * @param move chosen move
+   */
+  protected void rememberMove(Position3D move) {
+    if (this.table != null) {
+      this.table.store(this.model.getPositionHash(), 0, 0, TranspositionTable.EXACT,
+              this.model.getGeometry().indexOf(move));
+    }
+  }
+
   /**
    * Gets the position that increases the player's score the most out of provided possible moves.
    * Tie-break is made by minimizing distance from top left corner.
@@ -43,35 +126,19 @@ public class AIPlayer extends HumanPlayer implements Player {
     }
     // Slight change here to make top left position 0, 0 for square
     Position3D topLeftPos = new Position3D(0, 0, 0);
-    if (!(this.model instanceof SquareReversiModelImpl)) {
+    if (!this.model.getGeometry().isSquare()) {
       topLeftPos = this.model.getCopyOfTileAt(new Position3D(0,
               -1 * this.model.getRadius() + 1, this.model.getRadius() - 1)).getPos();
     }
     Position3D currentHighestScoringMove = null;
     int currentMaxScoreIncrease = 0;
-    int oldScore;
-    if (this.playerColor.equals(TileType.BLACK)) {
-      oldScore = this.model.getBlackScore();
-    } else {
-      oldScore = this.model.getWhiteScore();
-    }
     for (Position3D pos : possibleMoves) {
-      int newScore;
-      IReversiModel tempModel = new ReversiModelImpl(this.model);
-      // Make temp model a square version if necessary
-      if (this.model instanceof SquareReversiModelImpl) {
-        tempModel = new SquareReversiModelImpl(this.model);
-      }
-      tempModel.placeTile(pos);
-      if (this.playerColor.equals(TileType.BLACK)) {
-        newScore = tempModel.getBlackScore();
-      } else {
-        newScore = tempModel.getWhiteScore();
-      }
-      if (newScore - oldScore > currentMaxScoreIncrease) {
+      // The placed tile plus every flipped one, as cached by the model for this position
+      int scoreIncrease = this.model.getFlipCount(pos) + 1;
+      if (scoreIncrease > currentMaxScoreIncrease) {
         currentHighestScoringMove = pos;
-        currentMaxScoreIncrease = newScore - oldScore;
-      } else if (newScore - oldScore == currentMaxScoreIncrease) {
+        currentMaxScoreIncrease = scoreIncrease;
+      } else if (scoreIncrease == currentMaxScoreIncrease) {
         assert currentHighestScoringMove != null;
         if (pos.getDistanceFrom(topLeftPos)
                 < currentHighestScoringMove.getDistanceFrom(topLeftPos)) {
@@ -95,7 +162,21 @@ public class AIPlayer extends HumanPlayer implements Player {
    */
   @Override
   public Position3D getOptimalMove() throws IllegalStateException {
-    return this.getHighestScoringMove(this.getAvailableMoves());
+    Position3D booked = this.lookUpBook();
+    if (booked != null) {
+      return booked;
+    }
+    Position3D solved = this.solveEndgame();
+    if (solved != null) {
+      return solved;
+    }
+    Position3D remembered = this.recallMove();
+    if (remembered != null) {
+      return remembered;
+    }
+    Position3D move = this.getHighestScoringMove(this.getAvailableMoves());
+    this.rememberMove(move);
+    return move;
   }
 
   /**
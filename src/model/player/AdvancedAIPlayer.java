@@ -1,8 +1,8 @@
 package model.player;
 
+import model.BitboardReversiModelImpl;
 import model.IReversiModel;
 import model.position.Position3D;
-import model.ReversiModelImpl;
 import model.tile.TileType;
 
 import java.util.ArrayList;
@@ -114,12 +114,13 @@ public class AdvancedAIPlayer extends AIPlayer implements Player {
       throw new IllegalStateException("Not the player's turn.");
     }
     List<Position3D> moves = new ArrayList<>();
+    IReversiModel tempModel = new BitboardReversiModelImpl(this.model);
     for (Position3D pos : this.getAvailableMoves()) {
-      IReversiModel tempModel = new ReversiModelImpl(this.model);
-      tempModel.placeTile(pos);
+      tempModel.makeMove(pos);
       if (!tempModel.hasLegalMove()) {
         moves.add(pos);
       }
+      tempModel.undoMove();
     }
     return moves;
   }
@@ -135,27 +136,53 @@ public class AdvancedAIPlayer extends AIPlayer implements Player {
     if (!this.model.getTurn().equals(this.playerColor)) {
       throw new IllegalStateException("Not the player's turn.");
     }
-    List<Position3D> cornersThatLeaveOpponentWithNothing = new ArrayList<>(this.getCornerMoves());
-    cornersThatLeaveOpponentWithNothing.retainAll(this.getMovesThatLeaveOpponentWithNothing());
+    Position3D booked = this.lookUpBook();
+    if (booked != null) {
+      return booked;
+    }
+    Position3D solved = this.solveEndgame();
+    if (solved != null) {
+      return solved;
+    }
+    Position3D remembered = this.recallMove();
+    if (remembered != null) {
+      return remembered;
+    }
+    Position3D move = this.chooseMove();
+    this.rememberMove(move);
+    return move;
+  }
+
+  /**
+   * Works out the optimal move by going through the strategies in order of preference.
+   * @return position for optimal move
+   * @throws IllegalStateException if there are no legal moves
+   */
+  private Position3D chooseMove() throws IllegalStateException {
+    // Each list is worked out once and shared by the strategies that need it
+    List<Position3D> cornerMoves = this.getCornerMoves();
+    List<Position3D> leaveOpponentWithNothing = this.getMovesThatLeaveOpponentWithNothing();
+    List<Position3D> cornersThatLeaveOpponentWithNothing = new ArrayList<>(cornerMoves);
+    cornersThatLeaveOpponentWithNothing.retainAll(leaveOpponentWithNothing);
     if (!cornersThatLeaveOpponentWithNothing.isEmpty()) {
       return super.getHighestScoringMove(cornersThatLeaveOpponentWithNothing);
     }
-    if (!this.getCornerMoves().isEmpty()) {
-      return super.getHighestScoringMove(this.getCornerMoves());
+    if (!cornerMoves.isEmpty()) {
+      return super.getHighestScoringMove(cornerMoves);
     }
-    List<Position3D> minimizingOpponentAndNotNextToCorner =
-            new ArrayList<>(this.getAvailableMovesNotNextToCorners());
-    minimizingOpponentAndNotNextToCorner.retainAll(this.getMovesThatLeaveOpponentWithNothing());
+    List<Position3D> notNextToCorners = this.getAvailableMovesNotNextToCorners();
+    List<Position3D> minimizingOpponentAndNotNextToCorner = new ArrayList<>(notNextToCorners);
+    minimizingOpponentAndNotNextToCorner.retainAll(leaveOpponentWithNothing);
     if (!minimizingOpponentAndNotNextToCorner.isEmpty()) {
       return super.getHighestScoringMove(minimizingOpponentAndNotNextToCorner);
     }
-    if (!this.getMovesThatLeaveOpponentWithNothing().isEmpty()) {
-      return super.getHighestScoringMove(this.getMovesThatLeaveOpponentWithNothing());
+    if (!leaveOpponentWithNothing.isEmpty()) {
+      return super.getHighestScoringMove(leaveOpponentWithNothing);
     }
-    if (!this.getAvailableMovesNotNextToCorners().isEmpty()) {
-      return super.getHighestScoringMove(this.getAvailableMovesNotNextToCorners());
+    if (!notNextToCorners.isEmpty()) {
+      return super.getHighestScoringMove(notNextToCorners);
     }
-    return super.getOptimalMove();
+    return super.getHighestScoringMove(this.getAvailableMoves());
   }
 
   /**
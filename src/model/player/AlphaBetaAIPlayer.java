@@ -0,0 +1,234 @@
+package model.player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.IReversiModel;
+import model.evaluation.Evaluator;
+import model.evaluation.WeightedEvaluator;
+import model.position.Position3D;
+import model.tile.TileType;
+
+/**
+ * An AI player that looks ahead with a negamax search with alpha-beta pruning.
+ * It deepens the search one ply at a time until its time budget for the move runs out (or a
+ * maximum depth is reached), and plays the best move of the deepest search it got to, so it plays
+ * stronger the more time it is given. Results are kept in a transposition table between moves.
+ * With more than one thread, helper threads search the same position at the same time and share
+ * the table (Lazy SMP), and the move is still the one found by the calling thread. With one
+ * thread (the default) nothing runs in the background, and a fixed depth gives repeatable moves.
+ * Positions the search doesn't go past are scored by a WeightedEvaluator with its default weights,
+ * unless the player is given another evaluator.
+ */
+public class AlphaBetaAIPlayer extends AIPlayer implements Player {
+  private static final int DEFAULT_TABLE_MEGABYTES = 16;
+  private static final int DEFAULT_MAX_DEPTH = 64;
+
+  protected final long millisPerMove;
+  protected final int maxDepth;
+  protected final int threads;
+  private ExecutorService helpers;
+  private Evaluator evaluator;
+  private int lastDepth;
+  private long lastNodes;
+  private int lastScore;
+
+  /**
+   * Constructs a search player that thinks for at most the given time per move.
+   * @param playerColor The color of the player
+   * @param model       The model to use as reference for the player
+   * @param millisPerMove time budget per move, in milliseconds
+   * @throws IllegalArgumentException if the time budget is not positive
+   */
+  public AlphaBetaAIPlayer(TileType playerColor, IReversiModel model, long millisPerMove)
+          throws IllegalArgumentException {
+    this(playerColor, model, millisPerMove, DEFAULT_MAX_DEPTH);
+  }
+
+  /**
+   * Constructs a search player with a time budget per move and a maximum search depth.
+   * With a generous time budget, the depth alone decides the move, so the player is repeatable.
+   * @param playerColor The color of the player
+   * @param model       The model to use as reference for the player
+   * @param millisPerMove time budget per move, in milliseconds
+   * @param maxDepth deepest search, in plies
+   * @throws IllegalArgumentException if the time budget or the depth is not positive
+   */
+  public AlphaBetaAIPlayer(TileType playerColor, IReversiModel model, long millisPerMove,
+                           int maxDepth) throws IllegalArgumentException {
+    this(playerColor, model, millisPerMove, maxDepth, 1);
+  }
+
+  /**
+   * Constructs a search player that searches on several threads at once.
+   * @param playerColor The color of the player
+   * @param model       The model to use as reference for the player
+   * @param millisPerMove time budget per move, in milliseconds
+   * @param maxDepth deepest search, in plies
+   * @param threads how many threads search each move, counting the one calling getOptimalMove
+   * @throws IllegalArgumentException if the time budget, depth or thread count is not positive
+   */
+  public AlphaBetaAIPlayer(TileType playerColor, IReversiModel model, long millisPerMove,
+                           int maxDepth, int threads) throws IllegalArgumentException {
+    super(playerColor, model);
+    if (millisPerMove <= 0) {
+      throw new IllegalArgumentException("Time per move must be positive");
+    }
+    if (maxDepth <= 0) {
+      throw new IllegalArgumentException("Search depth must be positive");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    this.millisPerMove = millisPerMove;
+    this.maxDepth = maxDepth;
+    this.threads = threads;
+    this.table = new TranspositionTable(DEFAULT_TABLE_MEGABYTES);
+    this.evaluator = new WeightedEvaluator();
+  }
+
+  /**
+   * Makes the search score the positions it doesn't go past with the given evaluator. This also
+   * clears the transposition table, whose scores came from the old one.
+   * @param evaluator evaluator to use
+   * @throws IllegalArgumentException if the evaluator is null
+   */
+  public void setEvaluator(Evaluator evaluator) throws IllegalArgumentException {
+    if (evaluator == null) {
+      throw new IllegalArgumentException("Evaluator can't be null");
+    }
+    this.evaluator = evaluator;
+    if (this.table != null) {
+      this.table.clear();
+    }
+  }
+
+  /**
+   * Gets the optimal move for the player by searching until the time budget runs out.
+   * @return position for optimal move
+   * @throws IllegalStateException if it isn't the player's turn
+   * @throws IllegalStateException if there are no legal moves
+   */
+  @Override
+  public Position3D getOptimalMove() throws IllegalStateException {
+    long deadline = System.nanoTime() + this.millisPerMove * 1_000_000L;
+    if (!this.model.getTurn().equals(this.playerColor)) {
+      throw new IllegalStateException("Not the player's turn.");
+    }
+    int count = this.model.legalMoves(this.moveBuffer);
+    if (count == 0) {
+      throw new IllegalStateException("No available moves.");
+    }
+    if (count == 1) {
+      this.lastDepth = 0;
+      this.lastNodes = 0;
+      this.lastScore = 0;
+      return this.model.getGeometry().getPosition(this.moveBuffer[0]);
+    }
+    Position3D booked = this.lookUpBook();
+    if (booked != null) {
+      this.lastDepth = 0;
+      this.lastNodes = 0;
+      this.lastScore = this.book.getScore(this.book.find(this.model));
+      return booked;
+    }
+    Position3D solved = this.solveEndgame();
+    if (solved != null) {
+      this.lastDepth = 0;
+      this.lastNodes = this.endgameSolver.getNodeCount();
+      this.lastScore = this.endgameSolver.getDifferential();
+      return solved;
+    }
+    if (this.table == null) {
+      this.table = new TranspositionTable(DEFAULT_TABLE_MEGABYTES);
+    }
+    this.table.newSearch();
+    List<AlphaBetaSearch> helperSearches = new ArrayList<>();
+    List<Future<Integer>> helperRuns = new ArrayList<>();
+    for (int i = 1; i < this.threads; i++) {
+      AlphaBetaSearch helper = new AlphaBetaSearch(this.model, this.table, this.evaluator,
+              this.maxDepth);
+      // Half of the helpers start a ply deeper, so the threads spread over different depths
+      int firstDepth = 1 + i % 2;
+      helperSearches.add(helper);
+      helperRuns.add(this.getHelpers().submit(() -> helper.run(deadline, firstDepth)));
+    }
+    AlphaBetaSearch search = new AlphaBetaSearch(this.model, this.table, this.evaluator,
+            this.maxDepth);
+    int move = search.run(deadline);
+    this.lastDepth = search.getCompletedDepth();
+    this.lastNodes = search.getNodes();
+    this.lastScore = search.getBestScore();
+    for (AlphaBetaSearch helper : helperSearches) {
+      helper.stop();
+    }
+    for (int i = 0; i < helperRuns.size(); i++) {
+      try {
+        helperRuns.get(i).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Search thread failed", e.getCause());
+      }
+      this.lastNodes += helperSearches.get(i).getNodes();
+    }
+    return this.model.getGeometry().getPosition(move);
+  }
+
+  /**
+   * Shuts down the pool of helper threads, if it was started. A later move starts a new one.
+   */
+  @Override
+  public void close() {
+    if (this.helpers != null) {
+      this.helpers.shutdown();
+      this.helpers = null;
+    }
+  }
+
+  /**
+   * Gets the pool running the helper searches, starting it the first time. Its threads are
+   * daemons, so they never keep the program running, but they stay until close is called.
+   * @return the helper pool
+   */
+  private ExecutorService getHelpers() {
+    if (this.helpers == null) {
+      this.helpers = Executors.newFixedThreadPool(this.threads - 1, runnable -> {
+        Thread thread = new Thread(runnable, "search-helper");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return this.helpers;
+  }
+
+  /**
+   * Gets the deepest search the latest move finished.
+   * @return depth in plies, 0 if the move was forced or solved by the endgame solver
+   */
+  public int getLastDepth() {
+    return this.lastDepth;
+  }
+
+  /**
+   * Gets the score of the latest move for the player, from the evaluator's point of view.
+   * @return search score, the final disc difference if the endgame solver chose the move, the
+   *         book score if the opening book did, or 0 if the move was forced
+   */
+  public int getLastScore() {
+    return this.lastScore;
+  }
+
+  /**
+   * Gets how many positions the latest move searched, over all threads.
+   * @return node count
+   */
+  public long getLastNodeCount() {
+    return this.lastNodes;
+  }
+}
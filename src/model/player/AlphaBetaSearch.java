@@ -0,0 +1,284 @@
+package model.player;
+
+import model.BitboardReversiModelImpl;
+import model.ReadonlyIReversiModel;
+import model.evaluation.Evaluator;
+import model.geometry.BoardGeometry;
+import model.tile.TileType;
+
+/**
+ * One negamax search with alpha-beta pruning, run on a private bitboard copy of the game with
+ * makeMove and undoMove, so the real game is never touched and no observers are alerted.
+ * The search deepens one ply at a time. The root moves of each iteration are tried in the order
+ * of the scores the previous iteration gave them, and every other position tries the best move
+ * stored in the transposition table first. When the deadline passes, or another thread calls
+ * stop, the search stops and keeps the best move found so far.
+ * Several searches of the same position can run at once on different threads, sharing one
+ * transposition table (Lazy SMP), so each one finds what the others have already worked out.
+ * Positions the search doesn't go past are scored by the evaluator it is given.
+ * Scores are from the point of view of the side to move.
+ */
+final class AlphaBetaSearch {
+  // A won game is worth more than any evaluation, and more discs win by more
+  static final int WIN = 1_000_000;
+  private static final int INFINITY = 2 * WIN;
+  // How many nodes go by between looks at the clock
+  private static final int CLOCK_MASK = 1023;
+
+  private final BitboardReversiModelImpl board;
+  private final BoardGeometry geometry;
+  private final TranspositionTable table;
+  private final Evaluator evaluator;
+  private final int maxDepth;
+  private final int[][] moves;
+  private final int[] rootMoves;
+  private final int[] rootScores;
+  private int rootCount;
+  private long deadline;
+  private volatile boolean stopRequested;
+  private boolean stopped;
+  private long nodes;
+  private int bestMove;
+  private int bestScore;
+  private int completedDepth;
+
+  /**
+   * Sets up a search of the given position.
+   * @param model game to search, which is copied
+   * @param table table shared by the searches of this player
+   * @param evaluator scores the positions the search doesn't go past
+   * @param maxDepth deepest iteration to run, in plies
+   */
+  AlphaBetaSearch(ReadonlyIReversiModel model, TranspositionTable table, Evaluator evaluator,
+                  int maxDepth) {
+    this.board = new BitboardReversiModelImpl(model);
+    this.geometry = model.getGeometry();
+    this.table = table;
+    this.evaluator = evaluator;
+    this.evaluator.attach(this.board);
+    this.maxDepth = maxDepth;
+    this.moves = new int[maxDepth + 1][this.geometry.getCellCount()];
+    this.rootMoves = new int[this.geometry.getCellCount()];
+    this.rootScores = new int[this.geometry.getCellCount()];
+  }
+
+  /**
+   * Searches deeper and deeper until the deadline or the maximum depth.
+   * The side to move must have a legal move.
+   * @param deadlineNanos System.nanoTime() value at which to stop
+   * @return cell id of the best move found
+   */
+  int run(long deadlineNanos) {
+    return this.run(deadlineNanos, 1);
+  }
+
+  /**
+   * Searches deeper and deeper, starting from the given depth, until the deadline or the maximum
+   * depth. Helper threads start at different depths so they don't all search the same tree.
+   * The side to move must have a legal move.
+   * @param deadlineNanos System.nanoTime() value at which to stop
+   * @param firstDepth depth of the first iteration
+   * @return cell id of the best move found
+   */
+  int run(long deadlineNanos, int firstDepth) {
+    this.deadline = deadlineNanos;
+    this.stopped = this.stopRequested;
+    this.nodes = 0;
+    this.completedDepth = 0;
+    this.rootCount = this.board.legalMoves(this.rootMoves);
+    this.moveToFront(this.rootMoves, this.rootCount,
+            TranspositionTable.moveOf(this.table.probe(this.board.getPositionHash())));
+    this.bestMove = this.rootMoves[0];
+    this.bestScore = 0;
+    for (int depth = Math.min(firstDepth, this.maxDepth); depth <= this.maxDepth; depth++) {
+      int alpha = -INFINITY;
+      int iterationBest = -1;
+      for (int i = 0; i < this.rootCount; i++) {
+        this.board.makeMove(this.geometry.getPosition(this.rootMoves[i]));
+        int score = -this.negamax(depth - 1, -INFINITY, -alpha, 1);
+        this.board.undoMove();
+        if (this.stopped) {
+          break;
+        }
+        this.rootScores[i] = score;
+        if (score > alpha) {
+          alpha = score;
+          iterationBest = this.rootMoves[i];
+        }
+      }
+      // The previous best move is searched first, so anything that beat it before time ran
+      // out is at least as good
+      if (iterationBest >= 0) {
+        this.bestMove = iterationBest;
+        this.bestScore = alpha;
+      }
+      if (this.stopped) {
+        break;
+      }
+      this.completedDepth = depth;
+      this.table.store(this.board.getPositionHash(), depth, alpha, TranspositionTable.EXACT,
+              iterationBest);
+      this.sortRootMoves();
+      if (Math.abs(alpha) >= WIN || depth >= this.geometry.getCellCount()) {
+        break;
+      }
+    }
+    return this.bestMove;
+  }
+
+  /**
+   * Asks a run on another thread to stop the next time it looks at the clock.
+   */
+  void stop() {
+    this.stopRequested = true;
+  }
+
+  /**
+   * Gets how many positions the latest run visited.
+   * @return node count
+   */
+  long getNodes() {
+    return this.nodes;
+  }
+
+  /**
+   * Gets the deepest iteration the latest run finished.
+   * @return depth in plies
+   */
+  int getCompletedDepth() {
+    return this.completedDepth;
+  }
+
+  /**
+   * Gets the score of the best move found by the latest run.
+   * @return score for the side to move at the root
+   */
+  int getBestScore() {
+    return this.bestScore;
+  }
+
+  /**
+   * Searches a position to the given depth.
+   * @param depth plies left
+   * @param alpha score the side to move is already sure of
+   * @param beta score the opponent is already sure of
+   * @param ply distance from the root, which picks the move buffer
+   * @return score of the position, or 0 if the search was stopped
+   */
+  private int negamax(int depth, int alpha, int beta, int ply) {
+    if ((++this.nodes & CLOCK_MASK) == 0
+            && (this.stopRequested || System.nanoTime() - this.deadline >= 0)) {
+      this.stopped = true;
+    }
+    if (this.stopped) {
+      return 0;
+    }
+    if (this.board.isGameOver()) {
+      return this.finalScore();
+    }
+    long hash = this.board.getPositionHash();
+    long entry = this.table.probe(hash);
+    if (entry != 0L && TranspositionTable.depthOf(entry) >= depth) {
+      int stored = TranspositionTable.scoreOf(entry);
+      int bound = TranspositionTable.boundOf(entry);
+      if (bound == TranspositionTable.EXACT
+              || (bound == TranspositionTable.LOWER_BOUND && stored >= beta)
+              || (bound == TranspositionTable.UPPER_BOUND && stored <= alpha)) {
+        return stored;
+      }
+    }
+    if (depth == 0) {
+      return this.evaluator.evaluate(this.board);
+    }
+    int[] buffer = this.moves[ply];
+    int count = this.board.legalMoves(buffer);
+    if (count == 0) {
+      this.board.makePass();
+      int score = -this.negamax(depth - 1, -beta, -alpha, ply + 1);
+      this.board.undoMove();
+      return score;
+    }
+    this.moveToFront(buffer, count, TranspositionTable.moveOf(entry));
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestCell = -1;
+    for (int i = 0; i < count; i++) {
+      this.board.makeMove(this.geometry.getPosition(buffer[i]));
+      int score = -this.negamax(depth - 1, -beta, -alpha, ply + 1);
+      this.board.undoMove();
+      if (this.stopped) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        bestCell = buffer[i];
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    int bound = TranspositionTable.EXACT;
+    if (best <= originalAlpha) {
+      bound = TranspositionTable.UPPER_BOUND;
+    } else if (best >= beta) {
+      bound = TranspositionTable.LOWER_BOUND;
+    }
+    this.table.store(hash, depth, best, bound, bestCell);
+    return best;
+  }
+
+  /**
+   * Scores a finished game.
+   * @return WIN plus the margin for a win, minus that for a loss, 0 for a draw
+   */
+  private int finalScore() {
+    int difference = this.discDifference();
+    return Integer.signum(difference) * WIN + difference;
+  }
+
+  /**
+   * Gets how many more discs the side to move has than the opponent.
+   * @return disc difference
+   */
+  private int discDifference() {
+    int difference = this.board.getBlackScore() - this.board.getWhiteScore();
+    return this.board.getTurn() == TileType.BLACK ? difference : -difference;
+  }
+
+  /**
+   * Moves the given cell to the front of a move list, keeping the rest in order.
+   * @param list cell ids
+   * @param count how many entries are in use
+   * @param cell cell to move, ignored if it is not in the list
+   */
+  private void moveToFront(int[] list, int count, int cell) {
+    for (int i = 0; i < count; i++) {
+      if (list[i] == cell) {
+        System.arraycopy(list, 0, list, 1, i);
+        list[0] = cell;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Sorts the root moves from best to worst score of the latest iteration, keeping ties in order.
+   */
+  private void sortRootMoves() {
+    for (int i = 1; i < this.rootCount; i++) {
+      int move = this.rootMoves[i];
+      int score = this.rootScores[i];
+      int j = i - 1;
+      while (j >= 0 && this.rootScores[j] < score) {
+        this.rootMoves[j + 1] = this.rootMoves[j];
+        this.rootScores[j + 1] = this.rootScores[j];
+        j--;
+      }
+      this.rootMoves[j + 1] = move;
+      this.rootScores[j + 1] = score;
+    }
+  }
+}
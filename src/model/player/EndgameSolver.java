@@ -0,0 +1,325 @@
+package model.player;
+
+import model.BitboardReversiModelImpl;
+import model.IReversiModel;
+import model.ReadonlyIReversiModel;
+import model.geometry.BoardGeometry;
+import model.position.Position3D;
+import model.tile.TileType;
+
+/**
+ * Works out the perfect move near the end of a game, by searching every line to the end with
+ * alpha-beta and scoring it by the final disc difference.
+ * It is meant for the last few empty cells, where this is cheap: players given a solver use it
+ * once there are at most getMaxEmpties() empty cells left. Moves that leave the opponent the
+ * fewest replies are tried first (fastest first), and after that moves in a region of the board
+ * with an odd number of empty cells (parity), since the last move in a region is usually worth the
+ * most. The solver has its own small transposition table, so it doesn't push the entries of a
+ * midgame search out of theirs.
+ * A solver keeps the results of its latest solve, so each player should have its own.
+ */
+public final class EndgameSolver {
+  // Most empty cells a player hands to the solver, unless told otherwise
+  public static final int DEFAULT_MAX_EMPTIES = 12;
+  private static final int DEFAULT_TABLE_MEGABYTES = 4;
+  // With fewer empty cells than this, sorting the moves costs more than it saves
+  private static final int FASTEST_FIRST_EMPTIES = 7;
+  // With fewer empty cells than this, the table costs more than it saves
+  private static final int TABLE_EMPTIES = 6;
+
+  private final int maxEmpties;
+  private final TranspositionTable table;
+  private BoardGeometry geometry;
+  private int[] regions;
+  private IReversiModel board;
+  private int[][] moves;
+  private int[][] keys;
+  private long nodes;
+  private int bestCell;
+  private int differential;
+
+  /**
+   * Constructs a solver for positions with at most the given number of empty cells.
+   * @param maxEmpties most empty cells left for canSolve to say yes
+   * @throws IllegalArgumentException if the count is negative
+   */
+  public EndgameSolver(int maxEmpties) throws IllegalArgumentException {
+    this(maxEmpties, DEFAULT_TABLE_MEGABYTES);
+  }
+
+  /**
+   * Constructs a solver with a table of the given size.
+   * @param maxEmpties most empty cells left for canSolve to say yes
+   * @param tableMegabytes memory budget of the solver's table
+   * @throws IllegalArgumentException if the count is negative or the table size is out of range
+   */
+  public EndgameSolver(int maxEmpties, int tableMegabytes) throws IllegalArgumentException {
+    if (maxEmpties < 0) {
+      throw new IllegalArgumentException("Empty count can't be negative");
+    }
+    this.maxEmpties = maxEmpties;
+    this.table = new TranspositionTable(tableMegabytes);
+  }
+
+  /**
+   * Gets the most empty cells a position can have for canSolve to say yes.
+   * @return empty cell count
+   */
+  public int getMaxEmpties() {
+    return this.maxEmpties;
+  }
+
+  /**
+   * Is the game close enough to the end for the solver to take over.
+   * @param model game to check
+   * @return true if the game is not over and has at most getMaxEmpties() empty cells
+   */
+  public boolean canSolve(ReadonlyIReversiModel model) {
+    return !model.isGameOver() && emptyCount(model) <= this.maxEmpties;
+  }
+
+  /**
+   * Works out the final disc difference with perfect play on both sides, and the move that gets
+   * it. This takes time exponential in the number of empty cells, so check canSolve first.
+   * @param model game to solve, which is copied
+   * @return discs of the side to move minus discs of the opponent at the end of the game
+   * @throws IllegalArgumentException if the game is already over
+   */
+  public int solve(ReadonlyIReversiModel model) throws IllegalArgumentException {
+    if (model.isGameOver()) {
+      throw new IllegalArgumentException("Game is already over");
+    }
+    this.setUp(model);
+    int empties = emptyCount(model);
+    int parity = 0;
+    for (int cell = 0; cell < this.geometry.getCellCount(); cell++) {
+      if (this.board.getTileTypeAt(cell) == TileType.EMPTY) {
+        parity ^= 1 << this.regions[cell];
+      }
+    }
+    this.table.newSearch();
+    this.nodes = 0;
+    this.bestCell = -1;
+    int bound = this.geometry.getCellCount() + 1;
+    this.differential = this.search(-bound, bound, empties, 0, parity);
+    return this.differential;
+  }
+
+  /**
+   * Gets the perfect move found by the latest solve.
+   * @return the move, or null if the side to move had to pass
+   */
+  public Position3D getBestMove() {
+    return this.bestCell < 0 ? null : this.geometry.getPosition(this.bestCell);
+  }
+
+  /**
+   * Gets the final disc difference found by the latest solve.
+   * @return discs of the side to move minus discs of the opponent at the end of the game
+   */
+  public int getDifferential() {
+    return this.differential;
+  }
+
+  /**
+   * Gets how many positions the latest solve visited.
+   * @return node count
+   */
+  public long getNodeCount() {
+    return this.nodes;
+  }
+
+  /**
+   * Copies the game and, the first time a board of its shape is solved, sets up the regions and
+   * buffers for it.
+   * @param model game to solve
+   */
+  private void setUp(ReadonlyIReversiModel model) {
+    this.board = new BitboardReversiModelImpl(model);
+    if (this.geometry == model.getGeometry()) {
+      return;
+    }
+    this.geometry = model.getGeometry();
+    int cells = this.geometry.getCellCount();
+    this.regions = new int[cells];
+    for (int cell = 0; cell < cells; cell++) {
+      this.regions[cell] = regionOf(this.geometry, cell);
+    }
+    // Every move fills a cell, and passes come at most one at a time between moves
+    this.moves = new int[2 * this.maxEmpties + 3][cells];
+    this.keys = new int[2 * this.maxEmpties + 3][cells];
+  }
+
+  /**
+   * Searches a position to the end of the game.
+   * @param alpha score the side to move is already sure of
+   * @param beta score the opponent is already sure of
+   * @param empties empty cells left
+   * @param ply distance from the root, which picks the move buffer
+   * @param parity bit set for every region with an odd number of empty cells
+   * @return final disc difference for the side to move
+   */
+  private int search(int alpha, int beta, int empties, int ply, int parity) {
+    this.nodes++;
+    if (empties == 0 || this.board.isGameOver()) {
+      return this.discDifference();
+    }
+    if (ply + 1 >= this.moves.length) {
+      this.growBuffers();
+    }
+    int[] buffer = this.moves[ply];
+    int count = this.board.legalMoves(buffer);
+    if (count == 0) {
+      this.board.makePass();
+      int score = -this.search(-beta, -alpha, empties, ply + 1, parity);
+      this.board.undoMove();
+      return score;
+    }
+    long hash = 0L;
+    int tableMove = -1;
+    boolean useTable = empties >= TABLE_EMPTIES;
+    if (useTable) {
+      hash = this.board.getPositionHash();
+      long entry = this.table.probe(hash);
+      if (entry != 0L && ply > 0) {
+        int stored = TranspositionTable.scoreOf(entry);
+        int bound = TranspositionTable.boundOf(entry);
+        if (bound == TranspositionTable.EXACT
+                || (bound == TranspositionTable.LOWER_BOUND && stored >= beta)
+                || (bound == TranspositionTable.UPPER_BOUND && stored <= alpha)) {
+          return stored;
+        }
+      }
+      tableMove = TranspositionTable.moveOf(entry);
+    }
+    this.orderMoves(buffer, count, ply, parity, tableMove, empties >= FASTEST_FIRST_EMPTIES);
+    int originalAlpha = alpha;
+    int best = Integer.MIN_VALUE;
+    int bestMove = -1;
+    for (int i = 0; i < count; i++) {
+      int cell = buffer[i];
+      this.board.makeMove(this.geometry.getPosition(cell));
+      int score = -this.search(-beta, -alpha, empties - 1, ply + 1,
+              parity ^ (1 << this.regions[cell]));
+      this.board.undoMove();
+      if (score > best) {
+        best = score;
+        bestMove = cell;
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    if (ply == 0) {
+      this.bestCell = bestMove;
+    }
+    if (useTable) {
+      int bound = TranspositionTable.EXACT;
+      if (best <= originalAlpha) {
+        bound = TranspositionTable.UPPER_BOUND;
+      } else if (best >= beta) {
+        bound = TranspositionTable.LOWER_BOUND;
+      }
+      this.table.store(hash, empties, best, bound, bestMove);
+    }
+    return best;
+  }
+
+  /**
+   * Sorts a move list so the table move comes first, then (if asked) the moves that leave the
+   * opponent the fewest replies, then moves into regions with an odd number of empty cells.
+   * @param list cell ids of the legal moves
+   * @param count how many entries are in use
+   * @param ply distance from the root, which picks the key buffer
+   * @param parity bit set for every region with an odd number of empty cells
+   * @param tableMove best move stored for the position, or -1
+   * @param fastestFirst whether to count the opponent's replies to each move
+   */
+  private void orderMoves(int[] list, int count, int ply, int parity, int tableMove,
+                          boolean fastestFirst) {
+    int[] key = this.keys[ply];
+    for (int i = 0; i < count; i++) {
+      int cell = list[i];
+      int k = (parity >>> this.regions[cell] & 1) == 0 ? 1 : 0;
+      if (cell == tableMove) {
+        k = -1;
+      } else if (fastestFirst) {
+        this.board.makeMove(this.geometry.getPosition(cell));
+        k += 2 * this.board.legalMoves(this.moves[ply + 1]);
+        this.board.undoMove();
+      }
+      key[i] = k;
+    }
+    for (int i = 1; i < count; i++) {
+      int cell = list[i];
+      int k = key[i];
+      int j = i - 1;
+      while (j >= 0 && key[j] > k) {
+        list[j + 1] = list[j];
+        key[j + 1] = key[j];
+        j--;
+      }
+      list[j + 1] = cell;
+      key[j + 1] = k;
+    }
+  }
+
+  /**
+   * Makes room for a longer line than expected, which only happens if solve is given more empty
+   * cells than getMaxEmpties().
+   */
+  private void growBuffers() {
+    int cells = this.geometry.getCellCount();
+    int[][] grownMoves = new int[this.moves.length * 2][];
+    int[][] grownKeys = new int[this.keys.length * 2][];
+    for (int i = 0; i < grownMoves.length; i++) {
+      grownMoves[i] = i < this.moves.length ? this.moves[i] : new int[cells];
+      grownKeys[i] = i < this.keys.length ? this.keys[i] : new int[cells];
+    }
+    this.moves = grownMoves;
+    this.keys = grownKeys;
+  }
+
+  /**
+   * Gets how many more discs the side to move has than the opponent.
+   * @return disc difference
+   */
+  private int discDifference() {
+    int difference = this.board.getBlackScore() - this.board.getWhiteScore();
+    return this.board.getTurn() == TileType.BLACK ? difference : -difference;
+  }
+
+  /**
+   * Counts the empty cells of a game.
+   * @param model game to count
+   * @return empty cell count
+   */
+  private static int emptyCount(ReadonlyIReversiModel model) {
+    return model.getGeometry().getCellCount() - model.getBlackScore() - model.getWhiteScore();
+  }
+
+  /**
+   * Gets the parity region of a cell: the quadrant of a square board, or the sixth of a hex board
+   * it is in, going round the center.
+   * @param geometry shape of the board
+   * @param cell cell id
+   * @return region number, from 0 to 5
+   */
+  private static int regionOf(BoardGeometry geometry, int cell) {
+    Position3D pos = geometry.getPosition(cell);
+    if (geometry.isSquare()) {
+      int half = geometry.getRadius();
+      return (pos.getQ() < half ? 0 : 1) + (pos.getR() < half ? 0 : 2);
+    }
+    double x = pos.getQ() + pos.getR() / 2.0;
+    double y = pos.getR() * Math.sqrt(3) / 2;
+    if (x == 0 && y == 0) {
+      return 0;
+    }
+    int sixth = (int) Math.floor((Math.atan2(y, x) + Math.PI) / (Math.PI / 3));
+    return Math.min(sixth, 5);
+  }
+}
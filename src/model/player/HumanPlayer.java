@@ -3,7 +3,6 @@ package model.player;
 import controller.ReversiController;
 import model.position.Position3D;
 import model.ReadonlyIReversiModel;
-import model.tile.Tile;
 import model.tile.TileType;
 
 import java.util.ArrayList;
@@ -18,6 +17,8 @@ public class HumanPlayer implements Player {
   protected final TileType playerColor;
   protected final ReadonlyIReversiModel model;
   protected ReversiController observer;
+  // Reused by getAvailableMoves for the cell ids of the legal moves
+  protected final int[] moveBuffer;
 
   /**
    * Constructs an AIPlayer.
@@ -30,6 +31,7 @@ public class HumanPlayer implements Player {
     }
     this.playerColor = playerColor;
     this.model = model;
+    this.moveBuffer = new int[model.getGeometry().getCellCount()];
   }
 
   /**
@@ -67,11 +69,10 @@ public class HumanPlayer implements Player {
     if (!this.model.getTurn().equals(this.playerColor)) {
       throw new IllegalStateException("Not the player's turn.");
     }
-    List<Position3D> availableMoves = new ArrayList<>();
-    for (Tile t : this.model.getCopyOfBoard()) {
-      if (this.model.isMoveLegal(t.getPos())) {
-        availableMoves.add(t.getPos());
-      }
+    int count = this.model.legalMoves(this.moveBuffer);
+    List<Position3D> availableMoves = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      availableMoves.add(this.model.getGeometry().getPosition(this.moveBuffer[i]));
     }
     return availableMoves;
   }
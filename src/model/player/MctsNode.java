@@ -0,0 +1,158 @@
+package model.player;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A position in a Monte Carlo search tree.
+ * A node is reached by one move (a cell id, or -1 for a pass) and keeps how many simulations went
+ * through it and how many points the player who made that move scored in them, counting 2 for a
+ * win and 1 for a draw so the totals stay whole numbers. For RAVE it also keeps the same numbers
+ * for every simulation in which the move was played later on by the same player.
+ * The moves of a node are only listed the first time a simulation reaches it, and a child is
+ * added for one of them every time a simulation gets there after that.
+ * Several threads can search the same tree: the counters are only changed atomically, and moves
+ * are listed and children added while holding the node's lock.
+ */
+final class MctsNode {
+  static final int PASS = -1;
+  private static final int[] NO_MOVES = new int[0];
+  private static final AtomicIntegerFieldUpdater<MctsNode> VISITS =
+          AtomicIntegerFieldUpdater.newUpdater(MctsNode.class, "visits");
+  private static final AtomicIntegerFieldUpdater<MctsNode> POINTS =
+          AtomicIntegerFieldUpdater.newUpdater(MctsNode.class, "points");
+  private static final AtomicIntegerFieldUpdater<MctsNode> AMAF_VISITS =
+          AtomicIntegerFieldUpdater.newUpdater(MctsNode.class, "amafVisits");
+  private static final AtomicIntegerFieldUpdater<MctsNode> AMAF_POINTS =
+          AtomicIntegerFieldUpdater.newUpdater(MctsNode.class, "amafPoints");
+
+  final int move;
+  final long hash;
+  MctsNode[] children;
+  volatile int childCount;
+  // Written last by expand, so a thread that sees it also sees the child array
+  volatile int[] untried;
+  int untriedCount;
+  volatile int visits;
+  volatile int points;
+  volatile int amafVisits;
+  volatile int amafPoints;
+
+  /**
+   * Constructs a node that no simulation has been through yet.
+   * @param move cell id of the move that leads here, or PASS
+   * @param hash position hash after the move
+   */
+  MctsNode(int move, long hash) {
+    this.move = move;
+    this.hash = hash;
+  }
+
+  /**
+   * Has this node had its moves listed yet.
+   * @return true once expand has been called
+   */
+  boolean isExpanded() {
+    return this.untried != null;
+  }
+
+  /**
+   * Lists the moves of this node, which all start out untried. Must hold the node's lock.
+   * @param moves cell ids of the legal moves, or just PASS if there are none
+   * @param count how many entries of the array are moves (0 if the game is over here)
+   */
+  void expand(int[] moves, int count) {
+    this.children = new MctsNode[count];
+    this.untriedCount = count;
+    this.untried = count == 0 ? NO_MOVES : Arrays.copyOf(moves, count);
+  }
+
+  /**
+   * Is the game over at this node.
+   * @return true if it has been expanded and has no moves at all
+   */
+  boolean isTerminal() {
+    int[] moves = this.untried;
+    return moves != null && moves.length == 0;
+  }
+
+  /**
+   * Adds a child for the untried move at the given index, which stops being untried. Must hold
+   * the node's lock.
+   * @param index index into the untried moves
+   * @param hash position hash after the move
+   * @return the new child
+   */
+  MctsNode addChild(int index, long hash) {
+    int childMove = this.untried[index];
+    this.untried[index] = this.untried[--this.untriedCount];
+    this.untried[this.untriedCount] = childMove;
+    MctsNode child = new MctsNode(childMove, hash);
+    this.children[this.childCount] = child;
+    this.childCount++;
+    return child;
+  }
+
+  /**
+   * Adds the result of a simulation, taking back the virtual loss it put on the node on its way
+   * down.
+   * @param points points the player who moved here scored
+   * @param virtualLoss visits the simulation added on its way down
+   */
+  void update(int points, int virtualLoss) {
+    VISITS.addAndGet(this, 1 - virtualLoss);
+    if (points != 0) {
+      POINTS.addAndGet(this, points);
+    }
+  }
+
+  /**
+   * Counts a simulation that is still running as a loss, so other threads searching the same
+   * tree try other moves until it is done.
+   * @param virtualLoss visits to add
+   */
+  void addVirtualLoss(int virtualLoss) {
+    if (virtualLoss != 0) {
+      VISITS.addAndGet(this, virtualLoss);
+    }
+  }
+
+  /**
+   * Adds the result of a simulation in which the move of this node was played later on.
+   * @param points points the player who played it scored
+   */
+  void updateAmaf(int points) {
+    AMAF_VISITS.incrementAndGet(this);
+    if (points != 0) {
+      AMAF_POINTS.addAndGet(this, points);
+    }
+  }
+
+  /**
+   * Gets the child reached by the given move.
+   * @param childMove cell id, or PASS
+   * @return the child, or null if it hasn't been added
+   */
+  MctsNode getChild(int childMove) {
+    for (int i = 0; i < this.childCount; i++) {
+      if (this.children[i].move == childMove) {
+        return this.children[i];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets the child that simulations went through the most, which is the move to play.
+   * @return most visited child, or null if there are none
+   */
+  MctsNode mostVisitedChild() {
+    MctsNode best = null;
+    for (int i = 0; i < this.childCount; i++) {
+      if (best == null || this.children[i].visits > best.visits) {
+        best = this.children[i];
+      }
+    }
+    return best;
+  }
+}
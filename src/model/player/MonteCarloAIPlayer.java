@@ -0,0 +1,330 @@
+package model.player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.IReversiModel;
+import model.position.Position3D;
+import model.tile.TileType;
+
+/**
+ * An AI player that picks its moves with Monte Carlo tree search (UCT).
+ * For each move it runs simulations of random games from the current position until it has run
+ * the maximum number of them or its time budget is up, and plays the move most simulations went
+ * through. RAVE can be turned on to share results between the same move played at different
+ * times, which helps most when there are only a few simulations per move.
+ * The tree under the chosen move is kept, and if the game reaches one of its positions by the
+ * next move, the search carries on from there instead of starting over.
+ * With more than one thread, the simulations of a move are spread over several threads, either
+ * each growing its own tree with the results added up at the end (ROOT), or all growing one
+ * shared tree (TREE). The playout limit is for all the threads together.
+ */
+public class MonteCarloAIPlayer extends AIPlayer implements Player {
+  private static final double DEFAULT_EXPLORATION = 1.0;
+  // Visits a running simulation counts as lost on each node of a shared tree
+  private static final int VIRTUAL_LOSS = 3;
+
+  /**
+   * How the threads of a multi-threaded player share the work.
+   */
+  public enum Parallelism {
+    // Every thread grows its own tree, and the visits of each move are added up at the end
+    ROOT,
+    // Every thread grows the same tree, steering away from each other with virtual losses
+    TREE
+  }
+
+  protected final long millisPerMove;
+  protected final int maxPlayouts;
+  protected final int threads;
+  protected final Parallelism parallelism;
+  private ExecutorService executor;
+  private ExecutorService ownPool;
+  private double exploration;
+  private int raveEquivalence;
+  private SplittableRandom random;
+  private MctsNode root;
+  private int lastPlayouts;
+  private int lastReusedPlayouts;
+  private double lastPlayoutsPerSecond;
+
+  /**
+   * Constructs a Monte Carlo player that stops at whichever of its limits it reaches first.
+   * @param playerColor The color of the player
+   * @param model       The model to use as reference for the player
+   * @param millisPerMove time budget per move, in milliseconds
+   * @param maxPlayouts most simulations per move
+   * @throws IllegalArgumentException if the time budget or the playout count is not positive
+   */
+  public MonteCarloAIPlayer(TileType playerColor, IReversiModel model, long millisPerMove,
+                            int maxPlayouts) throws IllegalArgumentException {
+    this(playerColor, model, millisPerMove, maxPlayouts, 1, Parallelism.TREE);
+  }
+
+  /**
+   * Constructs a Monte Carlo player that runs its simulations on several threads at once.
+   * @param playerColor The color of the player
+   * @param model       The model to use as reference for the player
+   * @param millisPerMove time budget per move, in milliseconds
+   * @param maxPlayouts most simulations per move, over all threads
+   * @param threads how many threads search each move, counting the one calling getOptimalMove
+   * @param parallelism whether the threads grow their own trees or share one
+   * @throws IllegalArgumentException if the time budget, playout count or thread count is not
+   *                                  positive, or parallelism is null
+   */
+  public MonteCarloAIPlayer(TileType playerColor, IReversiModel model, long millisPerMove,
+                            int maxPlayouts, int threads, Parallelism parallelism)
+          throws IllegalArgumentException {
+    super(playerColor, model);
+    if (millisPerMove <= 0) {
+      throw new IllegalArgumentException("Time per move must be positive");
+    }
+    if (maxPlayouts <= 0) {
+      throw new IllegalArgumentException("Playout count must be positive");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    if (parallelism == null) {
+      throw new IllegalArgumentException("Parallelism can't be null");
+    }
+    this.millisPerMove = millisPerMove;
+    this.maxPlayouts = maxPlayouts;
+    this.threads = threads;
+    this.parallelism = parallelism;
+    this.exploration = DEFAULT_EXPLORATION;
+    this.random = new SplittableRandom();
+  }
+
+  /**
+   * Sets how much the search favours moves it has tried less over moves that have done well.
+   * @param exploration UCT exploration constant
+   * @throws IllegalArgumentException if the constant is negative or not a number
+   */
+  public void setExploration(double exploration) throws IllegalArgumentException {
+    if (!(exploration >= 0)) {
+      throw new IllegalArgumentException("Exploration must not be negative");
+    }
+    this.exploration = exploration;
+    this.root = null;
+  }
+
+  /**
+   * Turns RAVE on or off. The RAVE value of a move counts for half as much as its own results
+   * after about the given number of simulations, and less and less after that.
+   * @param equivalence simulations at which both values weigh about the same, or 0 for off
+   * @throws IllegalArgumentException if the number is negative
+   */
+  public void setRave(int equivalence) throws IllegalArgumentException {
+    if (equivalence < 0) {
+      throw new IllegalArgumentException("RAVE equivalence must not be negative");
+    }
+    this.raveEquivalence = equivalence;
+    this.root = null;
+  }
+
+  /**
+   * Seeds the random playouts, so that a player with a playout limit and a generous time budget
+   * plays the same moves every time. Also throws away the kept tree.
+   * @param seed random seed
+   */
+  public void setSeed(long seed) {
+    this.random = new SplittableRandom(seed);
+    this.root = null;
+  }
+
+  /**
+   * Runs the extra threads of each move on the given executor instead of the player's own pool.
+   * The executor should have at least threads - 1 threads free, or some of the searches will
+   * only start when the others are done.
+   * @param executor executor to use, or null to go back to the player's own pool
+   */
+  public void setExecutor(ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Gets the optimal move for the player by running simulations until a limit is reached.
+   * @return position for optimal move
+   * @throws IllegalStateException if it isn't the player's turn
+   * @throws IllegalStateException if there are no legal moves
+   */
+  @Override
+  public Position3D getOptimalMove() throws IllegalStateException {
+    long start = System.nanoTime();
+    long deadline = start + this.millisPerMove * 1_000_000L;
+    if (!this.model.getTurn().equals(this.playerColor)) {
+      throw new IllegalStateException("Not the player's turn.");
+    }
+    int count = this.model.legalMoves(this.moveBuffer);
+    if (count == 0) {
+      throw new IllegalStateException("No available moves.");
+    }
+    if (count == 1) {
+      this.root = null;
+      this.lastPlayouts = 0;
+      this.lastReusedPlayouts = 0;
+      this.lastPlayoutsPerSecond = 0;
+      return this.model.getGeometry().getPosition(this.moveBuffer[0]);
+    }
+    Position3D chosen = this.lookUpBook();
+    if (chosen == null) {
+      chosen = this.solveEndgame();
+    }
+    if (chosen != null) {
+      this.root = null;
+      this.lastPlayouts = 0;
+      this.lastReusedPlayouts = 0;
+      this.lastPlayoutsPerSecond = 0;
+      return chosen;
+    }
+    MctsNode current = this.findCurrentRoot();
+    this.lastReusedPlayouts = current.visits;
+    AtomicInteger budget = new AtomicInteger(this.maxPlayouts);
+    boolean shared = this.parallelism == Parallelism.TREE;
+    int virtualLoss = shared && this.threads > 1 ? VIRTUAL_LOSS : 0;
+    List<MctsNode> roots = new ArrayList<>();
+    roots.add(current);
+    List<Future<Integer>> helperRuns = new ArrayList<>();
+    for (int i = 1; i < this.threads; i++) {
+      MctsNode helperRoot = shared ? current : new MctsNode(MctsNode.PASS, current.hash);
+      MonteCarloSearch helper = new MonteCarloSearch(this.model, this.random.nextLong(),
+              this.exploration, this.raveEquivalence, virtualLoss);
+      if (!shared) {
+        roots.add(helperRoot);
+      }
+      helperRuns.add(this.getExecutor().submit(() -> helper.run(helperRoot, deadline, budget)));
+    }
+    MonteCarloSearch search = new MonteCarloSearch(this.model, this.random.nextLong(),
+            this.exploration, this.raveEquivalence, virtualLoss);
+    int playouts = search.run(current, deadline, budget);
+    for (Future<Integer> run : helperRuns) {
+      try {
+        playouts += run.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Search thread failed", e.getCause());
+      }
+    }
+    long elapsed = Math.max(1, System.nanoTime() - start);
+    this.lastPlayouts = playouts;
+    this.lastPlayoutsPerSecond = playouts * 1e9 / elapsed;
+    int move = this.mostVisitedMove(roots, count);
+    this.root = current.getChild(move);
+    return this.model.getGeometry().getPosition(move);
+  }
+
+  /**
+   * Adds up the visits of each legal move over the given trees and picks the move with the most.
+   * @param roots roots of the trees, all of the current position
+   * @param count how many legal moves are in the move buffer
+   * @return cell id of the most visited move, or the first legal move if none were visited
+   */
+  private int mostVisitedMove(List<MctsNode> roots, int count) {
+    int best = this.moveBuffer[0];
+    int bestVisits = 0;
+    for (int i = 0; i < count; i++) {
+      int visits = 0;
+      for (MctsNode tree : roots) {
+        MctsNode child = tree.getChild(this.moveBuffer[i]);
+        visits += child == null ? 0 : child.visits;
+      }
+      if (visits > bestVisits) {
+        best = this.moveBuffer[i];
+        bestVisits = visits;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Shuts down the player's own pool, if it was started. An executor given with setExecutor is
+   * left running for whoever gave it. A later move starts a new pool if it needs one.
+   */
+  @Override
+  public void close() {
+    if (this.ownPool != null) {
+      this.ownPool.shutdown();
+      this.ownPool = null;
+    }
+  }
+
+  /**
+   * Gets the executor running the extra searches: the one given with setExecutor, or else the
+   * player's own pool, started the first time. Its threads are daemons, so they never keep the
+   * program running, but they stay until close is called.
+   * @return the executor
+   */
+  private ExecutorService getExecutor() {
+    if (this.executor != null) {
+      return this.executor;
+    }
+    if (this.ownPool == null) {
+      this.ownPool = Executors.newFixedThreadPool(this.threads - 1, runnable -> {
+        Thread thread = new Thread(runnable, "mcts-helper");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return this.ownPool;
+  }
+
+  /**
+   * Finds the current position in the tree kept from the last move, which is the kept root or a
+   * position at most two plies under it (after the opponent's reply, and maybe a pass).
+   * @return the node of the current position, or a new one if it isn't in the kept tree
+   */
+  private MctsNode findCurrentRoot() {
+    long hash = this.model.getPositionHash();
+    if (this.root != null) {
+      if (this.root.hash == hash) {
+        return this.root;
+      }
+      for (int i = 0; i < this.root.childCount; i++) {
+        MctsNode child = this.root.children[i];
+        if (child.hash == hash) {
+          return child;
+        }
+        for (int j = 0; j < child.childCount; j++) {
+          if (child.children[j].hash == hash) {
+            return child.children[j];
+          }
+        }
+      }
+    }
+    return new MctsNode(MctsNode.PASS, hash);
+  }
+
+  /**
+   * Gets how many simulations the latest move ran, over all threads.
+   * @return playout count, 0 if the move was forced or solved by the endgame solver
+   */
+  public int getLastPlayoutCount() {
+    return this.lastPlayouts;
+  }
+
+  /**
+   * Gets how many simulations of earlier moves went through the position the latest move was
+   * chosen from, which the search got to keep.
+   * @return reused playout count
+   */
+  public int getLastReusedPlayoutCount() {
+    return this.lastReusedPlayouts;
+  }
+
+  /**
+   * Gets how fast the latest move ran its simulations.
+   * @return playouts per second, 0 if the move was forced or solved
+   */
+  public double getLastPlayoutsPerSecond() {
+    return this.lastPlayoutsPerSecond;
+  }
+}
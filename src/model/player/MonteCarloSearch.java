@@ -0,0 +1,264 @@
+package model.player;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.BitboardReversiModelImpl;
+import model.IReversiModel;
+import model.ReadonlyIReversiModel;
+import model.geometry.BoardGeometry;
+import model.tile.TileType;
+
+/**
+ * Runs Monte Carlo tree search simulations from one position on a private bitboard copy of the
+ * game. Each simulation walks down the tree picking children by UCT (optionally blended with
+ * RAVE), adds one new node, plays random moves to the end of the game, and then counts the result
+ * in every node it went through. Every move is taken back with undoMove afterwards, so the copy
+ * is back at the root when the simulation ends.
+ * All the buffers are allocated up front, so the random playouts never allocate; only the tree
+ * grows by one node per simulation.
+ * Searches on different threads can share one tree. Each then puts a virtual loss on the nodes
+ * it goes through until its simulation is done, so the others spread out over other moves
+ * instead of all following the same path.
+ */
+final class MonteCarloSearch {
+  private final IReversiModel board;
+  private final BoardGeometry geometry;
+  private final SplittableRandom random;
+  private final double exploration;
+  private final int raveEquivalence;
+  private final int virtualLoss;
+  private final int[] moves;
+  private final MctsNode[] path;
+  private final boolean[] blackMoved;
+  private final int[] playoutMoves;
+  private final boolean[] playoutBlack;
+  private final int[] blackStamps;
+  private final int[] whiteStamps;
+  private int stamp;
+
+  /**
+   * Sets up simulations from the given position.
+   * @param model game to search, which is copied
+   * @param seed seed of the random playouts
+   * @param exploration UCT exploration constant
+   * @param raveEquivalence how many simulations the RAVE value is worth as much as the real one,
+   *                        or 0 to turn RAVE off
+   * @param virtualLoss visits to count as lost on each node of a running simulation, or 0 if no
+   *                    other search shares the tree
+   */
+  MonteCarloSearch(ReadonlyIReversiModel model, long seed, double exploration,
+                   int raveEquivalence, int virtualLoss) {
+    this.board = new BitboardReversiModelImpl(model);
+    this.geometry = model.getGeometry();
+    this.random = new SplittableRandom(seed);
+    this.exploration = exploration;
+    this.raveEquivalence = raveEquivalence;
+    this.virtualLoss = virtualLoss;
+    int cells = this.geometry.getCellCount();
+    // Every move fills a cell, and passes come at most one at a time between moves
+    int maxPly = 2 * cells + 2;
+    this.moves = new int[cells];
+    this.path = new MctsNode[maxPly];
+    this.blackMoved = new boolean[maxPly];
+    this.playoutMoves = new int[maxPly];
+    this.playoutBlack = new boolean[maxPly];
+    this.blackStamps = new int[cells];
+    this.whiteStamps = new int[cells];
+    this.stamp = 0;
+  }
+
+  /**
+   * Runs simulations from the root until the deadline or until the shared playout budget is used
+   * up, whichever comes first.
+   * @param root root of the tree, which must be the position the search was set up with
+   * @param deadlineNanos System.nanoTime() value at which to stop
+   * @param budget playouts left, shared by every search of the move
+   * @return how many simulations this search ran
+   */
+  int run(MctsNode root, long deadlineNanos, AtomicInteger budget) {
+    int playouts = 0;
+    while (System.nanoTime() - deadlineNanos < 0 && budget.getAndDecrement() > 0) {
+      this.simulate(root);
+      playouts++;
+    }
+    return playouts;
+  }
+
+  /**
+   * Runs one simulation from the root, which must be the position the search was set up with.
+   * @param root root of the tree
+   */
+  void simulate(MctsNode root) {
+    MctsNode node = root;
+    int depth = 0;
+    this.path[0] = root;
+    // blackMoved[i] is whether black made the move into path[i]; for the root, the opponent of
+    // the side to move did
+    this.blackMoved[0] = this.board.getTurn() != TileType.BLACK;
+    while (true) {
+      boolean black = this.board.getTurn() == TileType.BLACK;
+      MctsNode added = this.tryAddChild(node);
+      if (added != null) {
+        this.blackMoved[depth + 1] = black;
+        this.path[++depth] = added;
+        added.addVirtualLoss(this.virtualLoss);
+        break;
+      }
+      if (node.isTerminal()) {
+        break;
+      }
+      node = this.select(node);
+      this.blackMoved[depth + 1] = black;
+      this.play(node.move);
+      this.path[++depth] = node;
+      node.addVirtualLoss(this.virtualLoss);
+    }
+    int length = this.playout();
+    int difference = this.board.getBlackScore() - this.board.getWhiteScore();
+    int blackPoints = difference > 0 ? 2 : difference == 0 ? 1 : 0;
+    for (int i = depth; i >= 1; i--) {
+      this.path[i].update(this.blackMoved[i] ? blackPoints : 2 - blackPoints, this.virtualLoss);
+    }
+    root.update(0, 0);
+    if (this.raveEquivalence > 0) {
+      this.updateRave(depth, length, blackPoints);
+    }
+    for (int i = 0; i < depth + length; i++) {
+      this.board.undoMove();
+    }
+  }
+
+  /**
+   * Lists the moves of a node the first time it is reached, then plays one of its untried moves
+   * at random and adds a child for it.
+   * @param node node whose position is on the board
+   * @return the new child, with its move played, or null if every move has been tried
+   */
+  private MctsNode tryAddChild(MctsNode node) {
+    // Once every move has been tried, the count never goes up again, so there is no need to lock
+    if (node.isExpanded() && node.untriedCount == 0) {
+      return null;
+    }
+    synchronized (node) {
+      if (!node.isExpanded()) {
+        int count = 0;
+        if (!this.board.isGameOver()) {
+          count = this.board.legalMoves(this.moves);
+          if (count == 0) {
+            this.moves[0] = MctsNode.PASS;
+            count = 1;
+          }
+        }
+        node.expand(this.moves, count);
+      }
+      if (node.untriedCount == 0) {
+        return null;
+      }
+      int index = this.random.nextInt(node.untriedCount);
+      this.play(node.untried[index]);
+      return node.addChild(index, this.board.getPositionHash());
+    }
+  }
+
+  /**
+   * Picks the child with the best UCT value, blending in its RAVE value when RAVE is on.
+   * @param node node with every move tried
+   * @return the chosen child
+   */
+  private MctsNode select(MctsNode node) {
+    double logVisits = Math.log(Math.max(1, node.visits));
+    MctsNode best = null;
+    double bestValue = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < node.childCount; i++) {
+      MctsNode child = node.children[i];
+      double value;
+      if (child.visits == 0) {
+        value = Double.POSITIVE_INFINITY;
+      } else {
+        double mean = child.points / (2.0 * child.visits);
+        if (this.raveEquivalence > 0 && child.amafVisits > 0) {
+          double beta = Math.sqrt(this.raveEquivalence
+                  / (3.0 * child.visits + this.raveEquivalence));
+          mean = (1 - beta) * mean + beta * child.amafPoints / (2.0 * child.amafVisits);
+        }
+        value = mean + this.exploration * Math.sqrt(logVisits / child.visits);
+      }
+      if (value > bestValue) {
+        bestValue = value;
+        best = child;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Plays random moves until the game is over, remembering them for RAVE.
+   * @return how many moves (and passes) were played
+   */
+  private int playout() {
+    int length = 0;
+    while (!this.board.isGameOver()) {
+      boolean black = this.board.getTurn() == TileType.BLACK;
+      int count = this.board.legalMoves(this.moves);
+      int move = count == 0 ? MctsNode.PASS : this.moves[this.random.nextInt(count)];
+      this.playoutMoves[length] = move;
+      this.playoutBlack[length] = black;
+      this.play(move);
+      length++;
+    }
+    return length;
+  }
+
+  /**
+   * Counts the result of a simulation for every child, along the path, whose move the same
+   * player went on to play later in the simulation (all moves as first, AMAF).
+   * @param depth how deep the simulation went in the tree
+   * @param length how many playout moves followed
+   * @param blackPoints points black scored
+   */
+  private void updateRave(int depth, int length, int blackPoints) {
+    this.stamp++;
+    for (int i = 0; i < length; i++) {
+      this.mark(this.playoutMoves[i], this.playoutBlack[i]);
+    }
+    for (int i = depth; i >= 0; i--) {
+      MctsNode n = this.path[i];
+      // Passes are moves in the tree, so the players take turns strictly along the path
+      boolean black = !this.blackMoved[i];
+      int[] stamps = black ? this.blackStamps : this.whiteStamps;
+      for (int c = 0; c < n.childCount; c++) {
+        MctsNode child = n.children[c];
+        if (child.move >= 0 && stamps[child.move] == this.stamp) {
+          child.updateAmaf(black ? blackPoints : 2 - blackPoints);
+        }
+      }
+      if (i >= 1) {
+        this.mark(this.path[i].move, this.blackMoved[i]);
+      }
+    }
+  }
+
+  /**
+   * Remembers that a player played on a cell in the current simulation.
+   * @param move cell id, or PASS which is ignored
+   * @param black true if black played it
+   */
+  private void mark(int move, boolean black) {
+    if (move >= 0) {
+      (black ? this.blackStamps : this.whiteStamps)[move] = this.stamp;
+    }
+  }
+
+  /**
+   * Plays a move or a pass on the copy, recording it so it can be taken back.
+   * @param move cell id, or PASS
+   */
+  private void play(int move) {
+    if (move == MctsNode.PASS) {
+      this.board.makePass();
+    } else {
+      this.board.makeMove(this.geometry.getPosition(move));
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package model.player;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import model.ReadonlyIReversiModel;
+import model.geometry.BoardGeometry;
+import model.geometry.BoardSymmetry;
+import model.position.Position3D;
+
+/**
+ * A read-only book of opening moves, kept in a file that is memory-mapped rather than read in.
+ * The file starts with a 24-byte header (a magic number, the version, the board shape and the
+ * entry count), followed by one 16-byte entry per position, sorted by canonical hash (see
+ * BoardSymmetry): the hash (long), the cell id of the book move as it is in the canonical form of
+ * the position (short), the depth it was searched to (short, 0 for moves taken from played games)
+ * and its score for the side to move (int). Positions that are turns or mirror images of each
+ * other share one entry, and the move is mapped back onto the board it is looked up for.
+ * A lookup is a binary search straight over the mapped file, so it reads a few entries and the
+ * book is never read onto the heap, and the operating system pages in only the parts of the book
+ * that are used. The position's hashes are worked out in an array kept for each thread, so a
+ * lookup allocates nothing but the move it returns. Everything is big-endian.
+ * Books are written by tools.OpeningBookBuilder. Any AI player can be given one with
+ * setOpeningBook.
+ */
+public final class OpeningBook {
+  // "RVOB", for Reversi opening book
+  public static final int MAGIC = 0x52564F42;
+  public static final int VERSION = 2;
+  public static final int HEADER_BYTES = 24;
+  public static final int ENTRY_BYTES = 16;
+
+  private final MappedByteBuffer entries;
+  private final BoardGeometry geometry;
+  private final BoardSymmetry symmetry;
+  private final int size;
+  // Hashes of every transform of the position being looked up, kept for each thread
+  private final ThreadLocal<long[]> hashes;
+
+  /**
+   * Maps a book file.
+   * @param file book to open
+   * @throws IOException if the file can't be read, isn't a book, or is too big to map
+   */
+  public OpeningBook(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+        throw new IOException(file + " is not an opening book that can be mapped");
+      }
+      this.entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+    }
+    if (this.entries.getInt(0) != MAGIC) {
+      throw new IOException(file + " is not an opening book");
+    }
+    if (this.entries.getInt(4) != VERSION) {
+      throw new IOException("Unknown opening book version " + this.entries.getInt(4));
+    }
+    int boardSize = this.entries.getInt(12);
+    try {
+      this.geometry = this.entries.getInt(8) != 0
+              ? BoardGeometry.square(boardSize) : BoardGeometry.hex(boardSize);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Bad board size in " + file, e);
+    }
+    this.symmetry = BoardSymmetry.of(this.geometry);
+    this.size = this.entries.getInt(16);
+    if (this.size < 0 || HEADER_BYTES + (long) this.size * ENTRY_BYTES != this.entries.limit()) {
+      throw new IOException(file + " is cut short or has extra bytes");
+    }
+    this.hashes = ThreadLocal.withInitial(() -> new long[this.symmetry.getTransformCount()]);
+  }
+
+  /**
+   * Gets the shape of the board the book is for.
+   * @return board geometry
+   */
+  public BoardGeometry getGeometry() {
+    return this.geometry;
+  }
+
+  /**
+   * Gets how many positions the book has moves for.
+   * @return entry count
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Finds the entry of a position.
+   * @param hash canonical hash of the position
+   * @return index of the entry, or -1 if the position isn't in the book
+   */
+  public int find(long hash) {
+    int low = 0;
+    int high = this.size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long key = this.getHash(middle);
+      if (key < hash) {
+        low = middle + 1;
+      } else if (key > hash) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the entry of a game's current position, or of any turn or mirror image of it.
+   * @param model game to look at
+   * @return index of the entry, or -1 if the position isn't in the book or the game is on
+   *         another board
+   */
+  public int find(ReadonlyIReversiModel model) {
+    if (model.getGeometry() != this.geometry) {
+      return -1;
+    }
+    return this.find(this.symmetry.canonicalHash(model));
+  }
+
+  /**
+   * Gets the canonical hash of an entry.
+   * @param index entry index
+   * @return canonical position hash
+   */
+  public long getHash(int index) {
+    return this.entries.getLong(offset(index));
+  }
+
+  /**
+   * Gets the book move of an entry.
+   * @param index entry index
+   * @return cell id of the move in the canonical form of the position
+   */
+  public int getMove(int index) {
+    return this.entries.getShort(offset(index) + 8);
+  }
+
+  /**
+   * Gets how deep the move of an entry was searched.
+   * @param index entry index
+   * @return depth in plies, 0 if the move was taken from played games
+   */
+  public int getDepth(int index) {
+    return this.entries.getShort(offset(index) + 10);
+  }
+
+  /**
+   * Gets the score of the move of an entry.
+   * @param index entry index
+   * @return score for the side to move (the search score, or the average disc difference of the
+   *         games it was taken from)
+   */
+  public int getScore(int index) {
+    return this.entries.getInt(offset(index) + 12);
+  }
+
+  /**
+   * Looks up the book move of a game's current position.
+   * @param model game to look at
+   * @return the book move, or null if the game is on another board, the position isn't in the
+   *         book, or the move isn't legal (a different position with the same hash)
+   */
+  public Position3D lookUp(ReadonlyIReversiModel model) {
+    if (model.getGeometry() != this.geometry) {
+      return null;
+    }
+    long[] hashes = this.hashes.get();
+    int transform = this.symmetry.canonicalTransform(model, hashes);
+    int index = this.find(hashes[transform]);
+    if (index < 0) {
+      return null;
+    }
+    int cell = this.getMove(index);
+    if (cell < 0 || cell >= this.geometry.getCellCount()) {
+      return null;
+    }
+    Position3D move = this.geometry.getPosition(this.symmetry.unapply(transform, cell));
+    return model.isMoveLegal(move) ? move : null;
+  }
+
+  /**
+   * Gets where an entry starts in the file.
+   * @param index entry index
+   * @return byte offset
+   */
+  private static int offset(int index) {
+    return HEADER_BYTES + index * ENTRY_BYTES;
+  }
+}
@@ -47,4 +47,11 @@ public interface Player {
    * @param controller listener to player
    */
   void addObserver(ReversiController controller);
+
+  /**
+   * Stops any threads the player keeps between moves. The player can still be used afterwards,
+   * and starts them again if it needs them. Does nothing by default.
+   */
+  default void close() {
+  }
 }
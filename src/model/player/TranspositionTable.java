@@ -0,0 +1,247 @@
+package model.player;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results keyed by the Zobrist hash of a position
+ * (see ReadonlyIReversiModel.getPositionHash), so a player can skip positions it has already
+ * searched, or at least try the move that was best there first.
+ * Each entry holds the best move (as a cell id), the depth it was searched to, the bound type and
+ * the score, packed into one long next to the key. Everything is in two primitive arrays that are
+ * allocated once, so storing and probing never allocate.
+ * The key is stored XORed with the data, so an entry that was half written by another thread
+ * fails the key check and reads as a miss. This makes one table safe to share between threads
+ * without locking.
+ */
+public final class TranspositionTable {
+  /**
+   * How an entry decides whether to overwrite what is already in its slot.
+   */
+  public enum Replacement {
+    // Every store overwrites the slot
+    ALWAYS,
+    // A store only overwrites an entry of the same position, a deeper or equal search, or an
+    // entry left over from an earlier search
+    DEPTH_PREFERRED,
+    // Slots come in pairs: the first is depth preferred, and a result it turns away goes into the
+    // second, which is always overwritten
+    TWO_TIER
+  }
+
+  // The score is exact
+  public static final int EXACT = 1;
+  // The score is a lower bound (the search failed high)
+  public static final int LOWER_BOUND = 2;
+  // The score is an upper bound (the search failed low)
+  public static final int UPPER_BOUND = 3;
+
+  private static final int ENTRY_BYTES = 16;
+  private static final int MAX_DEPTH = 255;
+  private static final int AGES = 64;
+
+  private final long[] keys;
+  private final long[] data;
+  private final int mask;
+  private final Replacement replacement;
+  private int age;
+
+  /**
+   * Constructs a table with two-tier replacement.
+   * @param megabytes memory budget for the entries
+   * @throws IllegalArgumentException if the budget is less than 1 megabyte
+   */
+  public TranspositionTable(int megabytes) throws IllegalArgumentException {
+    this(megabytes, Replacement.TWO_TIER);
+  }
+
+  /**
+   * Constructs a table holding as many entries as fit in the budget, rounded down to a power of
+   * two.
+   * @param megabytes memory budget for the entries
+   * @param replacement how entries replace each other
+   * @throws IllegalArgumentException if the budget is less than 1 megabyte or more than 16384
+   */
+  public TranspositionTable(int megabytes, Replacement replacement)
+          throws IllegalArgumentException {
+    if (megabytes < 1 || megabytes > 16384) {
+      throw new IllegalArgumentException("Table size must be between 1 and 16384 megabytes");
+    }
+    long entries = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+    entries = Math.min(entries, 1L << 30);
+    this.keys = new long[(int) entries];
+    this.data = new long[(int) entries];
+    this.mask = (int) entries - 1;
+    this.replacement = replacement;
+    this.age = 0;
+  }
+
+  /**
+   * Gets how many entries the table holds.
+   * @return capacity in entries
+   */
+  public int getCapacity() {
+    return this.keys.length;
+  }
+
+  /**
+   * Gets the replacement policy of this table.
+   * @return replacement policy
+   */
+  public Replacement getReplacement() {
+    return this.replacement;
+  }
+
+  /**
+   * Marks the start of a new search, so entries from earlier searches give way to new ones.
+   * Entries are kept and can still be probed.
+   */
+  public void newSearch() {
+    this.age = (this.age + 1) % AGES;
+  }
+
+  /**
+   * Empties the table.
+   */
+  public void clear() {
+    Arrays.fill(this.keys, 0L);
+    Arrays.fill(this.data, 0L);
+  }
+
+  /**
+   * Looks up a position.
+   * @param hash position hash
+   * @return the packed entry, to be read with moveOf, depthOf, boundOf and scoreOf, or 0 if the
+   *         position is not in the table
+   */
+  public long probe(long hash) {
+    int slot = this.firstSlot(hash);
+    long entry = this.read(slot, hash);
+    if (entry == 0L && this.replacement == Replacement.TWO_TIER) {
+      entry = this.read(slot + 1, hash);
+    }
+    return entry;
+  }
+
+  /**
+   * Stores the result of searching a position.
+   * @param hash position hash
+   * @param depth how many plies deep the position was searched (clamped to 0 to 255)
+   * @param score score of the position for the side to move
+   * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+   * @param bestMove cell id of the best move, or -1 if there is none (keeps a move already
+   *                 stored for the same position)
+   * @throws IllegalArgumentException if the bound is not one of the three bound types
+   */
+  public void store(long hash, int depth, int score, int bound, int bestMove)
+          throws IllegalArgumentException {
+    if (bound < EXACT || bound > UPPER_BOUND) {
+      throw new IllegalArgumentException("Unknown bound type");
+    }
+    int slot = this.firstSlot(hash);
+    long old = this.data[slot];
+    boolean samePosition = old != 0L && (this.keys[slot] ^ old) == hash;
+    if (this.replacement == Replacement.TWO_TIER && !samePosition
+            && old != 0L && !this.outranks(depth, old)) {
+      slot++;
+      old = this.read(slot, hash);
+      samePosition = old != 0L;
+    } else if (this.replacement == Replacement.DEPTH_PREFERRED && !samePosition
+            && old != 0L && !this.outranks(depth, old)) {
+      return;
+    }
+    if (bestMove < 0 && samePosition) {
+      bestMove = moveOf(old);
+    }
+    long entry = pack(Math.max(0, Math.min(MAX_DEPTH, depth)), score, bound, bestMove, this.age);
+    this.data[slot] = entry;
+    this.keys[slot] = hash ^ entry;
+  }
+
+  /**
+   * Gets the best move of a packed entry.
+   * @param entry entry returned by probe
+   * @return cell id of the move, or -1 if there is none
+   */
+  public static int moveOf(long entry) {
+    return (int) (entry & 0xFFFF) - 1;
+  }
+
+  /**
+   * Gets the search depth of a packed entry.
+   * @param entry entry returned by probe
+   * @return depth in plies
+   */
+  public static int depthOf(long entry) {
+    return (int) (entry >>> 16) & 0xFF;
+  }
+
+  /**
+   * Gets the bound type of a packed entry.
+   * @param entry entry returned by probe
+   * @return EXACT, LOWER_BOUND or UPPER_BOUND
+   */
+  public static int boundOf(long entry) {
+    return (int) (entry >>> 24) & 0x3;
+  }
+
+  /**
+   * Gets the score of a packed entry.
+   * @param entry entry returned by probe
+   * @return score for the side to move
+   */
+  public static int scoreOf(long entry) {
+    return (int) (entry >> 32);
+  }
+
+  /**
+   * Packs the fields of an entry into one long. A packed entry is never 0, because the bound is
+   * never 0.
+   * @param depth search depth, from 0 to 255
+   * @param score score for the side to move
+   * @param bound bound type
+   * @param move cell id of the best move, or -1
+   * @param age search the entry was stored in
+   * @return packed entry
+   */
+  private static long pack(int depth, int score, int bound, int move, int age) {
+    return ((long) score << 32)
+            | ((long) age << 26)
+            | ((long) bound << 24)
+            | ((long) depth << 16)
+            | ((move + 1) & 0xFFFF);
+  }
+
+  /**
+   * Gets the first slot a position can go in.
+   * @param hash position hash
+   * @return slot index
+   */
+  private int firstSlot(long hash) {
+    int index = (int) (hash ^ (hash >>> 32)) & this.mask;
+    return this.replacement == Replacement.TWO_TIER ? index & ~1 : index;
+  }
+
+  /**
+   * Reads a slot, checking that it holds the given position.
+   * @param slot slot index
+   * @param hash position hash
+   * @return the entry, or 0 if the slot holds something else
+   */
+  private long read(int slot, long hash) {
+    long entry = this.data[slot];
+    if (entry != 0L && (this.keys[slot] ^ entry) == hash) {
+      return entry;
+    }
+    return 0L;
+  }
+
+  /**
+   * Determines if a new result of the given depth should replace an entry of another position.
+   * @param depth depth of the new result
+   * @param old entry in the slot
+   * @return true if the old entry is shallower or from an earlier search
+   */
+  private boolean outranks(int depth, long old) {
+    return depth >= depthOf(old) || (int) (old >>> 26 & 0x3F) != this.age;
+  }
+}
@@ -64,13 +64,7 @@ public class GameTile implements Tile {
    */
   @Override
   public String toString() {
-    if (this.tileType.equals(TileType.BLACK)) {
-      return "X";
-    } else if (this.tileType.equals(TileType.WHITE)) {
-      return "O";
-    } else {
-      return "_";
-    }
+    return this.tileType.getSymbol();
   }
 
   /**
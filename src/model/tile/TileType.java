@@ -4,5 +4,19 @@ package model.tile;
  * An enum representing what is on a tile in Reversi.
  */
 public enum TileType {
-  BLACK, WHITE, EMPTY
+  BLACK, WHITE, EMPTY;
+
+  /**
+   * Gets the character this tile type is drawn as in the textual views.
+   * @return 'X' for player black, 'O' for player white, and '_' if empty.
+   */
+  public String getSymbol() {
+    if (this.equals(BLACK)) {
+      return "X";
+    } else if (this.equals(WHITE)) {
+      return "O";
+    } else {
+      return "_";
+    }
+  }
 }
@@ -0,0 +1,165 @@
+package tools;
+
+import java.util.Arrays;
+
+import model.BitboardReversiModelImpl;
+import model.geometry.BoardGeometry;
+import model.position.Position3D;
+
+/**
+ * One recorded game: the board it was played on and its moves in order.
+ * As text a record is one line, the board shape ("hex" and a radius, or "square" and a diameter)
+ * followed by every move as q,r or the word pass, all separated by spaces, e.g.
+ * "hex 4 1,-2 2,-1 pass 0,2". Records hold moves only; the positions and the result come from
+ * playing them again.
+ */
+public final class GameRecord {
+  private final BoardGeometry geometry;
+  private final int[] moves;
+
+  /**
+   * Constructs a record.
+   * @param geometry shape of the board the game was played on
+   * @param moves cell id of every move in order, -1 for a pass
+   */
+  public GameRecord(BoardGeometry geometry, int[] moves) {
+    this.geometry = geometry;
+    this.moves = moves.clone();
+  }
+
+  /**
+   * Reads a record from its line of text.
+   * @param line record as written by toString
+   * @return the record
+   * @throws IllegalArgumentException if the line isn't a record or a move is off the board
+   */
+  public static GameRecord parse(String line) throws IllegalArgumentException {
+    String[] tokens = line.trim().split("\\s+");
+    if (tokens.length < 2) {
+      throw new IllegalArgumentException("A record starts with the board shape and size");
+    }
+    int size;
+    try {
+      size = Integer.parseInt(tokens[1]);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Bad board size " + tokens[1]);
+    }
+    BoardGeometry geometry;
+    if (tokens[0].equals("hex")) {
+      geometry = BoardGeometry.hex(size);
+    } else if (tokens[0].equals("square")) {
+      geometry = BoardGeometry.square(size);
+    } else {
+      throw new IllegalArgumentException("Board shape must be \"hex\" or \"square\"");
+    }
+    int[] moves = new int[tokens.length - 2];
+    for (int i = 0; i < moves.length; i++) {
+      String token = tokens[i + 2];
+      if (token.equals("pass")) {
+        moves[i] = -1;
+        continue;
+      }
+      int comma = token.indexOf(',');
+      try {
+        moves[i] = geometry.indexOf(Integer.parseInt(token.substring(0, comma)),
+                Integer.parseInt(token.substring(comma + 1)));
+      } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+        throw new IllegalArgumentException("Bad move " + token);
+      }
+      if (moves[i] < 0) {
+        throw new IllegalArgumentException("Move " + token + " is off the board");
+      }
+    }
+    return new GameRecord(geometry, moves);
+  }
+
+  /**
+   * Gets the shape of the board the game was played on.
+   * @return board geometry
+   */
+  public BoardGeometry getGeometry() {
+    return this.geometry;
+  }
+
+  /**
+   * Gets the moves of the game.
+   * @return cell id of every move in order, -1 for a pass
+   */
+  public int[] getMoves() {
+    return this.moves.clone();
+  }
+
+  /**
+   * Plays a recorded move.
+   * @param board board to play on
+   * @param move cell id, or -1 for a pass
+   * @return false if the move isn't legal, including a pass by a player who has a legal move
+   */
+  static boolean play(BitboardReversiModelImpl board, int move) {
+    try {
+      if (move < 0) {
+        if (board.hasLegalMove()) {
+          return false;
+        }
+        board.makePass();
+      } else {
+        board.makeMove(board.getGeometry().getPosition(move));
+      }
+      return true;
+    } catch (IllegalStateException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Checks if a recorded game was played to the end: nobody can move, whether or not the passes
+   * that end it were recorded.
+   * @param board position at the end of the record
+   * @return true if neither player has a legal move
+   */
+  static boolean isFinished(BitboardReversiModelImpl board) {
+    if (board.isGameOver()) {
+      return true;
+    }
+    if (board.hasLegalMove()) {
+      return false;
+    }
+    board.makePass();
+    boolean finished = !board.hasLegalMove();
+    board.undoMove();
+    return finished;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder line = new StringBuilder();
+    if (this.geometry.isSquare()) {
+      line.append("square ").append(2 * this.geometry.getRadius());
+    } else {
+      line.append("hex ").append(this.geometry.getRadius());
+    }
+    for (int move : this.moves) {
+      if (move < 0) {
+        line.append(" pass");
+      } else {
+        Position3D pos = this.geometry.getPosition(move);
+        line.append(' ').append(pos.getQ()).append(',').append(pos.getR());
+      }
+    }
+    return line.toString();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof GameRecord)) {
+      return false;
+    }
+    GameRecord that = (GameRecord) other;
+    return this.geometry == that.geometry && Arrays.equals(this.moves, that.moves);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * this.geometry.hashCode() + Arrays.hashCode(this.moves);
+  }
+}
@@ -0,0 +1,327 @@
+package tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.geometry.BoardGeometry;
+import model.metrics.InstrumentedReversiModel;
+import model.metrics.ModelMetrics;
+import model.player.Player;
+import model.position.Position3D;
+import model.tile.TileType;
+
+/**
+ * Plays many games between two players without any view, for measuring one against the other.
+ * The games are shared out between worker threads, each playing one game at a time on its own
+ * model; the players choose their moves with getOptimalMove and the runner plays them, passing for
+ * a player with no legal move. The players swap colors every game. Each game can start with a few
+ * random moves so the games differ; games 2k and 2k + 1 start with the same random moves, so each
+ * opening is played once with each player as black.
+ * Results are counted for the first player: wins, draws, losses and the average disc margin, and
+ * each worker's moves per second.
+ */
+public final class MatchRunner {
+  private final BoardGeometry geometry;
+  private final PlayerFactory first;
+  private final PlayerFactory second;
+  private int threads;
+  private int randomMoves;
+  private long seed;
+  private ModelMetrics metrics;
+  // Results of the latest run
+  private int wins;
+  private int draws;
+  private int losses;
+  private long margins;
+  private long[] workerMoves;
+  private long[] workerNanos;
+
+  /**
+   * Constructs a runner for two players on one board shape.
+   * @param geometry shape of the board
+   * @param first first player, whose results are counted
+   * @param second second player
+   */
+  public MatchRunner(BoardGeometry geometry, PlayerFactory first, PlayerFactory second) {
+    this.geometry = geometry;
+    this.first = first;
+    this.second = second;
+    this.threads = 1;
+    this.randomMoves = 0;
+    this.seed = 1;
+    this.workerMoves = new long[0];
+    this.workerNanos = new long[0];
+  }
+
+  /**
+   * Sets how many games are played at once.
+   * @param threads number of worker threads
+   * @throws IllegalArgumentException if it isn't positive
+   */
+  public void setThreads(int threads) throws IllegalArgumentException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * Sets how many random moves each game starts with (0 by default).
+   * @param randomMoves number of random plies
+   * @throws IllegalArgumentException if it is negative
+   */
+  public void setRandomMoves(int randomMoves) throws IllegalArgumentException {
+    if (randomMoves < 0) {
+      throw new IllegalArgumentException("Random move count can't be negative");
+    }
+    this.randomMoves = randomMoves;
+  }
+
+  /**
+   * Sets the seed for the random moves; the pair of games 2k and 2k + 1 uses seed + k.
+   * @param seed seed for the random moves
+   */
+  public void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Records the model operations of every game in the given metrics, by playing each game on an
+   * InstrumentedReversiModel. The players see the instrumented model too, so their calls are
+   * counted with the runner's.
+   * @param metrics metrics shared by every game, or null to play on plain models (the default)
+   */
+  public void setMetrics(ModelMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Plays a number of games and counts their results, replacing those of the last run.
+   * @param games how many games to play
+   * @throws IllegalArgumentException if the number of games is negative
+   * @throws IllegalStateException if a game fails, e.g. a player chose an illegal move
+   */
+  public void run(int games) throws IllegalArgumentException, IllegalStateException {
+    if (games < 0) {
+      throw new IllegalArgumentException("Game count can't be negative");
+    }
+    this.wins = 0;
+    this.draws = 0;
+    this.losses = 0;
+    this.margins = 0;
+    this.workerMoves = new long[this.threads];
+    this.workerNanos = new long[this.threads];
+    AtomicInteger next = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+    try {
+      List<Future<long[]>> workers = new ArrayList<>();
+      for (int w = 0; w < this.threads; w++) {
+        workers.add(pool.submit(() -> this.work(next, games)));
+      }
+      for (int w = 0; w < this.threads; w++) {
+        long[] result = workers.get(w).get();
+        this.wins += (int) result[0];
+        this.draws += (int) result[1];
+        this.losses += (int) result[2];
+        this.margins += result[3];
+        this.workerMoves[w] = result[4];
+        this.workerNanos[w] = result[5];
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while playing games", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A game failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Plays games on one worker until there are none left.
+   * @param next number of the next game to play, shared by the workers
+   * @param games how many games there are
+   * @return wins, draws, losses, margin total, moves and nanoseconds of this worker
+   */
+  private long[] work(AtomicInteger next, int games) {
+    long[] result = new long[6];
+    long start = System.nanoTime();
+    for (int game = next.getAndIncrement(); game < games; game = next.getAndIncrement()) {
+      boolean firstIsBlack = game % 2 == 0;
+      int[] played = playGame(this.geometry, firstIsBlack ? this.first : this.second,
+              firstIsBlack ? this.second : this.first, this.randomMoves, this.seed + game / 2,
+              this.metrics);
+      int margin = firstIsBlack ? played[0] : -played[0];
+      if (margin > 0) {
+        result[0]++;
+      } else if (margin == 0) {
+        result[1]++;
+      } else {
+        result[2]++;
+      }
+      result[3] += margin;
+      result[4] += played[1];
+    }
+    result[5] = System.nanoTime() - start;
+    return result;
+  }
+
+  /**
+   * Plays one game to the end.
+   * @param geometry shape of the board
+   * @param black black player
+   * @param white white player
+   * @param randomMoves how many random plies the game starts with
+   * @param seed seed for the random moves
+   * @param metrics metrics to record the model operations in, or null
+   * @return the black disc count minus the white one, and the number of plies played
+   * @throws IllegalStateException if a player chooses an illegal move
+   */
+  static int[] playGame(BoardGeometry geometry, PlayerFactory black, PlayerFactory white,
+                        int randomMoves, long seed, ModelMetrics metrics)
+          throws IllegalStateException {
+    IReversiModel model = geometry.isSquare()
+            ? new SquareReversiModelImpl(2 * geometry.getRadius())
+            : new ReversiModelImpl(geometry.getRadius());
+    if (metrics != null) {
+      model = new InstrumentedReversiModel(model, metrics);
+    }
+    Player blackPlayer = black.create(TileType.BLACK, model);
+    Player whitePlayer = white.create(TileType.WHITE, model);
+    try {
+      Random random = new Random(seed);
+      int[] legal = new int[geometry.getCellCount()];
+      int plies = 0;
+      while (!model.isGameOver()) {
+        int count = model.legalMoves(legal);
+        if (count == 0) {
+          model.pass();
+        } else {
+          Position3D move;
+          if (plies < randomMoves) {
+            move = geometry.getPosition(legal[random.nextInt(count)]);
+          } else if (model.getTurn() == TileType.BLACK) {
+            move = blackPlayer.getOptimalMove();
+          } else {
+            move = whitePlayer.getOptimalMove();
+          }
+          model.placeTile(move);
+        }
+        plies++;
+      }
+      return new int[] {model.getBlackScore() - model.getWhiteScore(), plies};
+    } finally {
+      // Players made for one game would otherwise leave any helper threads running
+      blackPlayer.close();
+      whitePlayer.close();
+    }
+  }
+
+  /**
+   * Gets how many games of the latest run the first player won.
+   * @return number of wins
+   */
+  public int getWins() {
+    return this.wins;
+  }
+
+  /**
+   * Gets how many games of the latest run were drawn.
+   * @return number of draws
+   */
+  public int getDraws() {
+    return this.draws;
+  }
+
+  /**
+   * Gets how many games of the latest run the first player lost.
+   * @return number of losses
+   */
+  public int getLosses() {
+    return this.losses;
+  }
+
+  /**
+   * Gets the first player's average disc margin over the latest run.
+   * @return discs ahead at the end of a game, on average; 0 if no games were played
+   */
+  public double getAverageMargin() {
+    int games = this.wins + this.draws + this.losses;
+    return games == 0 ? 0 : (double) this.margins / games;
+  }
+
+  /**
+   * Gets how fast each worker played in the latest run, counting every ply of its games (moves
+   * and passes) over the time it was working.
+   * @return plies per second of each worker
+   */
+  public double[] getMovesPerSecond() {
+    double[] rates = new double[this.workerMoves.length];
+    for (int w = 0; w < rates.length; w++) {
+      rates[w] = this.workerMoves[w] * 1e9 / Math.max(1, this.workerNanos[w]);
+    }
+    return rates;
+  }
+
+  /**
+   * Plays a match from the command line: "hex|square size games first second [threads]
+   * [randomMoves] [seed] [metrics]", with the players as PlayerFactory.parse reads them, e.g.
+   * "square 8 1000 search:3 ai". Every core is used by default, and games start with 4 random
+   * moves. Ending with the word metrics, after any of the optional numbers (e.g. "square 8 100 ai
+   * ai metrics"), also prints the counts and latencies of the model operations.
+   * @param args command line arguments
+   * @throws IllegalArgumentException if the arguments are wrong
+   */
+  public static void main(String[] args) throws IllegalArgumentException {
+    ModelMetrics metrics = null;
+    if (args.length > 0 && args[args.length - 1].equals("metrics")) {
+      metrics = new ModelMetrics(true);
+      args = Arrays.copyOf(args, args.length - 1);
+    }
+    if (args.length < 5) {
+      throw new IllegalArgumentException("Usage: hex|square size games first second [threads] "
+              + "[randomMoves] [seed] [metrics]");
+    }
+    BoardGeometry geometry;
+    if (args[0].equals("hex")) {
+      geometry = BoardGeometry.hex(Integer.parseInt(args[1]));
+    } else if (args[0].equals("square")) {
+      geometry = BoardGeometry.square(Integer.parseInt(args[1]));
+    } else {
+      throw new IllegalArgumentException("Board shape must be \"hex\" or \"square\"");
+    }
+    int games = Integer.parseInt(args[2]);
+    MatchRunner runner = new MatchRunner(geometry, PlayerFactory.parse(args[3]),
+            PlayerFactory.parse(args[4]));
+    runner.setThreads(args.length > 5
+            ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors());
+    runner.setRandomMoves(args.length > 6 ? Integer.parseInt(args[6]) : 4);
+    if (args.length > 7) {
+      runner.setSeed(Long.parseLong(args[7]));
+    }
+    runner.setMetrics(metrics);
+    long start = System.nanoTime();
+    runner.run(games);
+    System.out.printf("%s vs %s: %d wins, %d draws, %d losses, average margin %+.2f%n",
+            args[3], args[4], runner.getWins(), runner.getDraws(), runner.getLosses(),
+            runner.getAverageMargin());
+    double[] rates = runner.getMovesPerSecond();
+    for (int w = 0; w < rates.length; w++) {
+      System.out.printf("Worker %d: %.0f moves/s%n", w, rates[w]);
+    }
+    System.out.printf("%d games in %.1f s%n", games, (System.nanoTime() - start) / 1e9);
+    if (metrics != null) {
+      System.out.print(metrics.snapshot());
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package tools;
+
+/**
+ * Results of a match between two players, played as pairs of games with the colors swapped, and
+ * the statistics worked out from them for the first player.
+ * A game scores 1 for a win, 1/2 for a draw and 0 for a loss. The two games of a pair share an
+ * opening, so their results aren't independent; the statistics treat each pair's average score
+ * as one sample (the five possible pair scores are counted, which is sometimes called the
+ * pentanomial model), which gives honest error bars when one opening favors one color.
+ * The Elo difference is the one that the logistic Elo curve gives for the mean score, with a 95%
+ * interval from the standard error of the mean. The sequential probability ratio test (SPRT)
+ * weighs the hypothesis that the difference is elo1 against the hypothesis that it is elo0, using
+ * the usual normal approximation of the log-likelihood ratio, after counting a quarter of a pair
+ * of each kind so that the variance is never 0.
+ */
+public final class MatchStats {
+  // How many standard errors a 95% interval spans on each side
+  private static final double Z95 = 1.959964;
+  // Pairs of each kind the SPRT counts before any are played
+  private static final double SPRT_PRIOR = 0.25;
+
+  // How many pairs scored 0, 1/4, 1/2, 3/4 and 1
+  private final int[] pairs;
+  private int wins;
+  private int draws;
+  private int losses;
+  private long margins;
+
+  /**
+   * Constructs an empty match.
+   */
+  public MatchStats() {
+    this.pairs = new int[5];
+  }
+
+  /**
+   * Adds the results of a pair of games.
+   * @param first the first player's disc margin in the first game of the pair
+   * @param second the first player's disc margin in the second game of the pair
+   */
+  public void addPair(int first, int second) {
+    this.pairs[this.addGame(first) + this.addGame(second)]++;
+  }
+
+  /**
+   * Counts one game.
+   * @param margin the first player's disc margin
+   * @return twice the game's score: 2 for a win, 1 for a draw, 0 for a loss
+   */
+  private int addGame(int margin) {
+    this.margins += margin;
+    if (margin > 0) {
+      this.wins++;
+      return 2;
+    } else if (margin == 0) {
+      this.draws++;
+      return 1;
+    }
+    this.losses++;
+    return 0;
+  }
+
+  /**
+   * Gets how many pairs of games have been added.
+   * @return number of pairs
+   */
+  public int getPairs() {
+    int count = 0;
+    for (int p : this.pairs) {
+      count += p;
+    }
+    return count;
+  }
+
+  /**
+   * Gets how many games the first player won.
+   * @return number of wins
+   */
+  public int getWins() {
+    return this.wins;
+  }
+
+  /**
+   * Gets how many games were drawn.
+   * @return number of draws
+   */
+  public int getDraws() {
+    return this.draws;
+  }
+
+  /**
+   * Gets how many games the first player lost.
+   * @return number of losses
+   */
+  public int getLosses() {
+    return this.losses;
+  }
+
+  /**
+   * Gets the first player's average disc margin.
+   * @return discs ahead at the end of a game, on average; 0 with no games
+   */
+  public double getAverageMargin() {
+    int games = this.wins + this.draws + this.losses;
+    return games == 0 ? 0 : (double) this.margins / games;
+  }
+
+  /**
+   * Gets the first player's mean score per game.
+   * @return score from 0 to 1; 1/2 with no games
+   */
+  public double getScore() {
+    int count = this.getPairs();
+    if (count == 0) {
+      return 0.5;
+    }
+    double total = 0;
+    for (int p = 0; p < this.pairs.length; p++) {
+      total += this.pairs[p] * p / 4.0;
+    }
+    return total / count;
+  }
+
+  /**
+   * Gets the variance of the pair scores.
+   * @return variance; 0 with no pairs
+   */
+  private double getVariance() {
+    int count = this.getPairs();
+    if (count == 0) {
+      return 0;
+    }
+    double mean = this.getScore();
+    double total = 0;
+    for (int p = 0; p < this.pairs.length; p++) {
+      double d = p / 4.0 - mean;
+      total += this.pairs[p] * d * d;
+    }
+    return total / count;
+  }
+
+  /**
+   * Gets the Elo difference of the first player over the second.
+   * @return Elo difference, infinite if one player won every game
+   */
+  public double getElo() {
+    return eloOf(this.getScore());
+  }
+
+  /**
+   * Gets half the width of the 95% interval around the Elo difference.
+   * @return Elo error bar; infinite if either end of the interval is, or one player won every game
+   */
+  public double getEloError() {
+    int count = this.getPairs();
+    double score = this.getScore();
+    if (count == 0 || score <= 0 || score >= 1) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double error = Z95 * Math.sqrt(this.getVariance() / count);
+    return (eloOf(Math.min(1, score + error)) - eloOf(Math.max(0, score - error))) / 2;
+  }
+
+  /**
+   * Gets the log-likelihood ratio of the hypothesis that the first player is elo1 stronger over
+   * the hypothesis that it is elo0 stronger.
+   * @param elo0 Elo difference of the null hypothesis
+   * @param elo1 Elo difference of the alternative hypothesis
+   * @return log-likelihood ratio
+   */
+  public double getLlr(double elo0, double elo1) {
+    // A fraction of a pair of each kind is added, or a match one player wins every game of would
+    // have no variance and never be decided
+    double count = 0;
+    double total = 0;
+    for (int p = 0; p < this.pairs.length; p++) {
+      count += this.pairs[p] + SPRT_PRIOR;
+      total += (this.pairs[p] + SPRT_PRIOR) * p / 4.0;
+    }
+    double mean = total / count;
+    double variance = 0;
+    for (int p = 0; p < this.pairs.length; p++) {
+      double d = p / 4.0 - mean;
+      variance += (this.pairs[p] + SPRT_PRIOR) * d * d;
+    }
+    variance /= count;
+    double s0 = scoreOf(elo0);
+    double s1 = scoreOf(elo1);
+    return this.getPairs() * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+  }
+
+  /**
+   * Runs the SPRT on the pairs so far.
+   * @param elo0 Elo difference of the null hypothesis
+   * @param elo1 Elo difference of the alternative hypothesis
+   * @param alpha chance of accepting elo1 when elo0 is true
+   * @param beta chance of accepting elo0 when elo1 is true
+   * @return 1 if elo1 is accepted, -1 if elo0 is accepted, 0 if more games are needed
+   */
+  public int sprt(double elo0, double elo1, double alpha, double beta) {
+    double llr = this.getLlr(elo0, elo1);
+    if (llr >= Math.log((1 - beta) / alpha)) {
+      return 1;
+    } else if (llr <= Math.log(beta / (1 - alpha))) {
+      return -1;
+    }
+    return 0;
+  }
+
+  /**
+   * Gets the expected score per game of a player an Elo difference stronger.
+   * @param elo Elo difference
+   * @return expected score from 0 to 1
+   */
+  public static double scoreOf(double elo) {
+    return 1 / (1 + Math.pow(10, -elo / 400));
+  }
+
+  /**
+   * Gets the Elo difference that gives an expected score per game.
+   * @param score expected score from 0 to 1
+   * @return Elo difference, infinite for a score of 0 or 1
+   */
+  public static double eloOf(double score) {
+    if (score <= 0) {
+      return Double.NEGATIVE_INFINITY;
+    } else if (score >= 1) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return -400 * Math.log10(1 / score - 1);
+  }
+}
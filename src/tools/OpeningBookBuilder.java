@@ -0,0 +1,339 @@
+package tools;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.BitboardReversiModelImpl;
+import model.ReadonlyIReversiModel;
+import model.geometry.BoardGeometry;
+import model.geometry.BoardSymmetry;
+import model.player.AlphaBetaAIPlayer;
+import model.player.OpeningBook;
+import model.player.TranspositionTable;
+import model.position.Position3D;
+import model.tile.TileType;
+
+/**
+ * Builds opening book files (see OpeningBook) for one board shape.
+ * Entries come from three places: an existing book, which is how a book is expanded; played games,
+ * where each position within the first few plies gets the move with the best average result among
+ * those played often enough; and searches, where every position within the first few plies is
+ * searched to a fixed depth on several threads. A position keeps whichever entry was searched
+ * deepest, so searched moves win over moves taken from games.
+ * Positions are keyed by canonical hash (see BoardSymmetry), with their moves turned into the
+ * canonical form, so turns and mirror images of a position are searched and stored once.
+ * The entries are held in memory until write sorts them by hash and writes the file.
+ */
+public final class OpeningBookBuilder {
+  // Table each search of a book position gets, in megabytes
+  private static final int SEARCH_TABLE_MEGABYTES = 4;
+  // Time limit of each search, long enough that the depth alone decides the move
+  private static final long SEARCH_MILLIS = 3_600_000;
+
+  private final BoardGeometry geometry;
+  private final BoardSymmetry symmetry;
+  // Canonical hash to {move in the canonical form, depth, score}
+  private final Map<Long, int[]> entries;
+
+  /**
+   * Constructs a builder with no entries.
+   * @param geometry shape of the board the book is for
+   */
+  public OpeningBookBuilder(BoardGeometry geometry) {
+    this.geometry = geometry;
+    this.symmetry = BoardSymmetry.of(geometry);
+    this.entries = new HashMap<>();
+  }
+
+  /**
+   * Gets how many positions the book has so far.
+   * @return entry count
+   */
+  public int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * Adds the move of a position, unless the position (or a turn or mirror image of it) already
+   * has a move searched deeper.
+   * @param position position the move is played in
+   * @param move cell id of the move
+   * @param depth depth the move was searched to, 0 if it was taken from games
+   * @param score score of the move for the side to move
+   */
+  public void put(ReadonlyIReversiModel position, int move, int depth, int score) {
+    long[] transforms = new long[this.symmetry.getTransformCount()];
+    int transform = this.symmetry.canonicalTransform(position, transforms);
+    this.putEntry(transforms[transform], this.symmetry.apply(transform, move), depth, score);
+  }
+
+  /**
+   * Adds an entry already in canonical form, unless its position has one searched deeper.
+   * @param hash canonical hash of the position
+   * @param move cell id of the move in the canonical form
+   * @param depth depth the move was searched to
+   * @param score score of the move for the side to move
+   */
+  private void putEntry(long hash, int move, int depth, int score) {
+    int[] old = this.entries.get(hash);
+    if (old == null || old[1] <= depth) {
+      this.entries.put(hash, new int[] {move, depth, score});
+    }
+  }
+
+  /**
+   * Adds every entry of an existing book.
+   * @param book book to expand
+   * @throws IllegalArgumentException if the book is for another board
+   */
+  public void addBook(OpeningBook book) throws IllegalArgumentException {
+    if (book.getGeometry() != this.geometry) {
+      throw new IllegalArgumentException("Book is for another board");
+    }
+    for (int i = 0; i < book.size(); i++) {
+      this.putEntry(book.getHash(i), book.getMove(i), book.getDepth(i), book.getScore(i));
+    }
+  }
+
+  /**
+   * Adds the moves of played games. Every position within the first plies of a finished game
+   * gets the move that did best on average for the side that played it, counting only moves
+   * played at least minGames times. Records that aren't on this board, aren't legal or aren't
+   * finished are left out.
+   * @param records file of game records (see GameRecord)
+   * @param plies how many plies of each game go in the book
+   * @param minGames how many times a move must have been played to go in the book
+   * @return how many games were used
+   * @throws IOException if the file can't be read
+   */
+  public int addGames(Path records, int plies, int minGames) throws IOException {
+    // Canonical hash to canonical move to {games, total disc difference for its player}
+    Map<Long, Map<Integer, long[]>> stats = new HashMap<>();
+    long[] hashes = new long[plies];
+    int[] played = new int[plies];
+    boolean[] black = new boolean[plies];
+    long[] transforms = new long[this.symmetry.getTransformCount()];
+    int used = 0;
+    try (BufferedReader in = Files.newBufferedReader(records)) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        GameRecord record;
+        try {
+          record = GameRecord.parse(line);
+        } catch (IllegalArgumentException e) {
+          continue;
+        }
+        if (record.getGeometry() != this.geometry) {
+          continue;
+        }
+        BitboardReversiModelImpl board = new BitboardReversiModelImpl(this.geometry);
+        int[] moves = record.getMoves();
+        int count = 0;
+        boolean legal = true;
+        for (int i = 0; i < moves.length && legal; i++) {
+          if (i < plies && moves[i] >= 0) {
+            int transform = this.symmetry.canonicalTransform(board, transforms);
+            hashes[count] = transforms[transform];
+            played[count] = this.symmetry.apply(transform, moves[i]);
+            black[count] = board.getTurn() == TileType.BLACK;
+            count++;
+          }
+          legal = GameRecord.play(board, moves[i]);
+        }
+        if (!legal || !GameRecord.isFinished(board)) {
+          continue;
+        }
+        used++;
+        int discs = board.getBlackScore() - board.getWhiteScore();
+        for (int i = 0; i < count; i++) {
+          long[] moveStats = stats.computeIfAbsent(hashes[i], k -> new HashMap<>())
+                  .computeIfAbsent(played[i], k -> new long[2]);
+          moveStats[0]++;
+          moveStats[1] += black[i] ? discs : -discs;
+        }
+      }
+    }
+    for (Map.Entry<Long, Map<Integer, long[]>> position : stats.entrySet()) {
+      int bestMove = -1;
+      double bestScore = 0;
+      for (Map.Entry<Integer, long[]> move : position.getValue().entrySet()) {
+        long[] moveStats = move.getValue();
+        double score = (double) moveStats[1] / moveStats[0];
+        if (moveStats[0] >= minGames && (bestMove < 0 || score > bestScore)) {
+          bestMove = move.getKey();
+          bestScore = score;
+        }
+      }
+      if (bestMove >= 0) {
+        this.putEntry(position.getKey(), bestMove, 0, (int) Math.round(bestScore));
+      }
+    }
+    return used;
+  }
+
+  /**
+   * Searches every position within the first plies of the game, on several threads, and adds
+   * the move each search chose. Only one of each set of positions that are turns or mirror images
+   * of each other is searched. Positions already in the book at the same depth or deeper, and
+   * positions where the side to move has to pass, are left out.
+   * @param plies how many plies from the start to go
+   * @param depth depth to search each position to
+   * @param threads how many positions are searched at once
+   * @return how many positions were searched
+   * @throws IllegalStateException if a search fails
+   */
+  public int addSearches(int plies, int depth, int threads) throws IllegalStateException {
+    List<BitboardReversiModelImpl> positions = new ArrayList<>();
+    Set<Long> seen = new HashSet<>();
+    List<BitboardReversiModelImpl> frontier = new ArrayList<>();
+    frontier.add(new BitboardReversiModelImpl(this.geometry));
+    seen.add(this.symmetry.canonicalHash(frontier.get(0)));
+    int[] moves = new int[this.geometry.getCellCount()];
+    for (int ply = 0; ply <= plies && !frontier.isEmpty(); ply++) {
+      List<BitboardReversiModelImpl> next = new ArrayList<>();
+      for (BitboardReversiModelImpl position : frontier) {
+        int count = position.legalMoves(moves);
+        int[] old = this.entries.get(this.symmetry.canonicalHash(position));
+        if (count > 0 && (old == null || old[1] < depth)) {
+          positions.add(position);
+        }
+        if (ply == plies) {
+          continue;
+        }
+        int[] children = count == 0 ? new int[] {-1} : Arrays.copyOf(moves, count);
+        for (int move : children) {
+          BitboardReversiModelImpl child = new BitboardReversiModelImpl(position);
+          GameRecord.play(child, move);
+          if (!child.isGameOver() && seen.add(this.symmetry.canonicalHash(child))) {
+            next.add(child);
+          }
+        }
+      }
+      frontier = next;
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<int[]>> results = new ArrayList<>();
+      for (BitboardReversiModelImpl position : positions) {
+        results.add(pool.submit(() -> search(position, depth)));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        int[] result = results.get(i).get();
+        this.put(positions.get(i), result[0], depth, result[1]);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while searching", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A search failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    return positions.size();
+  }
+
+  /**
+   * Writes the book, sorted by canonical hash.
+   * @param file file to write
+   * @throws IOException if the file can't be written
+   */
+  public void write(Path file) throws IOException {
+    long[] hashes = new long[this.entries.size()];
+    int i = 0;
+    for (long hash : this.entries.keySet()) {
+      hashes[i++] = hash;
+    }
+    Arrays.sort(hashes);
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(OpeningBook.MAGIC);
+      out.writeInt(OpeningBook.VERSION);
+      out.writeInt(this.geometry.isSquare() ? 1 : 0);
+      out.writeInt(this.geometry.isSquare()
+              ? 2 * this.geometry.getRadius() : this.geometry.getRadius());
+      out.writeInt(hashes.length);
+      out.writeInt(0);
+      for (long hash : hashes) {
+        int[] entry = this.entries.get(hash);
+        out.writeLong(hash);
+        out.writeShort(entry[0]);
+        out.writeShort(entry[1]);
+        out.writeInt(entry[2]);
+      }
+    }
+  }
+
+  /**
+   * Searches one position with a fixed-depth search player.
+   * @param position position to search, not changed
+   * @param depth depth to search to
+   * @return the chosen move's cell id and its score
+   */
+  private static int[] search(BitboardReversiModelImpl position, int depth) {
+    BitboardReversiModelImpl copy = new BitboardReversiModelImpl(position);
+    AlphaBetaAIPlayer player = new AlphaBetaAIPlayer(copy.getTurn(), copy, SEARCH_MILLIS, depth);
+    player.setTranspositionTable(new TranspositionTable(SEARCH_TABLE_MEGABYTES));
+    Position3D move = player.getOptimalMove();
+    return new int[] {copy.getGeometry().indexOf(move), player.getLastScore()};
+  }
+
+  /**
+   * Builds a book from the command line, either
+   * "search hex|square size plies depth book [existing]" or
+   * "games hex|square size records plies minGames book [existing]", where existing is a book to
+   * expand.
+   * @param args command line arguments
+   * @throws IOException if a file can't be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    boolean search = args.length >= 6 && args[0].equals("search");
+    boolean games = args.length >= 7 && args[0].equals("games");
+    if (!search && !games) {
+      throw new IllegalArgumentException("Usage: search hex|square size plies depth book "
+              + "[existing], or games hex|square size records plies minGames book [existing]");
+    }
+    int size = Integer.parseInt(args[2]);
+    BoardGeometry geometry;
+    if (args[1].equals("hex")) {
+      geometry = BoardGeometry.hex(size);
+    } else if (args[1].equals("square")) {
+      geometry = BoardGeometry.square(size);
+    } else {
+      throw new IllegalArgumentException("Board shape must be \"hex\" or \"square\"");
+    }
+    OpeningBookBuilder builder = new OpeningBookBuilder(geometry);
+    int bookArg = search ? 5 : 6;
+    if (args.length > bookArg + 1) {
+      builder.addBook(new OpeningBook(Paths.get(args[bookArg + 1])));
+    }
+    long start = System.nanoTime();
+    if (search) {
+      int searched = builder.addSearches(Integer.parseInt(args[3]), Integer.parseInt(args[4]),
+              Runtime.getRuntime().availableProcessors());
+      System.out.printf("Searched %d positions", searched);
+    } else {
+      int used = builder.addGames(Paths.get(args[3]), Integer.parseInt(args[4]),
+              Integer.parseInt(args[5]));
+      System.out.printf("Used %d games", used);
+    }
+    System.out.printf(" in %.1f s, book has %d positions%n",
+            (System.nanoTime() - start) / 1e9, builder.size());
+    builder.write(Paths.get(args[bookArg]));
+  }
+}
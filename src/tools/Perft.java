@@ -0,0 +1,290 @@
+package tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.BitboardReversiModelImpl;
+import model.IReversiModel;
+import model.ReadonlyIReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.position.Position3D;
+
+/**
+ * Counts the move paths of a given length from a position (perft), to check and time move
+ * generation. Every legal move is followed; a player with no legal move passes, and the pass is a
+ * ply like any move. A game that ends (two passes in a row) before the length is reached counts as
+ * one path. Two model implementations that agree on every count up to some depth generate the same
+ * moves, flips and passes, so it is a check to run after changing how a model works.
+ * The position is copied into a model of the same kind (ReversiModelImpl, SquareReversiModelImpl
+ * or BitboardReversiModelImpl), and the moves are tried on it with makeMove and undoMove. run can
+ * split the moves from the position between several threads, each with its own copy.
+ */
+public final class Perft {
+  private final ReadonlyIReversiModel position;
+  private int[] moves;
+  private long[] counts;
+  private long nanos;
+
+  /**
+   * Constructs a counter for a position.
+   * @param position position to count from; a copy is taken
+   */
+  public Perft(ReadonlyIReversiModel position) {
+    this.position = copyOf(position);
+    this.moves = new int[0];
+    this.counts = new long[0];
+  }
+
+  /**
+   * Counts the paths of a given length from the position, and how many go through each move.
+   * @param depth length of the paths in plies
+   * @param threads how many moves from the position are counted at once
+   * @return number of paths
+   * @throws IllegalArgumentException if the depth is negative or there are no threads
+   * @throws IllegalStateException if a thread fails
+   */
+  public long run(int depth, int threads) throws IllegalArgumentException, IllegalStateException {
+    if (depth < 0 || threads < 1) {
+      throw new IllegalArgumentException("Depth can't be negative and there must be a thread");
+    }
+    long start = System.nanoTime();
+    IReversiModel root = copyOf(this.position);
+    if (depth == 0 || root.isGameOver()) {
+      this.moves = new int[0];
+      this.counts = new long[0];
+    } else {
+      int[] legal = new int[root.getGeometry().getCellCount()];
+      int count = root.legalMoves(legal);
+      this.moves = new int[Math.max(1, count)];
+      if (count == 0) {
+        this.moves[0] = -1;
+      } else {
+        System.arraycopy(legal, 0, this.moves, 0, count);
+      }
+      this.counts = new long[this.moves.length];
+      if (threads == 1) {
+        for (int i = 0; i < this.moves.length; i++) {
+          this.counts[i] = this.countThrough(root, this.moves[i], depth);
+        }
+      } else {
+        this.runOnThreads(depth, threads);
+      }
+    }
+    this.nanos = System.nanoTime() - start;
+    return this.getTotal();
+  }
+
+  /**
+   * Counts the paths through each move from the position on a pool of threads.
+   * @param depth length of the paths in plies
+   * @param threads size of the pool
+   * @throws IllegalStateException if a thread fails
+   */
+  private void runOnThreads(int depth, int threads) throws IllegalStateException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Long>> results = new ArrayList<>();
+      for (int move : this.moves) {
+        results.add(pool.submit(() -> this.countThrough(copyOf(this.position), move, depth)));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        this.counts[i] = results.get(i).get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while counting", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A count failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Counts the paths that start with a move.
+   * @param model model at the position, left as it was
+   * @param move cell id, or -1 for a pass
+   * @param depth length of the paths in plies, including the move
+   * @return number of paths
+   */
+  private long countThrough(IReversiModel model, int move, int depth) {
+    play(model, move);
+    long count = count(model, depth - 1, new int[depth][model.getGeometry().getCellCount()]);
+    model.undoMove();
+    return count;
+  }
+
+  /**
+   * Counts the paths of a given length from a model's position.
+   * @param model model at the position; it is played on and left as it was
+   * @param depth length of the paths in plies
+   * @return number of paths
+   * @throws IllegalArgumentException if the depth is negative
+   */
+  public static long count(IReversiModel model, int depth) throws IllegalArgumentException {
+    if (depth < 0) {
+      throw new IllegalArgumentException("Depth can't be negative");
+    }
+    return count(model, depth, new int[depth + 1][model.getGeometry().getCellCount()]);
+  }
+
+  /**
+   * Counts the paths of a given length from a model's position.
+   * @param model model at the position, left as it was
+   * @param depth length of the paths in plies
+   * @param moves an array for the legal moves of each remaining ply
+   * @return number of paths
+   */
+  private static long count(IReversiModel model, int depth, int[][] moves) {
+    if (depth == 0 || model.isGameOver()) {
+      return 1;
+    }
+    int[] legal = moves[depth - 1];
+    int count = model.legalMoves(legal);
+    if (count == 0) {
+      if (depth == 1) {
+        return 1;
+      }
+      model.makePass();
+      long total = count(model, depth - 1, moves);
+      model.undoMove();
+      return total;
+    }
+    if (depth == 1) {
+      return count;
+    }
+    long total = 0;
+    for (int i = 0; i < count; i++) {
+      model.makeMove(model.getGeometry().getPosition(legal[i]));
+      total += count(model, depth - 1, moves);
+      model.undoMove();
+    }
+    return total;
+  }
+
+  /**
+   * Gets the moves from the position in the latest run, in board order.
+   * @return cell ids, or just -1 if the side to move had to pass; empty for depth 0 or a finished
+   *         game
+   */
+  public int[] getMoves() {
+    return this.moves.clone();
+  }
+
+  /**
+   * Gets how many paths of the latest run went through each move.
+   * @return counts in the same order as getMoves
+   */
+  public long[] getCounts() {
+    return this.counts.clone();
+  }
+
+  /**
+   * Gets the number of paths found by the latest run.
+   * @return number of paths
+   */
+  public long getTotal() {
+    if (this.moves.length == 0) {
+      return 1;
+    }
+    long total = 0;
+    for (long count : this.counts) {
+      total += count;
+    }
+    return total;
+  }
+
+  /**
+   * Gets how long the latest run took.
+   * @return nanoseconds
+   */
+  public long getNanos() {
+    return this.nanos;
+  }
+
+  /**
+   * Gets how many paths per second the latest run counted.
+   * @return paths per second
+   */
+  public double getNodesPerSecond() {
+    return this.getTotal() * 1e9 / Math.max(1, this.nanos);
+  }
+
+  /**
+   * Copies a position into a model of the same kind.
+   * @param position position to copy
+   * @return the copy
+   */
+  private static IReversiModel copyOf(ReadonlyIReversiModel position) {
+    if (position instanceof BitboardReversiModelImpl) {
+      return new BitboardReversiModelImpl(position);
+    }
+    if (position.getGeometry().isSquare()) {
+      return new SquareReversiModelImpl(position);
+    }
+    return new ReversiModelImpl(position);
+  }
+
+  /**
+   * Plays a move with makeMove or makePass.
+   * @param model model to play on
+   * @param move cell id, or -1 for a pass
+   */
+  private static void play(IReversiModel model, int move) {
+    if (move < 0) {
+      model.makePass();
+    } else {
+      model.makeMove(model.getGeometry().getPosition(move));
+    }
+  }
+
+  /**
+   * Counts the paths from a position and prints how many go through each move, the total and the
+   * speed. The arguments are the board shape and size, the depth, the number of threads (every
+   * core by default) and then optionally the moves to the position, as in a game record.
+   * For example "hex 5 7" or "square 8 9 4 4,2 3,2".
+   * @param args shape, size, depth, threads and moves
+   * @throws IllegalArgumentException if the arguments are wrong or a move is illegal
+   */
+  public static void main(String[] args) throws IllegalArgumentException {
+    if (args.length < 3) {
+      throw new IllegalArgumentException("Usage: hex|square size depth [threads [moves]]");
+    }
+    StringBuilder line = new StringBuilder(args[0]).append(' ').append(args[1]);
+    for (int i = 4; i < args.length; i++) {
+      line.append(' ').append(args[i]);
+    }
+    GameRecord record = GameRecord.parse(line.toString());
+    int size = Integer.parseInt(args[1]);
+    IReversiModel model = record.getGeometry().isSquare()
+            ? new SquareReversiModelImpl(size) : new ReversiModelImpl(size);
+    for (int move : record.getMoves()) {
+      try {
+        play(model, move);
+      } catch (IllegalStateException e) {
+        throw new IllegalArgumentException("Illegal move in " + line, e);
+      }
+    }
+    int threads = args.length > 3
+            ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+    Perft perft = new Perft(model);
+    perft.run(Integer.parseInt(args[2]), threads);
+    int[] moves = perft.getMoves();
+    long[] counts = perft.getCounts();
+    for (int i = 0; i < moves.length; i++) {
+      if (moves[i] < 0) {
+        System.out.printf("pass: %d%n", counts[i]);
+      } else {
+        Position3D pos = model.getGeometry().getPosition(moves[i]);
+        System.out.printf("%d,%d: %d%n", pos.getQ(), pos.getR(), counts[i]);
+      }
+    }
+    System.out.printf("Total %d in %.3f s, %.0f nodes/s%n",
+            perft.getTotal(), perft.getNanos() / 1e9, perft.getNodesPerSecond());
+  }
+}
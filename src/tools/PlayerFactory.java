@@ -0,0 +1,61 @@
+package tools;
+
+import model.IReversiModel;
+import model.player.AIPlayer;
+import model.player.AdvancedAIPlayer;
+import model.player.AlphaBetaAIPlayer;
+import model.player.MonteCarloAIPlayer;
+import model.player.Player;
+import model.tile.TileType;
+
+/**
+ * Makes a player for each game the offline tools play, since a player is tied to one model.
+ * A player's constructor taking a color and a model fits, e.g. AIPlayer::new.
+ */
+public interface PlayerFactory {
+  // Time budget for players that are limited by depth or playouts instead
+  long UNTIMED_MILLIS = 3_600_000;
+
+  /**
+   * Makes a player for one game.
+   * @param color color the player plays
+   * @param model model of the game, which the tool plays the chosen moves on
+   * @return the player
+   */
+  Player create(TileType color, IReversiModel model);
+
+  /**
+   * Reads a player from the command line: "ai", "advanced", "search:depth" for a search player
+   * limited to a depth, or "mcts:playouts" for a Monte Carlo player limited to a number of
+   * playouts. Without a number, search goes to depth 4 and mcts plays 1000 playouts.
+   * @param spec the player as text
+   * @return a factory for that player
+   * @throws IllegalArgumentException if the text isn't a player
+   */
+  static PlayerFactory parse(String spec) throws IllegalArgumentException {
+    int colon = spec.indexOf(':');
+    String kind = colon < 0 ? spec : spec.substring(0, colon);
+    int limit;
+    try {
+      limit = colon < 0 ? -1 : Integer.parseInt(spec.substring(colon + 1));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Bad player limit in " + spec);
+    }
+    if (colon >= 0 && limit <= 0) {
+      throw new IllegalArgumentException("Player limit must be positive in " + spec);
+    }
+    if (kind.equals("ai") && colon < 0) {
+      return AIPlayer::new;
+    } else if (kind.equals("advanced") && colon < 0) {
+      return AdvancedAIPlayer::new;
+    } else if (kind.equals("search")) {
+      int depth = colon < 0 ? 4 : limit;
+      return (color, model) -> new AlphaBetaAIPlayer(color, model, UNTIMED_MILLIS, depth);
+    } else if (kind.equals("mcts")) {
+      int playouts = colon < 0 ? 1000 : limit;
+      return (color, model) -> new MonteCarloAIPlayer(color, model, UNTIMED_MILLIS, playouts);
+    }
+    throw new IllegalArgumentException("Player must be ai, advanced, search[:depth] or "
+            + "mcts[:playouts], not " + spec);
+  }
+}
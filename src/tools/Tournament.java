@@ -0,0 +1,413 @@
+package tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import model.geometry.BoardGeometry;
+
+/**
+ * Plays matches between several named players on several board shapes and keeps their
+ * statistics (see MatchStats). In a round robin every player meets every other one; in a gauntlet
+ * the first player meets each of the others. Each match is played as pairs of games with the
+ * colors swapped and the same random opening, pair k of every match using seed + k.
+ * The pairs of all the matches are played on a fixed number of threads, taking turns between the
+ * matches, with only a few pairs waiting for a thread at any time, so the matches advance
+ * together. Every game is written to the results file as soon as it is counted, one line per
+ * game: the board ("hex 5" or "square 8"), the black player, the white player, and black's disc
+ * margin. With the SPRT turned on, a match stops being given new pairs once the test accepts one
+ * of its hypotheses; pairs already being played are still counted.
+ */
+public final class Tournament {
+  /**
+   * Which players meet.
+   */
+  public enum Format {
+    // Every player meets every other player
+    ROUND_ROBIN,
+    // The first player meets each of the others
+    GAUNTLET
+  }
+
+  private final List<String> names;
+  private final List<PlayerFactory> players;
+  private final List<BoardGeometry> boards;
+  private Format format;
+  private int maxPairs;
+  private int threads;
+  private int randomMoves;
+  private long seed;
+  private boolean sprt;
+  private double elo0;
+  private double elo1;
+  private double alpha;
+  private double beta;
+  // One entry per match of the latest run
+  private final List<Match> matches;
+
+  /**
+   * One match of a run: two players on one board, and its results.
+   */
+  public static final class Match {
+    private final BoardGeometry board;
+    private final int first;
+    private final int second;
+    private final MatchStats stats;
+    private int scheduled;
+    private int decision;
+
+    /**
+     * Constructs a match that hasn't started.
+     * @param board shape of the board
+     * @param first index of the first player
+     * @param second index of the second player
+     */
+    private Match(BoardGeometry board, int first, int second) {
+      this.board = board;
+      this.first = first;
+      this.second = second;
+      this.stats = new MatchStats();
+    }
+
+    /**
+     * Gets the shape of the board the match is played on.
+     * @return board geometry
+     */
+    public BoardGeometry getBoard() {
+      return this.board;
+    }
+
+    /**
+     * Gets the index of the first player, whom the statistics are for.
+     * @return index in the order the players were added
+     */
+    public int getFirst() {
+      return this.first;
+    }
+
+    /**
+     * Gets the index of the second player.
+     * @return index in the order the players were added
+     */
+    public int getSecond() {
+      return this.second;
+    }
+
+    /**
+     * Gets the results of the match.
+     * @return statistics for the first player
+     */
+    public MatchStats getStats() {
+      return this.stats;
+    }
+
+    /**
+     * Gets what the SPRT decided.
+     * @return 1 if elo1 was accepted, -1 if elo0 was, 0 if neither (or the test is off)
+     */
+    public int getDecision() {
+      return this.decision;
+    }
+  }
+
+  /**
+   * Constructs a round robin with no players or boards, playing 100 pairs per match on one thread
+   * with 4 random moves per opening.
+   */
+  public Tournament() {
+    this.names = new ArrayList<>();
+    this.players = new ArrayList<>();
+    this.boards = new ArrayList<>();
+    this.matches = new ArrayList<>();
+    this.format = Format.ROUND_ROBIN;
+    this.maxPairs = 100;
+    this.threads = 1;
+    this.randomMoves = 4;
+    this.seed = 1;
+  }
+
+  /**
+   * Adds a player.
+   * @param name name of the player in the results, without spaces
+   * @param player factory for the player
+   * @throws IllegalArgumentException if the name is empty, has spaces or is taken
+   */
+  public void addPlayer(String name, PlayerFactory player) throws IllegalArgumentException {
+    if (name.isEmpty() || name.matches(".*\\s.*") || this.names.contains(name)) {
+      throw new IllegalArgumentException("Player names must be unique and without spaces");
+    }
+    this.names.add(name);
+    this.players.add(player);
+  }
+
+  /**
+   * Adds a board shape that every match is played on.
+   * @param board shape of the board
+   */
+  public void addBoard(BoardGeometry board) {
+    this.boards.add(board);
+  }
+
+  /**
+   * Sets which players meet (round robin by default).
+   * @param format round robin or gauntlet
+   */
+  public void setFormat(Format format) {
+    this.format = format;
+  }
+
+  /**
+   * Sets the most pairs of games each match plays.
+   * @param maxPairs number of pairs
+   * @throws IllegalArgumentException if it isn't positive
+   */
+  public void setMaxPairs(int maxPairs) throws IllegalArgumentException {
+    if (maxPairs <= 0) {
+      throw new IllegalArgumentException("Pair count must be positive");
+    }
+    this.maxPairs = maxPairs;
+  }
+
+  /**
+   * Sets how many pairs of games are played at once.
+   * @param threads number of threads
+   * @throws IllegalArgumentException if it isn't positive
+   */
+  public void setThreads(int threads) throws IllegalArgumentException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * Sets how many random moves each opening has.
+   * @param randomMoves number of random plies
+   * @throws IllegalArgumentException if it is negative
+   */
+  public void setRandomMoves(int randomMoves) throws IllegalArgumentException {
+    if (randomMoves < 0) {
+      throw new IllegalArgumentException("Random move count can't be negative");
+    }
+    this.randomMoves = randomMoves;
+  }
+
+  /**
+   * Sets the seed of the random openings.
+   * @param seed seed of the first pair
+   */
+  public void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Turns on the SPRT, which stops a match once it accepts that the first player is elo0 or elo1
+   * stronger than the second.
+   * @param elo0 Elo difference of the null hypothesis
+   * @param elo1 Elo difference of the alternative hypothesis
+   * @param alpha chance of accepting elo1 when elo0 is true
+   * @param beta chance of accepting elo0 when elo1 is true
+   * @throws IllegalArgumentException if elo1 isn't above elo0 or a chance isn't between 0 and 1
+   */
+  public void setSprt(double elo0, double elo1, double alpha, double beta)
+          throws IllegalArgumentException {
+    if (!(elo1 > elo0) || !(alpha > 0 && alpha < 1) || !(beta > 0 && beta < 1)) {
+      throw new IllegalArgumentException("elo1 must be above elo0, and alpha and beta must be "
+              + "between 0 and 1");
+    }
+    this.sprt = true;
+    this.elo0 = elo0;
+    this.elo1 = elo1;
+    this.alpha = alpha;
+    this.beta = beta;
+  }
+
+  /**
+   * Plays every match, writing each game to a file as soon as it is counted.
+   * @param results file to write the games to
+   * @return the matches and their results
+   * @throws IllegalStateException if there are fewer than two players or no boards, or a game
+   *                               fails
+   * @throws IOException if the file can't be written
+   */
+  public List<Match> run(Path results) throws IllegalStateException, IOException {
+    if (this.players.size() < 2 || this.boards.isEmpty()) {
+      throw new IllegalStateException("A tournament needs two players and a board");
+    }
+    this.matches.clear();
+    for (BoardGeometry board : this.boards) {
+      for (int i = 0; i < this.players.size(); i++) {
+        for (int j = i + 1; j < this.players.size(); j++) {
+          if (this.format == Format.ROUND_ROBIN || i == 0) {
+            this.matches.add(new Match(board, i, j));
+          }
+        }
+      }
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+    CompletionService<int[]> done = new ExecutorCompletionService<>(pool);
+    try (BufferedWriter out = Files.newBufferedWriter(results)) {
+      int running = 0;
+      int turn = 0;
+      while (true) {
+        // Keep the threads busy with a few pairs waiting, taking turns between the matches
+        for (int tries = 0; running < 2 * this.threads && tries < this.matches.size(); tries++) {
+          int m = turn;
+          turn = (turn + 1) % this.matches.size();
+          Match match = this.matches.get(m);
+          if (match.decision == 0 && match.scheduled < this.maxPairs) {
+            long pairSeed = this.seed + match.scheduled++;
+            done.submit(() -> this.playPair(m, pairSeed));
+            running++;
+            tries = -1;
+          }
+        }
+        if (running == 0) {
+          break;
+        }
+        int[] pair = done.take().get();
+        running--;
+        this.record(pair, out);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while playing games", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A game failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    return new ArrayList<>(this.matches);
+  }
+
+  /**
+   * Plays one pair of games of a match.
+   * @param match index of the match
+   * @param seed seed of the opening
+   * @return the match index, then black's disc margin in the game with the first player as black
+   *         and in the game with the first player as white
+   */
+  private int[] playPair(int match, long seed) {
+    Match m = this.matches.get(match);
+    PlayerFactory first = this.players.get(m.first);
+    PlayerFactory second = this.players.get(m.second);
+    int[] a = MatchRunner.playGame(m.board, first, second, this.randomMoves, seed, null);
+    int[] b = MatchRunner.playGame(m.board, second, first, this.randomMoves, seed, null);
+    return new int[] {match, a[0], b[0]};
+  }
+
+  /**
+   * Counts a pair of games, writes them out and runs the SPRT on the match.
+   * @param pair result of playPair
+   * @param out results file
+   * @throws IOException if the file can't be written
+   */
+  private void record(int[] pair, BufferedWriter out) throws IOException {
+    Match m = this.matches.get(pair[0]);
+    m.stats.addPair(pair[1], -pair[2]);
+    String board = boardName(m.board);
+    String first = this.names.get(m.first);
+    String second = this.names.get(m.second);
+    out.write(board + " " + first + " " + second + " " + pair[1]);
+    out.newLine();
+    out.write(board + " " + second + " " + first + " " + pair[2]);
+    out.newLine();
+    out.flush();
+    if (this.sprt && m.decision == 0) {
+      m.decision = m.stats.sprt(this.elo0, this.elo1, this.alpha, this.beta);
+    }
+  }
+
+  /**
+   * Gets the name of a player.
+   * @param player index in the order the players were added
+   * @return the name given to addPlayer
+   */
+  public String getName(int player) {
+    return this.names.get(player);
+  }
+
+  /**
+   * Names a board shape the way the results file does.
+   * @param board shape of the board
+   * @return "hex" and the radius, or "square" and the diameter
+   */
+  private static String boardName(BoardGeometry board) {
+    if (board.isSquare()) {
+      return "square " + 2 * board.getRadius();
+    }
+    return "hex " + board.getRadius();
+  }
+
+  /**
+   * Runs a tournament from the command line: "results boards roundrobin|gauntlet pairs
+   * [sprt:elo0:elo1] players...", where boards is a comma-separated list like "hex:5,square:8"
+   * and each player is given as PlayerFactory.parse reads it, which is also its name. The SPRT
+   * uses alpha = beta = 0.05. Every core is used. For example
+   * "results.txt square:8 gauntlet 500 sprt:0:50 search:3 ai advanced".
+   * @param args command line arguments
+   * @throws IOException if the results file can't be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 6) {
+      throw new IllegalArgumentException("Usage: results boards roundrobin|gauntlet pairs "
+              + "[sprt:elo0:elo1] players...");
+    }
+    Tournament tournament = new Tournament();
+    for (String board : args[1].split(",")) {
+      String[] parts = board.split(":");
+      if (parts.length == 2 && parts[0].equals("hex")) {
+        tournament.addBoard(BoardGeometry.hex(Integer.parseInt(parts[1])));
+      } else if (parts.length == 2 && parts[0].equals("square")) {
+        tournament.addBoard(BoardGeometry.square(Integer.parseInt(parts[1])));
+      } else {
+        throw new IllegalArgumentException("Boards must be like hex:5 or square:8");
+      }
+    }
+    if (args[2].equals("roundrobin")) {
+      tournament.setFormat(Format.ROUND_ROBIN);
+    } else if (args[2].equals("gauntlet")) {
+      tournament.setFormat(Format.GAUNTLET);
+    } else {
+      throw new IllegalArgumentException("Format must be \"roundrobin\" or \"gauntlet\"");
+    }
+    tournament.setMaxPairs(Integer.parseInt(args[3]));
+    int next = 4;
+    if (args[next].startsWith("sprt:")) {
+      String[] bounds = args[next++].split(":");
+      if (bounds.length != 3) {
+        throw new IllegalArgumentException("SPRT must be given as sprt:elo0:elo1");
+      }
+      tournament.setSprt(Double.parseDouble(bounds[1]), Double.parseDouble(bounds[2]), 0.05, 0.05);
+    }
+    for (int i = next; i < args.length; i++) {
+      tournament.addPlayer(args[i], PlayerFactory.parse(args[i]));
+    }
+    tournament.setThreads(Runtime.getRuntime().availableProcessors());
+    long start = System.nanoTime();
+    for (Match match : tournament.run(Paths.get(args[0]))) {
+      MatchStats stats = match.getStats();
+      String decision = "";
+      if (match.getDecision() > 0) {
+        decision = ", SPRT accepts elo1";
+      } else if (match.getDecision() < 0) {
+        decision = ", SPRT accepts elo0";
+      }
+      System.out.printf("%s: %s vs %s: +%d =%d -%d, margin %+.2f, Elo %+.1f +/- %.1f%s%n",
+              boardName(match.getBoard()), tournament.getName(match.getFirst()),
+              tournament.getName(match.getSecond()), stats.getWins(), stats.getDraws(),
+              stats.getLosses(), stats.getAverageMargin(), stats.getElo(), stats.getEloError(),
+              decision);
+    }
+    System.out.printf("Done in %.1f s%n", (System.nanoTime() - start) / 1e9);
+  }
+}
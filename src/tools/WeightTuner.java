@@ -0,0 +1,667 @@
+package tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.BitboardReversiModelImpl;
+import model.IReversiModel;
+import model.ReversiModelImpl;
+import model.SquareReversiModelImpl;
+import model.evaluation.Evaluator;
+import model.evaluation.PatternEvaluator;
+import model.evaluation.WeightFile;
+import model.evaluation.WeightedEvaluator;
+import model.geometry.BoardGeometry;
+import model.player.AlphaBetaAIPlayer;
+import model.position.Position3D;
+import model.tile.TileType;
+
+/**
+ * Fits the weights of an evaluator to recorded games, offline.
+ * Every position of every finished game on the tuner's board shape is played again on a bitboard
+ * model and turned into the features of the chosen evaluator: the seven terms of a
+ * WeightedEvaluator, or the table entry each pattern of a PatternEvaluator reads. The features and
+ * the final disc difference (for the side to move) go to a temporary file, so only one chunk of
+ * positions is ever in memory. Each epoch then streams that file chunk by chunk; the gradient of
+ * a chunk is worked out on several threads, each over its own share of the positions, and the
+ * weights take one Adam step per chunk.
+ * The fit is either least squares on the disc difference, or logistic on who won. Weights are
+ * fitted in evaluator units, unitsPerDisc of them to a disc, starting from the evaluator's
+ * default weights, and are rounded when the evaluator is made. save writes them as a WeightFile.
+ * The main method also plays self-play games to fit to.
+ */
+public final class WeightTuner {
+
+  /**
+   * The evaluators the tuner can fit.
+   */
+  public enum Model {
+    WEIGHTED,
+    PATTERN
+  }
+
+  /**
+   * What the fit minimises.
+   */
+  public enum Loss {
+    LEAST_SQUARES,
+    LOGISTIC
+  }
+
+  // Lead, in discs, that the logistic fit takes as about a 73% chance of winning
+  private static final double LOGISTIC_DISCS = 8;
+  private static final double BETA1 = 0.9;
+  private static final double BETA2 = 0.999;
+  private static final double EPSILON = 1e-8;
+  private static final int MAX_FEATURES = 18;
+
+  private final BoardGeometry geometry;
+  private final Model model;
+  private final double[] weights;
+  private Loss loss;
+  private int threads;
+  private int epochs;
+  private int chunkSize;
+  private double learningRate;
+  private int unitsPerDisc;
+  private long positionCount;
+  private int skippedGames;
+
+  /**
+   * Constructs a tuner for one evaluator on one board shape. By default it fits by least squares
+   * over 20 epochs, in chunks of 65536 positions, on every available core.
+   * @param geometry shape of the board to fit
+   * @param model evaluator to fit
+   */
+  public WeightTuner(BoardGeometry geometry, Model model) {
+    this.geometry = geometry;
+    this.model = model;
+    this.loss = Loss.LEAST_SQUARES;
+    this.threads = Runtime.getRuntime().availableProcessors();
+    this.epochs = 20;
+    this.chunkSize = 1 << 16;
+    this.learningRate = 0.1;
+    this.unitsPerDisc = 8;
+    if (model == Model.WEIGHTED) {
+      WeightedEvaluator start = new WeightedEvaluator();
+      WeightedEvaluator.Term[] terms = WeightedEvaluator.Term.values();
+      this.weights = new double[terms.length];
+      for (int t = 0; t < terms.length; t++) {
+        this.weights[t] = start.getWeight(terms[t]);
+      }
+    } else {
+      int[][] tables = new PatternEvaluator().getTables(geometry);
+      int size = 0;
+      for (int[] table : tables) {
+        size += table.length;
+      }
+      this.weights = new double[size];
+      int offset = 0;
+      for (int[] table : tables) {
+        for (int value : table) {
+          this.weights[offset++] = value;
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets what the fit minimises.
+   * @param loss least squares on the disc difference, or logistic on the result
+   */
+  public void setLoss(Loss loss) {
+    this.loss = loss;
+  }
+
+  /**
+   * Sets how many threads work out each gradient.
+   * @param threads thread count
+   * @throws IllegalArgumentException if the count is not positive
+   */
+  public void setThreads(int threads) throws IllegalArgumentException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * Sets how many times the fit goes over every position.
+   * @param epochs epoch count
+   * @throws IllegalArgumentException if the count is not positive
+   */
+  public void setEpochs(int epochs) throws IllegalArgumentException {
+    if (epochs <= 0) {
+      throw new IllegalArgumentException("Epoch count must be positive");
+    }
+    this.epochs = epochs;
+  }
+
+  /**
+   * Sets how many positions are read and stepped on at once.
+   * @param chunkSize positions per chunk
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  public void setChunkSize(int chunkSize) throws IllegalArgumentException {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive");
+    }
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Sets the Adam learning rate, about how far a weight moves in one step.
+   * @param learningRate learning rate, in evaluator units
+   * @throws IllegalArgumentException if the rate is not positive
+   */
+  public void setLearningRate(double learningRate) throws IllegalArgumentException {
+    if (!(learningRate > 0)) {
+      throw new IllegalArgumentException("Learning rate must be positive");
+    }
+    this.learningRate = learningRate;
+  }
+
+  /**
+   * Sets how many evaluator units a disc is worth, which keeps rounded weights precise.
+   * @param unitsPerDisc units per disc
+   * @throws IllegalArgumentException if the number is not positive
+   */
+  public void setUnitsPerDisc(int unitsPerDisc) throws IllegalArgumentException {
+    if (unitsPerDisc <= 0) {
+      throw new IllegalArgumentException("Units per disc must be positive");
+    }
+    this.unitsPerDisc = unitsPerDisc;
+  }
+
+  /**
+   * Gets how many positions the last fit used.
+   * @return position count
+   */
+  public long getPositionCount() {
+    return this.positionCount;
+  }
+
+  /**
+   * Gets how many records the last fit left out, because they were on another board, unfinished
+   * or not legal.
+   * @return skipped record count
+   */
+  public int getSkippedGames() {
+    return this.skippedGames;
+  }
+
+  /**
+   * Fits the weights to every finished game in a record file, carrying on from the current
+   * weights.
+   * @param records file of game records, one per line
+   * @return the mean loss of each epoch (squared discs, or cross-entropy)
+   * @throws IOException if a file can't be read or written
+   * @throws IllegalArgumentException if there are no usable games in the file
+   */
+  public double[] fit(Path records) throws IOException, IllegalArgumentException {
+    Path cache = Files.createTempFile("reversi-positions", ".bin");
+    ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+    try {
+      this.positionCount = this.extract(records, cache);
+      if (this.positionCount == 0) {
+        throw new IllegalArgumentException("No finished games on this board in " + records);
+      }
+      double[] losses = new double[this.epochs];
+      double[][] moments = new double[2][this.weights.length];
+      int[] steps = new int[1];
+      for (int e = 0; e < this.epochs; e++) {
+        losses[e] = this.epoch(cache, pool, moments, steps) / this.positionCount;
+      }
+      return losses;
+    } finally {
+      pool.shutdownNow();
+      Files.deleteIfExists(cache);
+    }
+  }
+
+  /**
+   * Makes an evaluator with the fitted weights, rounded (and for tables, kept within a short).
+   * @return the evaluator
+   */
+  public Evaluator toEvaluator() {
+    if (this.model == Model.WEIGHTED) {
+      int[] rounded = new int[this.weights.length];
+      for (int t = 0; t < rounded.length; t++) {
+        rounded[t] = (int) Math.round(this.weights[t]);
+      }
+      return new WeightedEvaluator(rounded);
+    }
+    int[] sizes = PatternEvaluator.tableSizes(this.geometry);
+    int[][] tables = new int[sizes.length][];
+    int offset = 0;
+    for (int kind = 0; kind < sizes.length; kind++) {
+      tables[kind] = new int[sizes[kind]];
+      for (int i = 0; i < sizes[kind]; i++) {
+        long value = Math.round(this.weights[offset++]);
+        tables[kind][i] = (int) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+      }
+    }
+    PatternEvaluator evaluator = new PatternEvaluator();
+    evaluator.setTables(this.geometry, tables);
+    return evaluator;
+  }
+
+  /**
+   * Writes the fitted weights to a weight file.
+   * @param file file to write
+   * @throws IOException if the file can't be written
+   */
+  public void save(Path file) throws IOException {
+    Evaluator evaluator = this.toEvaluator();
+    if (evaluator instanceof WeightedEvaluator) {
+      WeightFile.write((WeightedEvaluator) evaluator, file);
+    } else {
+      WeightFile.write((PatternEvaluator) evaluator, file, this.geometry);
+    }
+  }
+
+  /**
+   * Plays every game of a record file again and writes the features and result of each of its
+   * positions. Each position is a float (final disc difference for the side to move), a byte
+   * (feature count), then an int (weight index) and a short (value) per feature.
+   * @param records file of game records
+   * @param cache file to write the positions to
+   * @return how many positions were written
+   * @throws IOException if a file can't be read or written
+   */
+  private long extract(Path records, Path cache) throws IOException {
+    long written = 0;
+    this.skippedGames = 0;
+    int cells = this.geometry.getCellCount();
+    int[] slots = new int[MAX_FEATURES];
+    int[] values = new int[MAX_FEATURES];
+    int[] counts = new int[2 * cells + 4];
+    int[][] gameSlots = new int[counts.length][MAX_FEATURES];
+    int[][] gameValues = new int[counts.length][MAX_FEATURES];
+    boolean[] blackToMove = new boolean[counts.length];
+    try (BufferedReader in = Files.newBufferedReader(records);
+         DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(Files.newOutputStream(cache)))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (line.trim().isEmpty()) {
+          continue;
+        }
+        GameRecord record;
+        try {
+          record = GameRecord.parse(line);
+        } catch (IllegalArgumentException e) {
+          this.skippedGames++;
+          continue;
+        }
+        int[] moves = record.getMoves();
+        if (record.getGeometry() != this.geometry || moves.length > counts.length) {
+          this.skippedGames++;
+          continue;
+        }
+        BitboardReversiModelImpl board = new BitboardReversiModelImpl(this.geometry);
+        int positions = 0;
+        boolean legal = true;
+        for (int move : moves) {
+          if (board.isGameOver()) {
+            legal = false;
+            break;
+          }
+          counts[positions] = this.features(board, slots, values);
+          System.arraycopy(slots, 0, gameSlots[positions], 0, counts[positions]);
+          System.arraycopy(values, 0, gameValues[positions], 0, counts[positions]);
+          blackToMove[positions] = board.getTurn() == TileType.BLACK;
+          positions++;
+          if (!GameRecord.play(board, move)) {
+            legal = false;
+            break;
+          }
+        }
+        if (!legal || !GameRecord.isFinished(board)) {
+          this.skippedGames++;
+          continue;
+        }
+        int discs = board.getBlackScore() - board.getWhiteScore();
+        for (int p = 0; p < positions; p++) {
+          out.writeFloat(blackToMove[p] ? discs : -discs);
+          out.writeByte(counts[p]);
+          for (int f = 0; f < counts[p]; f++) {
+            out.writeInt(gameSlots[p][f]);
+            out.writeShort(gameValues[p][f]);
+          }
+        }
+        written += positions;
+      }
+    }
+    return written;
+  }
+
+  /**
+   * Works out the features of a position for the evaluator being fitted. A pattern's value is 1
+   * or -1, since its table holds values for black and the score is for the side to move.
+   * @param board position to look at
+   * @param slots filled with the weight index of each feature
+   * @param values filled with the value of each feature
+   * @return feature count
+   */
+  private int features(BitboardReversiModelImpl board, int[] slots, int[] values) {
+    if (this.model == Model.WEIGHTED) {
+      WeightedEvaluator.features(board, values);
+      int count = WeightedEvaluator.Term.values().length;
+      for (int t = 0; t < count; t++) {
+        slots[t] = t;
+      }
+      return count;
+    }
+    int count = PatternEvaluator.features(board, slots);
+    int sign = board.getTurn() == TileType.BLACK ? 1 : -1;
+    for (int p = 0; p < count; p++) {
+      values[p] = sign;
+    }
+    return count;
+  }
+
+  /**
+   * Runs one epoch over the positions file.
+   * @param cache positions file
+   * @param pool threads to work out gradients on
+   * @param moments Adam's running mean and mean square of each weight's gradient
+   * @param steps Adam steps taken so far, in its only element
+   * @return total loss over the epoch
+   * @throws IOException if the file can't be read
+   */
+  private double epoch(Path cache, ExecutorService pool, double[][] moments, int[] steps)
+          throws IOException {
+    int chunk = (int) Math.min(this.chunkSize, this.positionCount);
+    float[] targets = new float[chunk];
+    int[] starts = new int[chunk + 1];
+    int[] slots = new int[chunk * MAX_FEATURES];
+    short[] values = new short[chunk * MAX_FEATURES];
+    double[][] partial = new double[this.threads][this.weights.length];
+    double total = 0;
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(cache), 1 << 16))) {
+      long left = this.positionCount;
+      while (left > 0) {
+        int n = (int) Math.min(chunk, left);
+        for (int i = 0; i < n; i++) {
+          targets[i] = in.readFloat();
+          int count = in.readByte();
+          starts[i + 1] = starts[i] + count;
+          for (int f = starts[i]; f < starts[i + 1]; f++) {
+            slots[f] = in.readInt();
+            values[f] = in.readShort();
+          }
+        }
+        total += this.step(n, targets, starts, slots, values, partial, pool, moments, steps);
+        left -= n;
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Works out the gradient of one chunk on several threads and takes an Adam step with it.
+   * @param n positions in the chunk
+   * @param targets final disc difference of each position, for the side to move
+   * @param starts where each position's features start, with one more for the end
+   * @param slots weight index of each feature
+   * @param values value of each feature
+   * @param partial one gradient per thread
+   * @param pool threads to use
+   * @param moments Adam's running mean and mean square of each weight's gradient
+   * @param steps Adam steps taken so far, in its only element
+   * @return total loss over the chunk
+   */
+  private double step(int n, float[] targets, int[] starts, int[] slots, short[] values,
+                      double[][] partial, ExecutorService pool, double[][] moments, int[] steps) {
+    int parts = Math.min(this.threads, n);
+    List<Callable<Double>> tasks = new ArrayList<>();
+    for (int t = 0; t < parts; t++) {
+      int from = (int) ((long) n * t / parts);
+      int to = (int) ((long) n * (t + 1) / parts);
+      double[] gradient = partial[t];
+      tasks.add(() -> this.gradient(from, to, targets, starts, slots, values, gradient));
+    }
+    double total = 0;
+    try {
+      for (Future<Double> result : pool.invokeAll(tasks)) {
+        total += result.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while fitting", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Gradient failed", e.getCause());
+    }
+    steps[0]++;
+    double correction1 = 1 - Math.pow(BETA1, steps[0]);
+    double correction2 = 1 - Math.pow(BETA2, steps[0]);
+    for (int w = 0; w < this.weights.length; w++) {
+      double g = 0;
+      for (int t = 0; t < parts; t++) {
+        g += partial[t][w];
+      }
+      g /= n;
+      moments[0][w] = BETA1 * moments[0][w] + (1 - BETA1) * g;
+      moments[1][w] = BETA2 * moments[1][w] + (1 - BETA2) * g * g;
+      this.weights[w] -= this.learningRate * (moments[0][w] / correction1)
+              / (Math.sqrt(moments[1][w] / correction2) + EPSILON);
+    }
+    return total;
+  }
+
+  /**
+   * Works out the gradient of the loss over some positions of a chunk.
+   * @param from first position
+   * @param to position after the last
+   * @param targets final disc difference of each position, for the side to move
+   * @param starts where each position's features start
+   * @param slots weight index of each feature
+   * @param values value of each feature
+   * @param gradient cleared and filled with the summed gradient of each weight
+   * @return total loss over the positions
+   */
+  private double gradient(int from, int to, float[] targets, int[] starts, int[] slots,
+                          short[] values, double[] gradient) {
+    Arrays.fill(gradient, 0);
+    double units = this.unitsPerDisc;
+    double spread = units * LOGISTIC_DISCS;
+    double total = 0;
+    for (int i = from; i < to; i++) {
+      double score = 0;
+      for (int f = starts[i]; f < starts[i + 1]; f++) {
+        score += this.weights[slots[f]] * values[f];
+      }
+      double slope;
+      if (this.loss == Loss.LEAST_SQUARES) {
+        double error = (score - units * targets[i]) / units;
+        total += error * error;
+        slope = 2 * error / units;
+      } else {
+        double p = 1 / (1 + Math.exp(-score / spread));
+        double won = targets[i] > 0 ? 1 : targets[i] < 0 ? 0 : 0.5;
+        p = Math.min(1 - EPSILON, Math.max(EPSILON, p));
+        total -= won * Math.log(p) + (1 - won) * Math.log(1 - p);
+        slope = (p - won) / spread;
+      }
+      for (int f = starts[i]; f < starts[i + 1]; f++) {
+        gradient[slots[f]] += slope * values[f];
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Plays games between two search players and writes their records. Each game starts with some
+   * random moves so the games differ, and the games are played on several threads.
+   * @param geometry shape of the board
+   * @param games how many games to play
+   * @param depth search depth of the players
+   * @param randomMoves how many random moves each game starts with
+   * @param seed seed for the random moves (game i uses seed + i)
+   * @param threads how many games are played at once
+   * @param records file to write the records to
+   * @throws IOException if the file can't be written
+   */
+  public static void selfPlay(BoardGeometry geometry, int games, int depth, int randomMoves,
+                              long seed, int threads, Path records) throws IOException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try (BufferedWriter out = Files.newBufferedWriter(records)) {
+      List<Future<GameRecord>> pending = new ArrayList<>();
+      for (int game = 0; game < games; game++) {
+        long gameSeed = seed + game;
+        pending.add(pool.submit(() -> playGame(geometry, depth, randomMoves, gameSeed)));
+        if (pending.size() == 16 * threads || game == games - 1) {
+          for (Future<GameRecord> record : pending) {
+            out.write(record.get().toString());
+            out.newLine();
+          }
+          pending.clear();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while playing games", e);
+    } catch (ExecutionException e) {
+      throw new IOException("A game failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Plays one self-play game.
+   * @param geometry shape of the board
+   * @param depth search depth of the players
+   * @param randomMoves how many random moves the game starts with
+   * @param seed seed for the random moves
+   * @return the record of the game
+   */
+  static GameRecord playGame(BoardGeometry geometry, int depth, int randomMoves, long seed) {
+    IReversiModel model = geometry.isSquare()
+            ? new SquareReversiModelImpl(2 * geometry.getRadius())
+            : new ReversiModelImpl(geometry.getRadius());
+    AlphaBetaAIPlayer black = new AlphaBetaAIPlayer(TileType.BLACK, model, 60_000, depth);
+    AlphaBetaAIPlayer white = new AlphaBetaAIPlayer(TileType.WHITE, model, 60_000, depth);
+    List<Integer> moves = new ArrayList<>();
+    try {
+      Random random = new Random(seed);
+      int[] legal = new int[geometry.getCellCount()];
+      while (!model.isGameOver()) {
+        int count = model.legalMoves(legal);
+        if (count == 0) {
+          model.pass();
+          moves.add(-1);
+          continue;
+        }
+        Position3D move;
+        if (moves.size() < randomMoves) {
+          move = geometry.getPosition(legal[random.nextInt(count)]);
+        } else if (model.getTurn() == TileType.BLACK) {
+          move = black.getOptimalMove();
+        } else {
+          move = white.getOptimalMove();
+        }
+        model.placeTile(move);
+        moves.add(geometry.indexOf(move));
+      }
+    } finally {
+      black.close();
+      white.close();
+    }
+    int[] played = new int[moves.size()];
+    for (int i = 0; i < played.length; i++) {
+      played[i] = moves.get(i);
+    }
+    return new GameRecord(geometry, played);
+  }
+
+  /**
+   * Reads a board shape from the command line.
+   * @param shape "hex" or "square"
+   * @param size radius or diameter
+   * @return board geometry
+   */
+  private static BoardGeometry geometry(String shape, String size) {
+    if (shape.equals("hex")) {
+      return BoardGeometry.hex(Integer.parseInt(size));
+    } else if (shape.equals("square")) {
+      return BoardGeometry.square(Integer.parseInt(size));
+    }
+    throw new IllegalArgumentException("Board shape must be \"hex\" or \"square\"");
+  }
+
+  /**
+   * Runs the tuner from the command line, either
+   * "selfplay hex|square size games records [depth] [randomMoves] [seed]" to write self-play
+   * records, or "fit hex|square size weighted|pattern records weights [squares|logistic]
+   * [epochs]" to fit an evaluator to them and write its weight file.
+   * @param args command line arguments
+   * @throws IOException if a file can't be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length >= 5 && args[0].equals("selfplay")) {
+      BoardGeometry geometry = geometry(args[1], args[2]);
+      int games = Integer.parseInt(args[3]);
+      int depth = args.length > 5 ? Integer.parseInt(args[5]) : 2;
+      int randomMoves = args.length > 6 ? Integer.parseInt(args[6]) : 8;
+      long seed = args.length > 7 ? Long.parseLong(args[7]) : 1;
+      long start = System.nanoTime();
+      selfPlay(geometry, games, depth, randomMoves, seed,
+              Runtime.getRuntime().availableProcessors(), Paths.get(args[4]));
+      System.out.printf("Played %d games in %.1f s%n", games, (System.nanoTime() - start) / 1e9);
+    } else if (args.length >= 6 && args[0].equals("fit")) {
+      BoardGeometry geometry = geometry(args[1], args[2]);
+      Model model;
+      if (args[3].equals("weighted")) {
+        model = Model.WEIGHTED;
+      } else if (args[3].equals("pattern")) {
+        model = Model.PATTERN;
+      } else {
+        throw new IllegalArgumentException("Evaluator must be \"weighted\" or \"pattern\"");
+      }
+      WeightTuner tuner = new WeightTuner(geometry, model);
+      if (args.length > 6) {
+        if (args[6].equals("logistic")) {
+          tuner.setLoss(Loss.LOGISTIC);
+        } else if (!args[6].equals("squares")) {
+          throw new IllegalArgumentException("Loss must be \"squares\" or \"logistic\"");
+        }
+      }
+      if (args.length > 7) {
+        tuner.setEpochs(Integer.parseInt(args[7]));
+      }
+      long start = System.nanoTime();
+      double[] losses = tuner.fit(Paths.get(args[4]));
+      for (int e = 0; e < losses.length; e++) {
+        System.out.printf("Epoch %d: loss %.4f%n", e + 1, losses[e]);
+      }
+      System.out.printf("Fitted %d positions (%d records skipped) in %.1f s%n",
+              tuner.getPositionCount(), tuner.getSkippedGames(),
+              (System.nanoTime() - start) / 1e9);
+      tuner.save(Paths.get(args[5]));
+    } else {
+      throw new IllegalArgumentException("Usage: selfplay hex|square size games records "
+              + "[depth] [randomMoves] [seed], or fit hex|square size weighted|pattern records "
+              + "weights [squares|logistic] [epochs]");
+    }
+  }
+}
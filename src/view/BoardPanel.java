@@ -252,12 +252,11 @@ public class BoardPanel extends JPanel {
           drawHexagon(g2d, x1, 1.5 * size * ring + y, size);
           int s = -1 * i;
           int q = -1 * s - ring;
-          if (this.model.getCopyOfTileAt(new Position3D(q, ring, s))
-                  .getTileType().equals(TileType.BLACK)) {
+          TileType type = this.tileTypeAt(q, ring);
+          if (type.equals(TileType.BLACK)) {
             drawBlackPiece(g2d, x1, 1.5 * size * ring + y, size);
           }
-          if (this.model.getCopyOfTileAt(new Position3D(q, ring, s))
-                  .getTileType().equals(TileType.WHITE)) {
+          if (type.equals(TileType.WHITE)) {
             drawWhitePiece(g2d, x1, 1.5 * size * ring + y, size);
           }
         }
@@ -291,13 +290,11 @@ public class BoardPanel extends JPanel {
           double x1 = -1 * size * (Math.sqrt(3) / 2) * ring + Math.sqrt(3) * size * i + x;
           drawHexagon(g2d, x1, -1.5 * size * ring + y, size);
           int r = -1 * ring;
-          int q = -1 * i - r;
-          if (this.model.getCopyOfTileAt(new Position3D(i, r, q))
-                  .getTileType().equals(TileType.BLACK)) {
+          TileType type = this.tileTypeAt(i, r);
+          if (type.equals(TileType.BLACK)) {
             drawBlackPiece(g2d, x1, -1.5 * size * ring + y, size);
           }
-          if (this.model.getCopyOfTileAt(new Position3D(i, r, q))
-                  .getTileType().equals(TileType.WHITE)) {
+          if (type.equals(TileType.WHITE)) {
             drawWhitePiece(g2d, x1, -1.5 * size * ring + y, size);
           }
         }
@@ -331,14 +328,30 @@ public class BoardPanel extends JPanel {
    * @param s The s-value in cube coordinates to check on the board
    */
   private void checkForBlackAndWhite(Graphics2D g2d, double y1, double x2, int r, int q, int s) {
-    if (this.model.getCopyOfTileAt(new Position3D(s, r, q)).getTileType().equals(TileType.BLACK)) {
+    TileType type = this.tileTypeAt(s, r);
+    if (type.equals(TileType.BLACK)) {
       drawBlackPiece(g2d, x2, y1, size);
     }
-    if (this.model.getCopyOfTileAt(new Position3D(s, r, q)).getTileType().equals(TileType.WHITE)) {
+    if (type.equals(TileType.WHITE)) {
       drawWhitePiece(g2d, x2, y1, size);
     }
   }
 
+  /**
+   * Gets what is on the board at the given cube coordinates, looked up by cell id.
+   * @param q The q-value in cube coordinates
+   * @param r The r-value in cube coordinates
+   * @return The tile type at those coordinates
+   * @throws IllegalArgumentException If the coordinates are not on the board
+   */
+  private TileType tileTypeAt(int q, int r) {
+    int cell = this.model.getGeometry().indexOf(q, r);
+    if (cell < 0) {
+      throw new IllegalArgumentException("This position is not on the board");
+    }
+    return this.model.getTileTypeAt(cell);
+  }
+
   /**
    * Gets all the buttons to be placed over the board.
    * @return A list of hexagon buttons
@@ -1,9 +1,7 @@
 package view;
 
 import controller.ReversiController;
-import model.IReversiModel;
 import model.position.Position3D;
-import model.tile.TileType;
 
 import javax.swing.JButton;
 import java.awt.Polygon;
@@ -200,19 +198,12 @@ public class HexagonTile extends JButton {
     }
   }
 
+  /**
+   * Gets how many tiles moving here would flip, which the model already knows for the current
+   * position, so painting hints doesn't copy the game.
+   * @return amount of tiles the move would flip, or 0 if it is not legal
+   */
   protected int calculateScoreIncrease() {
-    int oldScore = this.observer.getPlayerScore();
-    int newScore;
-    IReversiModel model = this.observer.getCopyOfModel();
-    if (!model.isMoveLegal(this.cubeCoords)) {
-      return 0;
-    }
-    model.placeTile(this.cubeCoords);
-    if (this.observer.getPlayerColor().equals(TileType.BLACK)) {
-      newScore = model.getBlackScore();
-    } else {
-      newScore = model.getWhiteScore();
-    }
-    return newScore - oldScore - 1;
+    return this.observer.getFlipCount(this.cubeCoords);
   }
 }
@@ -1,7 +1,7 @@
 package view;
 
 import model.IReversiModel;
-import model.position.Position3D;
+import model.geometry.BoardGeometry;
 
 /**
  * Reversi textual view implementation.
@@ -24,14 +24,13 @@ public class ReversiTextualView implements TextualView {
   @Override
   public String toString() {
     StringBuilder drawString = new StringBuilder();
+    BoardGeometry geometry = this.model.getGeometry();
     for (int row = 0; row < 2 * this.model.getRadius() - 1; row++) {
       int r = -1 * this.model.getRadius() + 1 + row;
       drawString.append(" ".repeat(Math.max(0, Math.abs(r))));
       for (int col = 0; col < 2 * this.model.getRadius() - 1 - Math.abs(r); col++) {
         int q = Math.max(col - row, -1 * this.model.getRadius() + 1 + col);
-        int s = Math.min(this.model.getRadius() - 1 - col,
-                2 * this.model.getRadius() - 2 - row - col);
-        drawString.append(this.model.getTileAt(new Position3D(q, r, s)).toString());
+        drawString.append(this.model.getTileTypeAt(geometry.indexOf(q, r)).getSymbol());
         if (col < 2 * this.model.getRadius() - 2 - Math.abs(r)) {
           drawString.append(" ");
         }
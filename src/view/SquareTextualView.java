@@ -1,7 +1,7 @@
 package view;
 
 import model.IReversiModel;
-import model.position.Position3D;
+import model.geometry.BoardGeometry;
 
 /**
  * Textual view for the square game.
@@ -20,9 +20,10 @@ public class SquareTextualView implements TextualView {
   @Override
   public String toString() {
     StringBuilder result = new StringBuilder();
+    BoardGeometry geometry = model.getGeometry();
     for (int y = 0; y < model.getRadius() * 2; y++) {
       for (int x = 0; x < model.getRadius() * 2; x++) {
-        result.append(model.getCopyOfTileAt(new Position3D(x, y, -x - y)).toString()).append(" ");
+        result.append(model.getTileTypeAt(geometry.indexOf(x, y)).getSymbol()).append(" ");
       }
       result.append("\n");
     }
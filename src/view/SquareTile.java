@@ -22,6 +22,7 @@ public class SquareTile extends JButton {
   private final SquareBoardPanel boardPanel;
   private final int row;
   private final int col;
+  private final int cell;
   private ReversiController observer;
   private boolean enabled;
 
@@ -38,6 +39,7 @@ public class SquareTile extends JButton {
     this.boardPanel = squareBoardPanel;
     this.row = row;
     this.col = col;
+    this.cell = model.getGeometry().indexOf(col, row);
     this.enabled = false;
     setBackground(Color.GRAY);
     setPreferredSize(new Dimension(50, 50)); // Set an appropriate size
@@ -101,11 +103,11 @@ public class SquareTile extends JButton {
     int x = (getWidth() - diameter) / 2;
     int y = (getHeight() - diameter) / 2;
 
-    Position3D pos = new Position3D(col, row, -col - row);
-    if (this.model.getCopyOfTileAt(pos).getTileType().equals(TileType.BLACK)) {
+    TileType type = this.model.getTileTypeAt(this.cell);
+    if (type.equals(TileType.BLACK)) {
       g.setColor(Color.BLACK);
       g.fillOval(x, y, diameter, diameter);
-    } else if (this.model.getCopyOfTileAt(pos).getTileType().equals(TileType.WHITE)) {
+    } else if (type.equals(TileType.WHITE)) {
       g.setColor(Color.WHITE);
       g.fillOval(x, y, diameter, diameter);
     }